@@ -5,6 +5,7 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -18,6 +19,7 @@ import buffer.BufferManager;
 import catalog.CatalogManager;
 import catalog.info.TableInfo;
 import config.GeneralConfig;
+import config.JoinConfig;
 import config.NamingConfig;
 import config.StartupConfig;
 import diskio.PathUtil;
@@ -76,6 +78,10 @@ public class BenchAndVerify {
 		BufferManager.loadDB();
 		System.out.println("Data loaded.");
 		Indexer.indexAll(StartupConfig.INDEX_CRITERIA);
+		// Verification requires complete join result table
+		JoinConfig.STREAM_AGGREGATES = false;
+		// Learn join orders from scratch for each query
+		JoinConfig.CACHE_JOIN_ORDERS = false;
 		// Read all queries from files
 		Map<String, PlainSelect> nameToQuery = 
 				BenchUtil.readAllQueries(queryDir);
@@ -220,13 +226,17 @@ public class BenchAndVerify {
 			benchOut.print(JoinStats.nrIndexLookups + "\t");
 			benchOut.print(JoinStats.nrIndexEntries + "\t");
 			benchOut.print(JoinStats.nrUniqueIndexLookups + "\t");
-			benchOut.print(JoinStats.nrUctNodes + "\t");
+			benchOut.print(JoinStats.nrUctNodes.get() + "\t");
 			benchOut.print(JoinStats.nrPlansTried + "\t");
+			benchOut.print(JoinStats.nrPlansCompiled + "\t");
 			benchOut.print(skinnerJoinCard + "\t");
 			benchOut.print(JoinStats.nrSamples + "\t");
 			benchOut.print(JoinStats.avgReward + "\t");
 			benchOut.print(JoinStats.maxReward + "\t");
-			benchOut.println(JoinStats.totalWork);
+			benchOut.print(JoinStats.totalWork + "\t");
+			benchOut.print(JoinStats.avgBudget + "\t");
+			benchOut.print(JoinStats.lastBudget + "\t");
+			benchOut.println(Arrays.toString(JoinStats.nrSamplesPerThread));
 			benchOut.flush();
 			// Clean up
 			BufferManager.unloadTempData();
@@ -3,12 +3,11 @@ package benchmark;
 import java.io.File;
 import java.io.PrintWriter;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
 
-import catalog.CatalogManager;
-import config.NamingConfig;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.PlainSelect;
@@ -59,8 +58,9 @@ public class BenchUtil {
 	public static void writeBenchHeader(PrintWriter benchOut) {
 		benchOut.println("Query\tMillis\tPreMillis\tPostMillis\tTuples\t"
 				+ "Iterations\tLookups\tNrIndexEntries\tnrUniqueLookups\t" 
-				+ "NrUctNodes\tNrPlans\tJoinCard\tNrSamples\tAvgReward\t"
-				+ "MaxReward\tTotalWork");
+				+ "NrUctNodes\tNrPlans\tNrCompiled\tJoinCard\tNrSamples\t"
+				+ "AvgReward\tMaxReward\tTotalWork\tAvgBudget\t"
+				+ "LastBudget\tThreadSamples");
 	}
 	/**
 	 * Writes out statistics concerning last query execution
@@ -73,9 +73,6 @@ public class BenchUtil {
 	 */
 	public static void writeStats(String queryName, long totalMillis, 
 			PrintWriter benchOut) throws Exception {
-		// Get cardinality of Skinner join result
-		int skinnerJoinCard = CatalogManager.getCardinality(
-				NamingConfig.JOINED_NAME);
 		// Generate output
 		benchOut.print(queryName + "\t");
 		benchOut.print(totalMillis + "\t");
@@ -86,13 +83,17 @@ public class BenchUtil {
 		benchOut.print(JoinStats.nrIndexLookups + "\t");
 		benchOut.print(JoinStats.nrIndexEntries + "\t");
 		benchOut.print(JoinStats.nrUniqueIndexLookups + "\t");
-		benchOut.print(JoinStats.nrUctNodes + "\t");
+		benchOut.print(JoinStats.nrUctNodes.get() + "\t");
 		benchOut.print(JoinStats.nrPlansTried + "\t");
-		benchOut.print(skinnerJoinCard + "\t");
+		benchOut.print(JoinStats.nrPlansCompiled + "\t");
+		benchOut.print(JoinStats.skinnerJoinCard + "\t");
 		benchOut.print(JoinStats.nrSamples + "\t");
 		benchOut.print(JoinStats.avgReward + "\t");
 		benchOut.print(JoinStats.maxReward + "\t");
-		benchOut.println(JoinStats.totalWork);
+		benchOut.print(JoinStats.totalWork + "\t");
+		benchOut.print(JoinStats.avgBudget + "\t");
+		benchOut.print(JoinStats.lastBudget + "\t");
+		benchOut.println(Arrays.toString(JoinStats.nrSamplesPerThread));
 		benchOut.flush();
 	}
 }
@@ -0,0 +1,140 @@
+package benchmark;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import buffer.BufferManager;
+import catalog.CatalogManager;
+import config.GeneralConfig;
+import config.JoinConfig;
+import config.StartupConfig;
+import diskio.PathUtil;
+import expressions.ExpressionInfo;
+import indexing.Indexer;
+import joining.JoinProcessor;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import preprocessing.Context;
+import preprocessing.Preprocessor;
+import query.QueryInfo;
+import statistics.JoinStats;
+
+/**
+ * Compares join processing with and without leapfrog
+ * intersection of join indices on all queries with a
+ * cyclic join graph in a given directory.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class LeapfrogBench {
+	/**
+	 * Processes all cyclic queries in given directory,
+	 * once without and once with leapfrog intersection.
+	 *
+	 * @param args	first argument is Skinner DB directory,
+	 * 				second argument is query directory,
+	 * 				third argument is output file name
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		// Check for command line parameters
+		if (args.length != 3) {
+			System.out.println("Specify Skinner DB dir, "
+					+ "query directory, and output file!");
+			return;
+		}
+		// Initialize database
+		String SkinnerDbDir = args[0];
+		String queryDir = args[1];
+		PathUtil.initSchemaPaths(SkinnerDbDir);
+		CatalogManager.loadDB(PathUtil.schemaPath);
+		PathUtil.initDataPaths(CatalogManager.currentDB);
+		System.out.println("Loading data ...");
+		GeneralConfig.inMemory = true;
+		BufferManager.loadDB();
+		System.out.println("Data loaded.");
+		Indexer.indexAll(StartupConfig.INDEX_CRITERIA);
+		// Read all queries from files
+		Map<String, PlainSelect> nameToQuery =
+				BenchUtil.readAllQueries(queryDir);
+		// Open benchmark result file
+		PrintWriter benchOut = new PrintWriter(args[2]);
+		benchOut.println("Query\tLeapfrog\tJoinMillis\tIterations\t"
+				+ "Tuples\tNrSamples\tJoinCard");
+		boolean originalLeapfrog = JoinConfig.LEAPFROG;
+		// Avoid that the second run benefits from the first one
+		boolean originalCache = JoinConfig.CACHE_JOIN_ORDERS;
+		JoinConfig.CACHE_JOIN_ORDERS = false;
+		for (Entry<String, PlainSelect> entry : nameToQuery.entrySet()) {
+			String queryName = entry.getKey();
+			QueryInfo query = new QueryInfo(entry.getValue(),
+					false, -1, -1, null);
+			if (!isCyclic(query)) {
+				System.out.println("Skipping acyclic query " + queryName);
+				continue;
+			}
+			System.out.println(queryName);
+			for (boolean leapfrog : new boolean[] {false, true}) {
+				JoinConfig.LEAPFROG = leapfrog;
+				query = new QueryInfo(entry.getValue(), 
+						false, -1, -1, null);
+				Context preSummary = Preprocessor.process(query);
+				JoinProcessor.process(query, preSummary);
+				benchOut.print(queryName + "\t");
+				benchOut.print(leapfrog + "\t");
+				benchOut.print(JoinStats.joinMillis + "\t");
+				benchOut.print(JoinStats.nrIterations + "\t");
+				benchOut.print(JoinStats.nrTuples + "\t");
+				benchOut.print(JoinStats.nrSamples + "\t");
+				benchOut.println(JoinStats.skinnerJoinCard);
+				benchOut.flush();
+				// Clean up
+				BufferManager.unloadTempData();
+				CatalogManager.removeTempTables();
+			}
+		}
+		JoinConfig.LEAPFROG = originalLeapfrog;
+		JoinConfig.CACHE_JOIN_ORDERS = originalCache;
+		benchOut.close();
+	}
+	/**
+	 * Checks whether the join graph of the given query,
+	 * formed by equality join predicates, contains cycles.
+	 *
+	 * @param query	query to check
+	 * @return		true iff the join graph is cyclic
+	 */
+	static boolean isCyclic(QueryInfo query) {
+		// Union-find over query tables
+		int[] parent = new int[query.nrJoined];
+		for (int tableCtr=0; tableCtr<query.nrJoined; ++tableCtr) {
+			parent[tableCtr] = tableCtr;
+		}
+		for (ExpressionInfo equiPred : query.equiJoinPreds) {
+			Integer[] tables = equiPred.aliasIdxMentioned.toArray(
+					new Integer[0]);
+			int root1 = root(parent, tables[0]);
+			int root2 = root(parent, tables[1]);
+			// Edge between connected tables closes cycle
+			if (root1 == root2) {
+				return true;
+			}
+			parent[root1] = root2;
+		}
+		return false;
+	}
+	/**
+	 * Returns representative of set containing given table.
+	 *
+	 * @param parent	parent pointers of union-find structure
+	 * @param table		index of table
+	 * @return			index of representative table
+	 */
+	static int root(int[] parent, int table) {
+		while (parent[table] != table) {
+			table = parent[table];
+		}
+		return table;
+	}
+}
@@ -6,10 +6,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import catalog.CatalogManager;
 import catalog.info.ColumnInfo;
 import catalog.info.TableInfo;
+import config.BufferConfig;
 import config.LoggingConfig;
 import data.ColumnData;
 import data.Dictionary;
@@ -17,10 +20,13 @@ import data.DoubleData;
 import data.IntData;
 import data.LongData;
 import data.StringData;
+import diskio.ColumnFile;
 import diskio.DiskUtil;
 import diskio.PathUtil;
 import indexing.Index;
+import indexing.SortedIntIndex;
 import query.ColumnRef;
+import statistics.BufferStats;
 import types.JavaType;
 import types.TypeUtil;
 
@@ -47,6 +53,18 @@ public class BufferManager {
 	 */
 	public final static Map<ColumnRef, Index> colToIndex =
 			new ConcurrentHashMap<ColumnRef, Index>();
+	/**
+	 * Maps column references to sorted indices
+	 * (used for evaluating range predicates).
+	 */
+	public final static Map<ColumnRef, SortedIntIndex> colToSortedIndex =
+			new ConcurrentHashMap<ColumnRef, SortedIntIndex>();
+	/**
+	 * Maps columns that are currently being loaded to
+	 * the associated loading tasks.
+	 */
+	final static Map<ColumnRef, FutureTask<ColumnData>> colToLoad =
+			new ConcurrentHashMap<ColumnRef, FutureTask<ColumnData>>();
 	/**
 	 * Loads dictionary from hard disk.
 	 */
@@ -73,6 +91,8 @@ public class BufferManager {
 	}
 	/**
 	 * Loads data for current database into main memory.
+	 * Only loads the dictionary if columns are loaded
+	 * lazily (i.e., on first access).
 	 * 
 	 * @throws Exception
 	 */
@@ -81,6 +101,12 @@ public class BufferManager {
 		colToData.clear();
 		// Load dictionary from disk
 		loadDictionary();
+		// Columns are loaded on demand in lazy mode
+		if (BufferConfig.LAZY_LOADING) {
+			System.out.println("Columns are loaded on first access.");
+			ColumnPrefetcher.start();
+			return;
+		}
 		// Collect columns to load in parallel
 		List<ColumnRef> colsToLoad = new ArrayList<ColumnRef>();
 		for (TableInfo table : CatalogManager.currentDB.nameToTable.values()) {
@@ -103,59 +129,101 @@ public class BufferManager {
 		System.out.println("Loaded database.");
 	}
 	/**
-	 * Loads data for specified column from hard disk.
+	 * Loads data for specified column from hard disk unless
+	 * it is already loaded. Waits for completion if another
+	 * thread is currently loading the same column.
 	 * 
 	 * @param columnRef	reference to column to load
+	 * @return			data of loaded column
+	 * @throws Exception
+	 */
+	public static ColumnData loadColumn(ColumnRef columnRef) throws Exception {
+		ColumnData data = colToData.get(columnRef);
+		if (data != null) {
+			return data;
+		}
+		// Make sure that only one thread loads the column
+		FutureTask<ColumnData> newTask = new FutureTask<>(
+				() -> readColumn(columnRef));
+		FutureTask<ColumnData> task = colToLoad.putIfAbsent(
+				columnRef, newTask);
+		if (task == null) {
+			task = newTask;
+			try {
+				task.run();
+			} finally {
+				colToLoad.remove(columnRef, task);
+			}
+		}
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof Exception ? (Exception)cause : e;
+		}
+	}
+	/**
+	 * Reads data for specified column from hard disk and
+	 * inserts it into the buffer.
 	 * 
+	 * @param columnRef	reference to column to load
+	 * @return			data of loaded column
 	 * @throws Exception
 	 */
-	public static void loadColumn(ColumnRef columnRef) throws Exception {
-		// Check whether column is already loaded
-		if (!colToData.containsKey(columnRef)) {
-			long startMillis = System.currentTimeMillis();
-			// Get column information from catalog
-			ColumnInfo column = CatalogManager.getColumn(columnRef);
-			log("Loaded column meta-data: " + column.toString());
-			// Read generic object from file
-			String dataPath = PathUtil.colToPath.get(column);
-			Object object = DiskUtil.loadObject(dataPath);	
-			// Cast object according to column type
-			JavaType javaType = TypeUtil.toJavaType(column.type);
-			log("Column data type:\t" + javaType);
-			switch (javaType) {
-			case INT:
-				colToData.put(columnRef, (IntData)object);
-				break;
-			case LONG:
-				colToData.put(columnRef, (LongData)object);
-				break;
-			case DOUBLE:
-				colToData.put(columnRef, (DoubleData)object);
-				break;
-			case STRING:
-				colToData.put(columnRef, (StringData)object);
+	static ColumnData readColumn(ColumnRef columnRef) throws Exception {
+		// Check whether column was loaded in the meantime
+		ColumnData loaded = colToData.get(columnRef);
+		if (loaded != null) {
+			return loaded;
+		}
+		long startMillis = System.currentTimeMillis();
+		// Get column information from catalog
+		ColumnInfo column = CatalogManager.getColumn(columnRef);
+		log("Loaded column meta-data: " + column.toString());
+		// Read column from file (databases created by previous
+		// versions store serialized column objects).
+		String dataPath = PathUtil.colToPath.get(column);
+		Object object = ColumnFile.isColumnFile(dataPath) ?
+				ColumnFile.read(dataPath, BufferConfig.OFF_HEAP) :
+				DiskUtil.loadObject(dataPath);
+		// Cast object according to column type
+		JavaType javaType = TypeUtil.toJavaType(column.type);
+		log("Column data type:\t" + javaType);
+		switch (javaType) {
+		case INT:
+			colToData.put(columnRef, (IntData)object);
+			break;
+		case LONG:
+			colToData.put(columnRef, (LongData)object);
+			break;
+		case DOUBLE:
+			colToData.put(columnRef, (DoubleData)object);
+			break;
+		case STRING:
+			colToData.put(columnRef, (StringData)object);
+			break;
+		}
+		// Generate statistics for output
+		long totalMillis = System.currentTimeMillis() - startMillis;
+		BufferStats.colToLoadMillis.merge(columnRef, totalMillis, Long::sum);
+		if (LoggingConfig.BUFFER_VERBOSE) {
+			System.out.println("Loaded " + columnRef.toString() + 
+					" in " + totalMillis + " milliseconds");
+		}
+		// Generate debugging output
+		log("*** Column " + columnRef.toString() + " sample ***");
+		int cardinality = colToData.get(columnRef).getCardinality();
+		int sampleSize = Math.min(10, cardinality);
+		for (int i=0; i<sampleSize; ++i) {
+			switch (column.type) {
+			case STRING_CODE:
+				int code = ((IntData)object).get(i);
+				log(dictionary.getString(code));
 				break;
 			}
-			// Generate statistics for output
-			if (LoggingConfig.BUFFER_VERBOSE) {
-				long totalMillis = System.currentTimeMillis() - startMillis;
-				System.out.println("Loaded " + columnRef.toString() + 
-						" in " + totalMillis + " milliseconds");
-			}
-			// Generate debugging output
-			log("*** Column " + columnRef.toString() + " sample ***");
-			int cardinality = colToData.get(columnRef).getCardinality();
-			int sampleSize = Math.min(10, cardinality);
-			for (int i=0; i<sampleSize; ++i) {
-				switch (column.type) {
-				case STRING_CODE:
-					int code = ((IntData)object).data[i];
-					log(dictionary.getString(code));
-					break;
-				}
-			}
-			log("******");
 		}
+		log("******");
+		return (ColumnData)object;
 	}
 	/**
 	 * Returns data of specified column, loads data from disk if
@@ -166,11 +234,39 @@ public class BufferManager {
 	 * @throws Exception
 	 */
 	public static ColumnData getData(ColumnRef columnRef) throws Exception {
+		ColumnData data = colToData.get(columnRef);
+		// Collect statistics on base table columns
+		TableInfo table = CatalogManager.currentDB.
+				nameToTable.get(columnRef.aliasName);
+		if (table != null && !table.tempTable) {
+			ColumnPrefetcher.recordAccess(columnRef);
+			Map<ColumnRef, Long> counts = data != null ?
+					BufferStats.colToHits : BufferStats.colToMisses;
+			counts.merge(columnRef, 1L, Long::sum);
+		}
 		// Load data if necessary
-		if (!colToData.containsKey(columnRef)) {
-			loadColumn(columnRef);
+		return data != null ? data : loadColumn(columnRef);
+	}
+	/**
+	 * Returns number of rows in specified column. Reads the
+	 * cardinality from the column file header, without loading
+	 * the column, if it is currently not loaded.
+	 * 
+	 * @param columnRef	reference to column
+	 * @return			number of rows in column
+	 * @throws Exception
+	 */
+	public static int getCardinality(ColumnRef columnRef) throws Exception {
+		ColumnData data = colToData.get(columnRef);
+		if (data != null) {
+			return data.getCardinality();
+		}
+		ColumnInfo column = CatalogManager.getColumn(columnRef);
+		String dataPath = column == null ? null : PathUtil.colToPath.get(column);
+		if (dataPath != null && ColumnFile.isColumnFile(dataPath)) {
+			return ColumnFile.readCardinality(dataPath);
 		}
-		return colToData.get(columnRef);
+		return getData(columnRef).getCardinality();
 	}
 	/**
 	 * Remove given column from buffer space.
@@ -184,6 +280,7 @@ public class BufferManager {
 		}
 		colToData.remove(columnRef);
 		colToIndex.remove(columnRef);
+		colToSortedIndex.remove(columnRef);
 	}
 	/**
 	 * Unload all columns of temporary tables (typically after
@@ -0,0 +1,189 @@
+package buffer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import catalog.CatalogManager;
+import catalog.info.TableInfo;
+import config.BufferConfig;
+import config.LoggingConfig;
+import diskio.PathUtil;
+import query.ColumnRef;
+
+/**
+ * Loads base table columns in the background if columns
+ * are loaded lazily. Prioritizes columns that were used
+ * by many recent queries. Column usage is stored in the
+ * database directory so that columns used by queries of
+ * prior sessions are prefetched after startup.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class ColumnPrefetcher {
+	/**
+	 * Base table columns accessed by the current query.
+	 */
+	final static Set<ColumnRef> queryCols =
+			ConcurrentHashMap.newKeySet();
+	/**
+	 * Maps base table columns to usage scores (decayed
+	 * number of queries accessing the column).
+	 */
+	final static Map<ColumnRef, Double> colToScore =
+			new ConcurrentHashMap<>();
+	/**
+	 * Executes prefetching tasks in a background thread.
+	 */
+	final static ExecutorService executor =
+			Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "column-prefetcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+	/**
+	 * Loads column usage of prior sessions from disk and
+	 * starts prefetching the most frequently used columns.
+	 */
+	public static void start() {
+		colToScore.clear();
+		String path = PathUtil.columnUsagePath;
+		if (path != null && new File(path).exists()) {
+			try {
+				FileInputStream fileIn = new FileInputStream(path);
+				ObjectInputStream objIn = new ObjectInputStream(fileIn);
+				@SuppressWarnings("unchecked")
+				HashMap<String, HashMap<String, Double>> stored =
+						(HashMap<String, HashMap<String, Double>>)
+						objIn.readObject();
+				objIn.close();
+				fileIn.close();
+				for (Entry<String, HashMap<String, Double>> tableEntry :
+					stored.entrySet()) {
+					String tableName = tableEntry.getKey();
+					for (Entry<String, Double> colEntry :
+						tableEntry.getValue().entrySet()) {
+						ColumnRef colRef = new ColumnRef(
+								tableName, colEntry.getKey());
+						colToScore.put(colRef, colEntry.getValue());
+					}
+				}
+			} catch (Exception e) {
+				// Usage statistics only accelerate loading
+				log("Ignoring unreadable column usage: " + e);
+			}
+		}
+		prefetch();
+	}
+	/**
+	 * Registers access to given base table column
+	 * by current query.
+	 *
+	 * @param columnRef	accessed column
+	 */
+	static void recordAccess(ColumnRef columnRef) {
+		queryCols.add(columnRef);
+	}
+	/**
+	 * Updates usage scores after query processing, stores
+	 * them on disk, and prefetches columns with the highest
+	 * scores that are not loaded yet.
+	 */
+	public static void queryFinished() {
+		if (queryCols.isEmpty()) {
+			return;
+		}
+		// Give higher weight to recent queries
+		colToScore.replaceAll((colRef, score) ->
+				score * BufferConfig.PREFETCH_DECAY);
+		for (ColumnRef colRef : queryCols) {
+			colToScore.merge(colRef, 1.0, Double::sum);
+		}
+		queryCols.clear();
+		store();
+		prefetch();
+	}
+	/**
+	 * Writes column usage scores to the database directory.
+	 */
+	static void store() {
+		String path = PathUtil.columnUsagePath;
+		if (path == null) {
+			return;
+		}
+		HashMap<String, HashMap<String, Double>> toStore = new HashMap<>();
+		for (Entry<ColumnRef, Double> entry : colToScore.entrySet()) {
+			ColumnRef colRef = entry.getKey();
+			toStore.computeIfAbsent(colRef.aliasName,
+					t -> new HashMap<>()).put(
+							colRef.columnName, entry.getValue());
+		}
+		try {
+			FileOutputStream fileOut = new FileOutputStream(path);
+			ObjectOutputStream objOut = new ObjectOutputStream(fileOut);
+			objOut.writeObject(toStore);
+			objOut.close();
+			fileOut.close();
+		} catch (Exception e) {
+			log("Could not store column usage: " + e);
+		}
+	}
+	/**
+	 * Loads columns with maximal usage scores that are
+	 * currently not loaded in a background thread.
+	 */
+	static void prefetch() {
+		if (!BufferConfig.LAZY_LOADING || !BufferConfig.PREFETCH) {
+			return;
+		}
+		// Select unloaded base table columns
+		List<ColumnRef> candidates = new ArrayList<>();
+		for (ColumnRef colRef : colToScore.keySet()) {
+			TableInfo table = CatalogManager.currentDB.
+					nameToTable.get(colRef.aliasName);
+			if (table != null && !table.tempTable &&
+					table.nameToCol.containsKey(colRef.columnName) &&
+					!BufferManager.colToData.containsKey(colRef)) {
+				candidates.add(colRef);
+			}
+		}
+		// Prefetch columns in decreasing order of scores
+		candidates.sort((c1, c2) -> Double.compare(
+				colToScore.get(c2), colToScore.get(c1)));
+		int nrToLoad = Math.min(candidates.size(),
+				BufferConfig.NR_PREFETCH_COLUMNS);
+		for (ColumnRef colRef : candidates.subList(0, nrToLoad)) {
+			executor.submit(() -> {
+				try {
+					log("Prefetching column " + colRef);
+					BufferManager.loadColumn(colRef);
+				} catch (Exception e) {
+					System.err.println("Error prefetching column " + colRef);
+					e.printStackTrace();
+				}
+			});
+		}
+	}
+	/**
+	 * Log given text if buffer logging activated.
+	 *
+	 * @param text	text to output
+	 */
+	static void log(String text) {
+		if (LoggingConfig.BUFFER_VERBOSE) {
+			System.out.println(text);
+		}
+	}
+}
@@ -11,6 +11,11 @@ import types.SQLtype;
  *
  */
 public class ColumnInfo implements Serializable {
+	/**
+	 * Keeps catalogs written before data versions were
+	 * introduced readable.
+	 */
+	private static final long serialVersionUID = -3001270299479252647L;
 	/**
 	 * Name of the column.
 	 */
@@ -35,6 +40,12 @@ public class ColumnInfo implements Serializable {
 	 * Whether the column contains foreign key references.
 	 */
 	public final boolean isForeign;
+	/**
+	 * Version of the column data on disk, changes whenever
+	 * the data is overridden. Used to detect outdated files
+	 * derived from column data (e.g., persistent indexes).
+	 */
+	public long dataVersion = 0;
 	/**
 	 * Initializes column with given name, type, and data path.
 	 * 
@@ -54,6 +65,16 @@ public class ColumnInfo implements Serializable {
 		this.isNotNull = isNotNull;
 		this.isForeign = isForeign;
 	}
+	/**
+	 * Assigns new data version to column, must be called
+	 * whenever the data of this column is overridden.
+	 * Versions are based on the current time to avoid
+	 * clashes with columns dropped before.
+	 */
+	public void newDataVersion() {
+		dataVersion = Math.max(dataVersion + 1, 
+				System.currentTimeMillis());
+	}
 	@Override
 	public String toString() {
 		return name + " " + type;
@@ -2,7 +2,6 @@ package catalog.stats;
 
 import buffer.BufferManager;
 import catalog.info.TableInfo;
-import data.ColumnData;
 import query.ColumnRef;
 
 /**
@@ -28,8 +27,7 @@ public class TableStats {
 		} else {
 			String firstColName = tableInfo.columnNames.get(0);
 			ColumnRef firstColRef = new ColumnRef(tableName, firstColName);
-			ColumnData firstColData = BufferManager.getData(firstColRef);
-			this.cardinality = firstColData.cardinality;			
+			this.cardinality = BufferManager.getCardinality(firstColRef);
 		}
 	}
 	@Override
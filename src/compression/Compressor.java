@@ -8,17 +8,24 @@ import buffer.BufferManager;
 import catalog.CatalogManager;
 import catalog.info.ColumnInfo;
 import catalog.info.TableInfo;
+import config.CompressionConfig;
+import data.CompressedIntData;
 import data.Dictionary;
 import data.IntData;
+import data.PackedIntData;
+import data.RunLengthIntData;
 import data.StringData;
 import diskio.PathUtil;
 import query.ColumnRef;
+import types.JavaType;
 import types.SQLtype;
+import types.TypeUtil;
 
 /**
  * Compresses the current database for smaller memory footprint
- * and faster processing. Currently focused on compressing string
- * columns.
+ * and faster processing. Replaces strings by dictionary codes
+ * and encodes integer columns via bit-packing or run-length
+ * encoding.
  * 
  * @author immanueltrummer
  *
@@ -47,6 +54,12 @@ public class Compressor {
 		// Update and store catalog.
 		updateCatalog(stringCols);
 		System.out.println("Updated catalog.");
+		// Encode integer columns (including string codes).
+		if (CompressionConfig.ENCODE_INTEGERS) {
+			System.out.println("Encoding integer columns ...");
+			encodeIntColumns();
+			System.out.println("Integer columns encoded.");
+		}
 	}
 	/**
 	 * Returns references to all string columns in the database.
@@ -145,12 +158,65 @@ public class Compressor {
 			codedData.data[i] = code;
 		}
 		// Copy null flags
-		for (int i=stringData.isNull.nextSetBit(0); i!=-1; 
-				i=stringData.isNull.nextSetBit(i+1)) {
-			codedData.isNull.set(i);
-		}
+		codedData.addNulls(stringData.getNulls());
 		return codedData;
 	}
+	/**
+	 * Iterate over all integer columns in database and replace
+	 * original column by encoded version if encoding reduces
+	 * the column size sufficiently.
+	 * 
+	 * @throws Exception
+	 */
+	static void encodeIntColumns() throws Exception {
+		for (TableInfo tableInfo : 
+			CatalogManager.currentDB.nameToTable.values()) {
+			for (ColumnInfo colInfo : tableInfo.nameToCol.values()) {
+				if (!TypeUtil.toJavaType(colInfo.type).equals(JavaType.INT)) {
+					continue;
+				}
+				ColumnRef colRef = new ColumnRef(tableInfo.name, colInfo.name);
+				IntData intData = (IntData)BufferManager.getData(colRef);
+				if (intData instanceof CompressedIntData) {
+					continue;
+				}
+				CompressedIntData encoded = encodeData(intData);
+				if (encoded != null) {
+					System.out.println("Encoding " + colRef + " via " +
+							encoded.getClass().getSimpleName() + " (" +
+							encoded.compressedBytes() + " bytes)");
+					encoded.store(PathUtil.colToPath.get(colInfo));
+					BufferManager.unloadColumn(colRef);
+				}
+			}
+		}
+	}
+	/**
+	 * Encodes integer column via run-length encoding or via
+	 * bit-packing, depending on which one needs less space.
+	 * Returns null if neither encoding reaches the minimal
+	 * compression ratio.
+	 * 
+	 * @param intData	content of integer column
+	 * @return			encoded column or null
+	 */
+	static CompressedIntData encodeData(IntData intData) {
+		long plainBytes = 4L * intData.getCardinality();
+		long runBytes = 8L * RunLengthIntData.nrRuns(intData);
+		PackedIntData packed = PackedIntData.encode(intData);
+		long packedBytes = packed == null ? 
+				Long.MAX_VALUE : packed.compressedBytes();
+		// Finding runs is slower than unpacking values
+		CompressedIntData encoded = 2 * runBytes < packedBytes ?
+				RunLengthIntData.encode(intData) : packed;
+		if (encoded != null && plainBytes >= 
+				CompressionConfig.MIN_COMPRESSION_RATIO * 
+				encoded.compressedBytes()) {
+			return encoded;
+		} else {
+			return null;
+		}
+	}
 	/**
 	 * Update database catalog after compression.
 	 * 
@@ -168,7 +234,10 @@ public class Compressor {
 					nameToTable.get(tableName);
 			ColumnInfo colInfo = tableInfo.nameToCol.get(colName);
 			ColumnInfo compressedInfo = compressedColumn(colInfo);
+			compressedInfo.newDataVersion();
 			tableInfo.nameToCol.put(colName, compressedInfo);
+			PathUtil.colToPath.put(compressedInfo, 
+					PathUtil.colToPath.get(colInfo));
 		}
 		// Mark database as compressed
 		CatalogManager.currentDB.compressed = true;
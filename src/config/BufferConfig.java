@@ -0,0 +1,37 @@
+package config;
+
+/**
+ * Configures loading of column data into the buffer.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class BufferConfig {
+	/**
+	 * Whether to load columns on first access instead
+	 * of loading all columns at startup.
+	 */
+	public static boolean LAZY_LOADING = true;
+	/**
+	 * Whether to keep numerical base table columns outside
+	 * of the Java heap by mapping their data files (query
+	 * results are stored on the heap in each case).
+	 */
+	public static boolean OFF_HEAP = true;
+	/**
+	 * Whether to load columns used by recent queries in
+	 * the background after startup and after each query
+	 * (only used if columns are loaded lazily).
+	 */
+	public static boolean PREFETCH = true;
+	/**
+	 * Maximal number of columns to prefetch at once.
+	 */
+	public static int NR_PREFETCH_COLUMNS = 8;
+	/**
+	 * Column usage scores are multiplied by this factor
+	 * after each query (gives higher weight to columns
+	 * used by recent queries).
+	 */
+	public static double PREFETCH_DECAY = 0.5;
+}
@@ -0,0 +1,21 @@
+package config;
+
+/**
+ * Configures compression of database columns.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class CompressionConfig {
+	/**
+	 * Whether to encode integer columns (including
+	 * dictionary-coded string columns) via bit-packing
+	 * or run-length encoding when compressing.
+	 */
+	public static boolean ENCODE_INTEGERS = true;
+	/**
+	 * Integer columns are only encoded if encoding
+	 * reduces their size at least by this factor.
+	 */
+	public static double MIN_COMPRESSION_RATIO = 2;
+}
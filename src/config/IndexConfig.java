@@ -0,0 +1,31 @@
+package config;
+
+/**
+ * Configures the choice of index structures.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class IndexConfig {
+	/**
+	 * Whether to use direct-addressed indices for integer
+	 * columns whose values form a compact domain.
+	 */
+	public static boolean DENSE_INDEX = true;
+	/**
+	 * Use direct-addressed index only if the value range
+	 * (maximum minus minimum value) exceeds the number of
+	 * distinct values at most by this factor.
+	 */
+	public static int MAX_DENSE_RANGE_FACTOR = 4;
+	/**
+	 * Whether to create sorted indices on integer columns
+	 * at startup, used to evaluate range predicates.
+	 */
+	public static boolean SORTED_INDEX = true;
+	/**
+	 * Use sorted index to evaluate range predicates only if
+	 * the fraction of rows satisfying them is at most this.
+	 */
+	public static double MAX_RANGE_INDEX_SELECTIVITY = 0.1;
+}
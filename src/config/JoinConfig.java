@@ -20,6 +20,35 @@ public class JoinConfig {
 	 * Number of steps performed per episode.
 	 */
 	public static int BUDGET_PER_EPISODE = 500;
+	/**
+	 * Whether to measure episodes in wall-clock time: rewards
+	 * are normalized by episode duration and the number of
+	 * steps per episode is adapted between episodes.
+	 */
+	public static boolean TIMED_EPISODES = false;
+	/**
+	 * Minimal number of steps per episode (timed episodes).
+	 */
+	public static int MIN_BUDGET = 50;
+	/**
+	 * Maximal number of steps per episode (timed episodes).
+	 */
+	public static int MAX_BUDGET = 500000;
+	/**
+	 * Budget per episode grows if the fraction of episode time
+	 * spent outside of join execution exceeds this threshold.
+	 */
+	public static double MAX_OVERHEAD_SHARE = 0.2;
+	/**
+	 * Budget per episode shrinks if the join order changes
+	 * more often than this between consecutive episodes.
+	 */
+	public static double MAX_SWITCH_RATE = 0.5;
+	/**
+	 * Weight of newest observation in moving averages
+	 * that determine budget adaptations.
+	 */
+	public static double BUDGET_ADAPTATION_WEIGHT = 0.1;
 	/**
 	 * Weight for UCT exploration term (used to select
 	 * most interesting action to try next). This
@@ -47,4 +76,82 @@ public class JoinConfig {
 	 * convergence to one specific join order.
 	 */
 	public static final boolean FORGET = true;
+	/**
+	 * Whether to generate specialized code for
+	 * join orders that are executed frequently.
+	 */
+	public static boolean COMPILE_PLANS = true;
+	/**
+	 * Number of episodes in which a join order must be
+	 * executed before specialized code is generated.
+	 */
+	public static int COMPILATION_THRESHOLD = 10;
+	/**
+	 * Whether to intersect indices in leapfrog fashion at join
+	 * order positions where multiple equality join predicates
+	 * connect the next table to prior tables (instead of only
+	 * taking the maximum over index proposals).
+	 */
+	public static boolean LEAPFROG = false;
+	/**
+	 * Whether to stop join processing as soon as enough
+	 * result tuples were generated to satisfy the LIMIT
+	 * clause (only for queries without ordering, grouping,
+	 * and aggregation).
+	 */
+	public static boolean PUSH_LIMIT = true;
+	/**
+	 * Whether to calculate simple aggregates while join
+	 * result tuples are produced (instead of materializing
+	 * the join result before aggregation).
+	 */
+	public static boolean STREAM_AGGREGATES = true;
+	/**
+	 * Maximal number of bytes used by the progress tracker to
+	 * store evaluation states for join orders and prefixes. The
+	 * least recently used join orders are evicted once the
+	 * limit is reached.
+	 */
+	public static long MAX_PROGRESS_BYTES = 256L << 20;
+	/**
+	 * Whether to initialize join order search with join
+	 * orders learned for prior queries with the same join
+	 * graph (and to store learned orders for later queries).
+	 */
+	public static boolean CACHE_JOIN_ORDERS = true;
+	/**
+	 * Maximal number of join graph signatures for which
+	 * join orders are cached.
+	 */
+	public static int CACHE_MAX_SIGNATURES = 1000;
+	/**
+	 * Number of join orders cached per join graph signature.
+	 */
+	public static int CACHE_ORDERS_PER_QUERY = 3;
+	/**
+	 * Statistics of cached join orders are scaled down to
+	 * at most that many tries for the first table.
+	 */
+	public static int CACHE_MAX_TRIES = 100;
+	/**
+	 * Join order cache is written to disk after that many
+	 * updates (and when the console is closed).
+	 */
+	public static int CACHE_WRITE_INTERVAL = 10;
+	/**
+	 * Whether to alternate between join order learning and
+	 * executing a join order selected by a traditional,
+	 * cost-based optimizer (only for sequential processing).
+	 */
+	public static boolean HYBRID = false;
+	/**
+	 * Duration of first cost-based and learning phase in
+	 * hybrid mode (doubled after each learning phase).
+	 */
+	public static long HYBRID_START_MILLIS = 10;
+	/**
+	 * Cost-based optimizer uses dynamic programming for queries
+	 * joining up to that many tables (greedy heuristic otherwise).
+	 */
+	public static int MAX_DP_TABLES = 16;
 }
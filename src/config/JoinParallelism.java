@@ -0,0 +1,13 @@
+package config;
+
+/**
+ * Describes how work is divided among threads
+ * if the join phase uses multiple threads.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public enum JoinParallelism {
+	DATA,	// each thread joins one partition of the data
+	SEARCH	// threads share one UCT tree and progress tracker
+}
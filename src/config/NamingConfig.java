@@ -24,6 +24,11 @@ public class NamingConfig {
 	 * Prefix to add to table names after filtering them.
 	 */
 	public static final String FILTERED_PRE = "filtered.";
+	/**
+	 * Prefix to add to table names after removing
+	 * tuples without join partners.
+	 */
+	public static final String REDUCED_PRE = "reduced.";
 	/**
 	 * Name of table containing result after join phase.
 	 */
@@ -13,4 +13,28 @@ public class ParallelConfig {
 	 * Maximal number of tuples per batch during pre-processing.
 	 */
 	public final static int PRE_BATCH_SIZE = 1000;
+	/**
+	 * Number of threads used during the join phase. Each
+	 * thread joins one partition of the largest input table
+	 * (after pre-processing). Set to one to execute the join
+	 * phase on a single thread.
+	 */
+	public static int JOIN_THREADS = 1;
+	/**
+	 * Determines how join work is divided among threads
+	 * if more than one join thread is used.
+	 */
+	public static JoinParallelism JOIN_PARALLELISM = JoinParallelism.DATA;
+	/**
+	 * Maximal number of row ranges into which a column is
+	 * divided when creating an index on multiple threads.
+	 */
+	public static int INDEX_PARTITIONS = 
+			Runtime.getRuntime().availableProcessors();
+	/**
+	 * Minimal number of rows per range when creating an
+	 * index on multiple threads (columns with less than
+	 * twice that many rows are indexed on one thread).
+	 */
+	public static int MIN_INDEX_PARTITION_CARD = 500000;
 }
@@ -18,4 +18,48 @@ public class PreConfig {
 	 * unary equality predicates.
 	 */
 	public static final boolean CONSIDER_INDICES = true;
+	/**
+	 * Integer join columns of filtered tables with at most
+	 * that many rows are indexed via compact hash tables
+	 * instead of the generic integer index.
+	 */
+	public static int MAX_HASH_INDEX_CARD = 10000000;
+	/**
+	 * Whether to remove tuples without join partners from
+	 * filtered tables via semi-joins before the join phase.
+	 */
+	public static boolean SEMI_JOIN_REDUCTION = true;
+	/**
+	 * Semi-join reduction is skipped if all filtered
+	 * tables together contain fewer rows.
+	 */
+	public static int SEMI_JOIN_MIN_ROWS = 100000;
+	/**
+	 * Reduced tables are only materialized if at least
+	 * this fraction of their rows was removed.
+	 */
+	public static double SEMI_JOIN_MIN_REDUCTION = 0.1;
+	/**
+	 * Whether to evaluate equality and range predicates on
+	 * compressed integer columns directly on compressed data.
+	 */
+	public static boolean FILTER_COMPRESSED = true;
+	/**
+	 * Whether to filter large tables via Bloom filters on the
+	 * join columns of small filtered tables they join with.
+	 */
+	public static boolean BLOOM_FILTERS = true;
+	/**
+	 * Tables with at least that many rows probe Bloom filters.
+	 */
+	public static int BLOOM_MIN_PROBE_CARD = 1000000;
+	/**
+	 * Bloom filters are only built on filtered tables
+	 * with at most that many rows.
+	 */
+	public static int BLOOM_MAX_BUILD_CARD = 1000000;
+	/**
+	 * Number of Bloom filter bits per inserted row.
+	 */
+	public static int BLOOM_BITS_PER_KEY = 8;
 }
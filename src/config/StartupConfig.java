@@ -11,4 +11,10 @@ public class StartupConfig {
 	 * How to select columns on which to create indices at startup.
 	 */
 	public static final IndexingMode INDEX_CRITERIA = IndexingMode.ALL;
+	/**
+	 * Whether to store indices created at startup in the
+	 * database directory and to load them from there
+	 * (instead of recreating them) at the next startup.
+	 */
+	public static boolean PERSIST_INDEXES = true;
 }
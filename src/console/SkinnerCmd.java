@@ -9,6 +9,7 @@ import java.util.regex.Pattern;
 
 import benchmark.BenchUtil;
 import buffer.BufferManager;
+import buffer.ColumnPrefetcher;
 import catalog.CatalogManager;
 import catalog.info.TableInfo;
 import compression.Compressor;
@@ -20,6 +21,7 @@ import diskio.LoadCSV;
 import diskio.PathUtil;
 import execution.Master;
 import indexing.Indexer;
+import joining.uct.JoinOrderCache;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.create.table.CreateTable;
@@ -28,6 +30,7 @@ import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
 import print.RelationPrinter;
 import query.SQLexception;
+import statistics.BufferStats;
 
 /**
  * Runs Skinner command line console.
@@ -225,6 +228,10 @@ public class SkinnerCmd {
 					// Clean up intermediate results
 					BufferManager.unloadTempData();
 					CatalogManager.removeTempTables();
+					// Warm columns used by recent queries
+					ColumnPrefetcher.queryFinished();
+					// Write join orders learned by recent queries
+					JoinOrderCache.persist(false);
 				}
 			} else {
 				System.out.println("Only plain select statements supported");
@@ -280,6 +287,10 @@ public class SkinnerCmd {
 					// Clean up intermediate results
 					BufferManager.unloadTempData();
 					CatalogManager.removeTempTables();
+					// Warm columns used by recent queries
+					ColumnPrefetcher.queryFinished();
+					// Write join orders learned by recent queries
+					JoinOrderCache.persist(false);
 				}				
 			} else {
 				System.out.println("Error - explain command supports "
@@ -304,6 +315,9 @@ public class SkinnerCmd {
 			return false;
 		} else if (input.startsWith("bench")) {
 			processBenchCmd(input);
+		} else if (input.equals("buffer")) {
+			// Show statistics on column loading
+			System.out.print(BufferStats.summary());
 		} else if (input.equals("compress")) {
 			Compressor.compress();
 		} else if (input.startsWith("exec")) {
@@ -313,6 +327,7 @@ public class SkinnerCmd {
 			processExplain(inputFrags);
 		} else if (input.equals("help")) {
 			System.out.println("'bench <query Dir> <output file>' to benchmark queries in *.sql files");
+			System.out.println("'buffer' to show column loading statistics");
 			System.out.println("'compress' to compress database");
 			System.out.println("'exec <SQL file>' to execute file");
 			System.out.println("'explain <Plot Dir> <Plot Bound> "
@@ -384,5 +399,7 @@ public class SkinnerCmd {
 			}
 		}
 		scanner.close();
+		// Write pending updates of join order cache
+		JoinOrderCache.persist(true);
 	}
 }
@@ -2,11 +2,8 @@ package data;
 
 import java.io.Serializable;
 import java.util.BitSet;
-import java.util.Collection;
 import java.util.List;
 
-import joining.result.ResultTuple;
-
 /**
  * Represents data contained in one table column.
  * 
@@ -14,22 +11,131 @@ import joining.result.ResultTuple;
  *
  */
 public abstract class ColumnData implements Serializable {
+	/**
+	 * Fixed serialization version to keep databases
+	 * stored by previous versions loadable.
+	 */
+	private static final long serialVersionUID = 5244527646422782239L;
 	/**
 	 * Cardinality of this column.
 	 */
 	public final int cardinality;
 	/**
-	 * I-th bit is set if the i-th row contains an SQL NULL value.
+	 * I-th bit is set if the i-th row contains an SQL NULL value
+	 * (allocated when inserting the first NULL value, null if
+	 * the column contains no NULL values).
 	 */
-	public final BitSet isNull;
+	BitSet isNull;
 	/**
-	 * Initializes flags indicating NULL values.
+	 * Initializes column without NULL values.
 	 * 
 	 * @param cardinality	number of rows in column
 	 */
 	public ColumnData(int cardinality) {
 		this.cardinality = cardinality;
-		this.isNull = new BitSet(cardinality);
+		this.isNull = null;
+	}
+	/**
+	 * Returns true iff the given row contains an SQL NULL value.
+	 * 
+	 * @param row	index of row
+	 * @return		true iff row contains NULL value
+	 */
+	public boolean isNull(int row) {
+		return isNull != null && isNull.get(row);
+	}
+	/**
+	 * Returns true iff the column contains at least one NULL
+	 * value (operators use faster code for columns without).
+	 * 
+	 * @return	true iff column contains NULL values
+	 */
+	public boolean hasNulls() {
+		return isNull != null && !isNull.isEmpty();
+	}
+	/**
+	 * Returns flags marking rows with NULL values (an empty set
+	 * for columns without NULL values). The returned set must
+	 * not be modified.
+	 * 
+	 * @return	bit set marking rows with NULL values
+	 */
+	public BitSet getNulls() {
+		return isNull == null ? new BitSet() : isNull;
+	}
+	/**
+	 * Marks given row as containing an SQL NULL value.
+	 * 
+	 * @param row	index of row
+	 */
+	public void setNull(int row) {
+		if (isNull == null) {
+			isNull = new BitSet(cardinality);
+		}
+		isNull.set(row);
+	}
+	/**
+	 * Sets NULL flag of given row to given value.
+	 * 
+	 * @param row		index of row
+	 * @param nullValue	whether row contains NULL value
+	 */
+	public void setNull(int row, boolean nullValue) {
+		if (nullValue) {
+			setNull(row);
+		} else if (isNull != null) {
+			isNull.clear(row);
+		}
+	}
+	/**
+	 * Marks rows in given range as containing NULL values.
+	 * 
+	 * @param fromRow	index of first row to mark
+	 * @param toRow		index after last row to mark
+	 */
+	public void addNulls(int fromRow, int toRow) {
+		if (fromRow < toRow) {
+			setNull(fromRow);
+			isNull.set(fromRow, toRow);
+		}
+	}
+	/**
+	 * Marks given rows as containing NULL values.
+	 * 
+	 * @param rows	rows containing NULL values
+	 */
+	public void addNulls(BitSet rows) {
+		if (!rows.isEmpty()) {
+			if (isNull == null) {
+				isNull = new BitSet(cardinality);
+			}
+			isNull.or(rows);
+		}
+	}
+	/**
+	 * Swaps NULL flags of the two specified rows.
+	 * 
+	 * @param row1	first row index
+	 * @param row2	second row index
+	 */
+	protected void swapNulls(int row1, int row2) {
+		if (isNull != null) {
+			boolean tempNull = isNull.get(row1);
+			isNull.set(row1, isNull.get(row2));
+			isNull.set(row2, tempNull);
+		}
+	}
+	/**
+	 * Drops empty NULL flags of columns stored by previous
+	 * versions (which allocated flags for each column).
+	 * 
+	 * @return	this column
+	 */
+	protected Object readResolve() {
+		if (isNull != null && isNull.isEmpty()) {
+			isNull = null;
+		}
+		return this;
 	}
 	/**
 	 * Contains -1 if element in first row is ordered before
@@ -49,19 +155,29 @@ public abstract class ColumnData implements Serializable {
 	 */
 	public abstract int hashForRow(int row);
 	/**
-	 * Swaps elements of the two specified rows.
+	 * Returns true iff the column is stored in a form that
+	 * cannot be changed in place (e.g., mapped from a file
+	 * or encoded). Such columns must be copied to the heap
+	 * before swapping rows.
+	 * 
+	 * @return	true iff column is read-only
+	 */
+	public boolean isReadOnly() {
+		return false;
+	}
+	/**
+	 * Swaps elements of the two specified rows (only
+	 * supported for columns that are not read-only).
 	 * 
 	 * @param row1	first row index
 	 * @param row2	second row index
 	 */
 	public void swapRows(int row1, int row2) {
-		// Swap NULL flags
-		boolean tempNull = isNull.get(row1);
-		isNull.set(row1, isNull.get(row2));
-		isNull.set(row2, tempNull);
+		swapNulls(row1, row2);
 	}
 	/**
-	 * Writes data to disk at specified path.
+	 * Writes data to disk at specified path
+	 * (in binary column format).
 	 * 
 	 * @param path	store data here
 	 * @throws Exception
@@ -84,16 +200,15 @@ public abstract class ColumnData implements Serializable {
 	 */
 	public abstract ColumnData copyRows(BitSet rowsToCopy);
 	/**
-	 * Produces new column by copying rows that appear
-	 * at given table index within the given (composite)
-	 * join result tuples.
+	 * Produces new column by copying the rows whose
+	 * indices appear in the prefix of given length
+	 * of the given array (in that order).
 	 * 
-	 * @param tuples	list of join result tuples
-	 * @param tableIdx	copy tuple indices for that table
-	 * @return			new column that copies given rows
+	 * @param rowsToCopy	array of row indices to copy
+	 * @param nrRows		number of array entries to consider
+	 * @return				new column that copies given rows
 	 */
-	public abstract ColumnData copyRows(
-			Collection<ResultTuple> tuples, int tableIdx);
+	public abstract ColumnData copyRows(int[] rowsToCopy, int nrRows);
 	/**
 	 * Returns number of rows stored for column.
 	 * 
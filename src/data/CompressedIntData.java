@@ -0,0 +1,114 @@
+package data;
+
+import java.util.BitSet;
+import java.util.List;
+
+import diskio.ColumnFile;
+
+/**
+ * Represents content of integer column in a compressed
+ * representation. Compressed columns are read-only and
+ * copies of rows are stored uncompressed (e.g., before
+ * sorting rows in place).
+ *
+ * @author immanueltrummer
+ *
+ */
+public abstract class CompressedIntData extends IntData {
+	/**
+	 * Fixed serialization version (compressed columns are
+	 * stored in binary column format, not serialized).
+	 */
+	private static final long serialVersionUID = 3160458727911580323L;
+	/**
+	 * Initializes column with given cardinality.
+	 *
+	 * @param cardinality	number of rows
+	 */
+	public CompressedIntData(int cardinality) {
+		super(cardinality, null);
+	}
+	/**
+	 * Returns indices of non-null rows whose value falls into
+	 * the given range (including both bounds), evaluated on the
+	 * compressed representation.
+	 *
+	 * @param lower	lower bound on value
+	 * @param upper	upper bound on value
+	 * @return		bit set marking rows in range
+	 */
+	public abstract BitSet rowsInRange(long lower, long upper);
+	/**
+	 * Returns number of bytes used for storing values
+	 * in compressed form (excluding NULL flags).
+	 *
+	 * @return	size of compressed values in bytes
+	 */
+	public abstract long compressedBytes();
+
+	@Override
+	public int compareRows(int row1, int row2) {
+		if (isNull(row1) || isNull(row2)) {
+			return 2;
+		} else {
+			return Integer.compare(get(row1), get(row2));
+		}
+	}
+
+	@Override
+	public int hashForRow(int row) {
+		return Integer.hashCode(get(row));
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public void store(String path) throws Exception {
+		ColumnFile.write(path, this);
+	}
+
+	@Override
+	public ColumnData copyRows(List<Integer> rowsToCopy) {
+		IntData copyColumn = new IntData(rowsToCopy.size());
+		int copiedRowCtr = 0;
+		for (int row : rowsToCopy) {
+			// Treat special case: insertion of null values
+			if (row==-1) {
+				copyColumn.data[copiedRowCtr] = 0;
+				copyColumn.setNull(copiedRowCtr);
+			} else {
+				copyColumn.data[copiedRowCtr] = get(row);
+				copyColumn.setNull(copiedRowCtr, isNull(row));
+			}
+			++copiedRowCtr;
+		}
+		return copyColumn;
+	}
+
+	@Override
+	public ColumnData copyRows(int[] rowsToCopy, int nrRows) {
+		IntData copyColumn = new IntData(nrRows);
+		for (int copiedRowCtr=0; copiedRowCtr<nrRows; ++copiedRowCtr) {
+			int row = rowsToCopy[copiedRowCtr];
+			copyColumn.data[copiedRowCtr] = get(row);
+			copyColumn.setNull(copiedRowCtr, isNull(row));
+		}
+		return copyColumn;
+	}
+
+	@Override
+	public ColumnData copyRows(BitSet rowsToCopy) {
+		IntData copyColumn = new IntData(rowsToCopy.cardinality());
+		int copiedRowCtr = 0;
+		for (int row=rowsToCopy.nextSetBit(0); row!=-1;
+				row=rowsToCopy.nextSetBit(row+1)) {
+			copyColumn.data[copiedRowCtr] = get(row);
+			copyColumn.setNull(copiedRowCtr, isNull(row));
+			++copiedRowCtr;
+		}
+		return copyColumn;
+	}
+}
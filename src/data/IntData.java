@@ -1,15 +1,10 @@
 package data;
 
-import java.io.FileOutputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.BitSet;
-import java.util.Collection;
 import java.util.List;
 
-import joining.result.ResultTuple;
+import diskio.ColumnFile;
 
 /**
  * Represents content of integer column.
@@ -19,7 +14,12 @@ import joining.result.ResultTuple;
  */
 public class IntData extends ColumnData implements Serializable {
 	/**
-	 * Holds integer data.
+	 * Fixed serialization version to keep databases
+	 * stored by previous versions loadable.
+	 */
+	private static final long serialVersionUID = -60758381123559485L;
+	/**
+	 * Holds integer data (null for data stored off heap).
 	 */
 	public final int[] data;
 	/**
@@ -31,10 +31,30 @@ public class IntData extends ColumnData implements Serializable {
 		super(cardinality);
 		this.data = new int[cardinality];
 	}
+	/**
+	 * Initializes column with given data array (used by
+	 * sub-classes storing data outside of the array).
+	 * 
+	 * @param cardinality	number of rows
+	 * @param data			array holding data or null
+	 */
+	protected IntData(int cardinality, int[] data) {
+		super(cardinality);
+		this.data = data;
+	}
+	/**
+	 * Returns value stored in given row.
+	 * 
+	 * @param row	index of row
+	 * @return		value in row
+	 */
+	public int get(int row) {
+		return data[row];
+	}
 
 	@Override
 	public int compareRows(int row1, int row2) {
-		if (isNull.get(row1) || isNull.get(row2)) {
+		if (isNull(row1) || isNull(row2)) {
 			return 2;
 		} else {
 			return Integer.compare(data[row1], data[row2]);			
@@ -58,12 +78,7 @@ public class IntData extends ColumnData implements Serializable {
 
 	@Override
 	public void store(String path) throws Exception {
-		Files.createDirectories(Paths.get(path).getParent());
-		FileOutputStream fileOut = new FileOutputStream(path);
-		ObjectOutputStream objOut = new ObjectOutputStream(fileOut);
-		objOut.writeObject(this);
-		objOut.close();
-		fileOut.close();
+		ColumnFile.write(path, this);
 	}
 
 	@Override
@@ -74,10 +89,10 @@ public class IntData extends ColumnData implements Serializable {
 			// Treat special case: insertion of null values
 			if (row==-1) {
 				copyColumn.data[copiedRowCtr] = 0;
-				copyColumn.isNull.set(copiedRowCtr);
+				copyColumn.setNull(copiedRowCtr);
 			} else {
 				copyColumn.data[copiedRowCtr] = data[row];
-				copyColumn.isNull.set(copiedRowCtr, isNull.get(row));				
+				copyColumn.setNull(copiedRowCtr, isNull(row));				
 			}
 			++copiedRowCtr;
 		}
@@ -85,14 +100,12 @@ public class IntData extends ColumnData implements Serializable {
 	}
 
 	@Override
-	public ColumnData copyRows(Collection<ResultTuple> tuples, int tableIdx) {
-		IntData copyColumn = new IntData(tuples.size());
-		int copiedRowCtr = 0;
-		for (ResultTuple compositeTuple : tuples) {
-			int baseTuple = compositeTuple.baseIndices[tableIdx];
-			copyColumn.data[copiedRowCtr] = data[baseTuple];
-			copyColumn.isNull.set(copiedRowCtr, isNull.get(baseTuple));
-			++copiedRowCtr;
+	public ColumnData copyRows(int[] rowsToCopy, int nrRows) {
+		IntData copyColumn = new IntData(nrRows);
+		for (int copiedRowCtr=0; copiedRowCtr<nrRows; ++copiedRowCtr) {
+			int row = rowsToCopy[copiedRowCtr];
+			copyColumn.data[copiedRowCtr] = data[row];
+			copyColumn.setNull(copiedRowCtr, isNull(row));
 		}
 		return copyColumn;
 	}
@@ -104,7 +117,7 @@ public class IntData extends ColumnData implements Serializable {
 		for (int row=rowsToCopy.nextSetBit(0); row!=-1; 
 				row=rowsToCopy.nextSetBit(row+1)) {
 			copyColumn.data[copiedRowCtr] = data[row];
-			copyColumn.isNull.set(copiedRowCtr, isNull.get(row));
+			copyColumn.setNull(copiedRowCtr, isNull(row));
 			++copiedRowCtr;
 		}
 		return copyColumn;
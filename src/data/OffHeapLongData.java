@@ -0,0 +1,109 @@
+package data;
+
+import java.nio.LongBuffer;
+import java.util.BitSet;
+import java.util.List;
+
+import diskio.ColumnFile;
+
+/**
+ * Represents content of long column stored outside of
+ * the Java heap (e.g., in a read-only mapped column file).
+ * Copies of rows are stored on the heap (e.g., before
+ * sorting rows in place).
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class OffHeapLongData extends LongData {
+	/**
+	 * Fixed serialization version (off-heap columns are
+	 * stored in binary column format, not serialized).
+	 */
+	private static final long serialVersionUID = -2617964757147985650L;
+	/**
+	 * Holds long data outside of the heap.
+	 */
+	public final transient LongBuffer buffer;
+	/**
+	 * Initializes column from given buffer.
+	 * 
+	 * @param cardinality	number of rows
+	 * @param buffer		buffer holding one value per row
+	 */
+	public OffHeapLongData(int cardinality, LongBuffer buffer) {
+		super(cardinality, null);
+		this.buffer = buffer;
+	}
+
+	@Override
+	public long get(int row) {
+		return buffer.get(row);
+	}
+
+	@Override
+	public int compareRows(int row1, int row2) {
+		if (isNull(row1) || isNull(row2)) {
+			return 2;
+		} else {
+			return Long.compare(buffer.get(row1), buffer.get(row2));
+		}
+	}
+
+	@Override
+	public int hashForRow(int row) {
+		return Long.hashCode(buffer.get(row));
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public void store(String path) throws Exception {
+		ColumnFile.write(path, this);
+	}
+
+	@Override
+	public ColumnData copyRows(List<Integer> rowsToCopy) {
+		LongData copyColumn = new LongData(rowsToCopy.size());
+		int copiedRowCtr = 0;
+		for (int row : rowsToCopy) {
+			// Treat special case: insertion of null values
+			if (row==-1) {
+				copyColumn.data[copiedRowCtr] = 0;
+				copyColumn.setNull(copiedRowCtr);
+			} else {
+				copyColumn.data[copiedRowCtr] = buffer.get(row);
+				copyColumn.setNull(copiedRowCtr, isNull(row));
+			}
+			++copiedRowCtr;
+		}
+		return copyColumn;
+	}
+
+	@Override
+	public ColumnData copyRows(int[] rowsToCopy, int nrRows) {
+		LongData copyColumn = new LongData(nrRows);
+		for (int copiedRowCtr=0; copiedRowCtr<nrRows; ++copiedRowCtr) {
+			int row = rowsToCopy[copiedRowCtr];
+			copyColumn.data[copiedRowCtr] = buffer.get(row);
+			copyColumn.setNull(copiedRowCtr, isNull(row));
+		}
+		return copyColumn;
+	}
+
+	@Override
+	public ColumnData copyRows(BitSet rowsToCopy) {
+		LongData copyColumn = new LongData(rowsToCopy.cardinality());
+		int copiedRowCtr = 0;
+		for (int row=rowsToCopy.nextSetBit(0); row!=-1; 
+				row=rowsToCopy.nextSetBit(row+1)) {
+			copyColumn.data[copiedRowCtr] = buffer.get(row);
+			copyColumn.setNull(copiedRowCtr, isNull(row));
+			++copiedRowCtr;
+		}
+		return copyColumn;
+	}
+}
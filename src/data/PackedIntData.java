@@ -0,0 +1,185 @@
+package data;
+
+import java.util.BitSet;
+
+/**
+ * Represents content of integer column via frame of reference
+ * encoding and bit-packing. Stores the difference between each
+ * value and the minimal value in a lane of fixed width within
+ * 64 bit words. Lane widths are powers of two and the highest
+ * bit of each lane is kept free so that range predicates can
+ * be evaluated on all lanes of a word at once.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class PackedIntData extends CompressedIntData {
+	/**
+	 * Fixed serialization version (compressed columns are
+	 * stored in binary column format, not serialized).
+	 */
+	private static final long serialVersionUID = -4411276904585117702L;
+	/**
+	 * Minimal value in column (frame of reference).
+	 */
+	public final int minValue;
+	/**
+	 * Number of bits per lane (a power of two).
+	 */
+	public final int laneBits;
+	/**
+	 * Logarithm of lane width.
+	 */
+	final int laneBitsLog;
+	/**
+	 * Logarithm of number of lanes per word.
+	 */
+	final int lanesLog;
+	/**
+	 * Mask selecting the lane index from a row index.
+	 */
+	final int laneIdxMask;
+	/**
+	 * Mask selecting the lowest lane in a word.
+	 */
+	final long laneMask;
+	/**
+	 * Words storing packed value offsets.
+	 */
+	public final long[] words;
+	/**
+	 * Initializes column from packed words.
+	 *
+	 * @param cardinality	number of rows
+	 * @param minValue		minimal value (frame of reference)
+	 * @param laneBits		number of bits per value
+	 * @param words			words storing packed values
+	 */
+	public PackedIntData(int cardinality, int minValue,
+			int laneBits, long[] words) {
+		super(cardinality);
+		this.minValue = minValue;
+		this.laneBits = laneBits;
+		this.laneBitsLog = Integer.numberOfTrailingZeros(laneBits);
+		this.lanesLog = 6 - laneBitsLog;
+		this.laneIdxMask = (1 << lanesLog) - 1;
+		this.laneMask = laneBits == 64 ? -1L : (1L << laneBits) - 1;
+		this.words = words;
+	}
+	/**
+	 * Returns number of bits per lane required to store
+	 * offsets from minimal value up to given range, or
+	 * -1 if offsets do not fit into 32 bit lanes.
+	 *
+	 * @param range	maximal minus minimal value
+	 * @return		number of bits per lane or -1
+	 */
+	public static int laneBits(long range) {
+		// Need one bit for offsets and one free bit per lane
+		int offsetBits = 64 - Long.numberOfLeadingZeros(range);
+		if (offsetBits > 31) {
+			return -1;
+		}
+		int laneBits = Integer.highestOneBit(offsetBits + 1);
+		return laneBits < offsetBits + 1 ? 2 * laneBits : laneBits;
+	}
+	/**
+	 * Returns number of words to store given number of
+	 * values with given number of bits per lane.
+	 *
+	 * @param cardinality	number of values
+	 * @param laneBits		number of bits per lane
+	 * @return				number of 64 bit words
+	 */
+	public static int nrWords(int cardinality, int laneBits) {
+		return (int)(((long)cardinality * laneBits + 63) / 64);
+	}
+	/**
+	 * Encodes given integer column in packed format if
+	 * possible, returns null otherwise.
+	 *
+	 * @param intData	integer column to encode
+	 * @return			packed column or null
+	 */
+	public static PackedIntData encode(IntData intData) {
+		int cardinality = intData.cardinality;
+		// Determine value range
+		int minValue = Integer.MAX_VALUE;
+		int maxValue = Integer.MIN_VALUE;
+		for (int row=0; row<cardinality; ++row) {
+			if (!intData.isNull(row)) {
+				int value = intData.get(row);
+				minValue = Math.min(minValue, value);
+				maxValue = Math.max(maxValue, value);
+			}
+		}
+		if (minValue > maxValue) {
+			minValue = maxValue = 0;
+		}
+		int laneBits = laneBits((long)maxValue - minValue);
+		if (laneBits < 0) {
+			return null;
+		}
+		// Pack value offsets into words
+		long[] words = new long[nrWords(cardinality, laneBits)];
+		PackedIntData packed = new PackedIntData(
+				cardinality, minValue, laneBits, words);
+		for (int row=0; row<cardinality; ++row) {
+			if (!intData.isNull(row)) {
+				long offset = (long)intData.get(row) - minValue;
+				words[row >>> packed.lanesLog] |= offset <<
+						((row & packed.laneIdxMask) << packed.laneBitsLog);
+			}
+		}
+		packed.addNulls(intData.getNulls());
+		return packed;
+	}
+
+	@Override
+	public int get(int row) {
+		long word = words[row >>> lanesLog];
+		long offset = (word >>> ((row & laneIdxMask) << laneBitsLog)) & laneMask;
+		return (int)(offset + minValue);
+	}
+
+	@Override
+	public BitSet rowsInRange(long lower, long upper) {
+		BitSet result = new BitSet(cardinality);
+		// Translate bounds into offsets
+		long maxOffset = (1L << (laneBits - 1)) - 1;
+		long lowerOffset = Math.max(lower - minValue, 0);
+		long upperOffset = Math.min(upper - minValue, maxOffset);
+		if (lowerOffset > upperOffset) {
+			return result;
+		}
+		// Replicate bounds and free bit into each lane
+		long lowestBits = 0;
+		for (int bit=0; bit<64; bit+=laneBits) {
+			lowestBits |= 1L << bit;
+		}
+		long highestBits = lowestBits << (laneBits - 1);
+		long lowerBits = lowerOffset * lowestBits;
+		long upperBits = (upperOffset * lowestBits) | highestBits;
+		// Free bit of lane remains set iff offset is in range
+		for (int wordCtr=0; wordCtr<words.length; ++wordCtr) {
+			long word = words[wordCtr];
+			long matches = ((word | highestBits) - lowerBits) &
+					(upperBits - word) & highestBits;
+			int firstRow = wordCtr << lanesLog;
+			while (matches != 0) {
+				int bit = Long.numberOfTrailingZeros(matches);
+				result.set(firstRow + (bit >>> laneBitsLog));
+				matches &= matches - 1;
+			}
+		}
+		// Remove padding and rows with NULL values
+		result.clear(cardinality, Math.max(cardinality, result.length()));
+		result.andNot(getNulls());
+		return result;
+	}
+
+	@Override
+	public long compressedBytes() {
+		return 8L * words.length;
+	}
+}
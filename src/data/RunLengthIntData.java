@@ -0,0 +1,126 @@
+package data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Represents content of integer column via run-length
+ * encoding. Stores one value and one end position for
+ * each run of consecutive rows with equal values.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class RunLengthIntData extends CompressedIntData {
+	/**
+	 * Fixed serialization version (compressed columns are
+	 * stored in binary column format, not serialized).
+	 */
+	private static final long serialVersionUID = -1857760129453981372L;
+	/**
+	 * First row after each run (in increasing order).
+	 */
+	public final int[] runEnds;
+	/**
+	 * Value of each run.
+	 */
+	public final int[] runValues;
+	/**
+	 * Initializes column from runs.
+	 *
+	 * @param cardinality	number of rows
+	 * @param runEnds		first row after each run
+	 * @param runValues		value of each run
+	 */
+	public RunLengthIntData(int cardinality,
+			int[] runEnds, int[] runValues) {
+		super(cardinality);
+		this.runEnds = runEnds;
+		this.runValues = runValues;
+	}
+	/**
+	 * Counts runs of equal values in given column (rows
+	 * with NULL values extend the current run).
+	 *
+	 * @param intData	integer column
+	 * @return			number of runs
+	 */
+	public static int nrRuns(IntData intData) {
+		int nrRuns = 0;
+		int runValue = 0;
+		for (int row=0; row<intData.cardinality; ++row) {
+			if (!intData.isNull(row)) {
+				int value = intData.get(row);
+				if (nrRuns == 0 || value != runValue) {
+					runValue = value;
+					++nrRuns;
+				}
+			}
+		}
+		return Math.max(nrRuns, 1);
+	}
+	/**
+	 * Encodes given integer column via run-length encoding.
+	 *
+	 * @param intData	integer column to encode
+	 * @return			run-length encoded column
+	 */
+	public static RunLengthIntData encode(IntData intData) {
+		int cardinality = intData.cardinality;
+		int nrRuns = nrRuns(intData);
+		int[] runEnds = new int[nrRuns];
+		int[] runValues = new int[nrRuns];
+		int runCtr = -1;
+		for (int row=0; row<cardinality; ++row) {
+			if (!intData.isNull(row)) {
+				int value = intData.get(row);
+				if (runCtr < 0 || value != runValues[runCtr]) {
+					++runCtr;
+					runValues[runCtr] = value;
+				}
+			}
+			// Leading NULL rows are added to the first run
+			runEnds[Math.max(runCtr, 0)] = row + 1;
+		}
+		RunLengthIntData runLength = new RunLengthIntData(
+				cardinality, runEnds, runValues);
+		runLength.addNulls(intData.getNulls());
+		return runLength;
+	}
+	/**
+	 * Returns index of run containing given row.
+	 *
+	 * @param row	row index
+	 * @return		run index
+	 */
+	int run(int row) {
+		int pos = Arrays.binarySearch(runEnds, row);
+		// Row equal to run end belongs to next run
+		return pos >= 0 ? pos + 1 : -pos - 1;
+	}
+
+	@Override
+	public int get(int row) {
+		return runValues[run(row)];
+	}
+
+	@Override
+	public BitSet rowsInRange(long lower, long upper) {
+		BitSet result = new BitSet(cardinality);
+		int runStart = 0;
+		for (int runCtr=0; runCtr<runValues.length; ++runCtr) {
+			int value = runValues[runCtr];
+			if (value >= lower && value <= upper) {
+				result.set(runStart, runEnds[runCtr]);
+			}
+			runStart = runEnds[runCtr];
+		}
+		result.andNot(getNulls());
+		return result;
+	}
+
+	@Override
+	public long compressedBytes() {
+		return 8L * runValues.length;
+	}
+}
@@ -1,16 +1,11 @@
 package data;
 
-import java.io.FileOutputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.BitSet;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
-import joining.result.ResultTuple;
+import diskio.ColumnFile;
 
 /**
  * Represents content of string column.
@@ -19,6 +14,11 @@ import joining.result.ResultTuple;
  *
  */
 public class StringData extends ColumnData implements Serializable {
+	/**
+	 * Fixed serialization version to keep databases
+	 * stored by previous versions loadable.
+	 */
+	private static final long serialVersionUID = -8881123517753565597L;
 	/**
 	 * Holds actual string data.
 	 */
@@ -35,7 +35,7 @@ public class StringData extends ColumnData implements Serializable {
 	
 	@Override
 	public int compareRows(int row1, int row2) {
-		if (isNull.get(row1) || isNull.get(row2)) {
+		if (isNull(row1) || isNull(row2)) {
 			return 2;
 		} else {
 			int cmp = data[row1].compareTo(data[row2]);
@@ -60,12 +60,7 @@ public class StringData extends ColumnData implements Serializable {
 
 	@Override
 	public void store(String path) throws Exception {
-		Files.createDirectories(Paths.get(path).getParent());
-		FileOutputStream fileOut = new FileOutputStream(path);
-		ObjectOutputStream objOut = new ObjectOutputStream(fileOut);
-		objOut.writeObject(this);
-		objOut.close();
-		fileOut.close();
+		ColumnFile.write(path, this);
 	}
 
 	@Override
@@ -76,10 +71,10 @@ public class StringData extends ColumnData implements Serializable {
 			// Treat special case: inserted null values
 			if (row==-1) {
 				copyColumn.data[copiedRowCtr] = "NULL";
-				copyColumn.isNull.set(copiedRowCtr);
+				copyColumn.setNull(copiedRowCtr);
 			} else {
 				copyColumn.data[copiedRowCtr] = data[row];
-				copyColumn.isNull.set(copiedRowCtr, isNull.get(row));
+				copyColumn.setNull(copiedRowCtr, isNull(row));
 			}
 			++copiedRowCtr;
 		}
@@ -87,14 +82,12 @@ public class StringData extends ColumnData implements Serializable {
 	}
 
 	@Override
-	public ColumnData copyRows(Collection<ResultTuple> tuples, int tableIdx) {
-		StringData copyColumn = new StringData(tuples.size());
-		int copiedRowCtr = 0;
-		for (ResultTuple compositeTuple : tuples) {
-			int baseTuple = compositeTuple.baseIndices[tableIdx];
-			copyColumn.data[copiedRowCtr] = data[baseTuple];
-			copyColumn.isNull.set(copiedRowCtr, isNull.get(baseTuple));
-			++copiedRowCtr;
+	public ColumnData copyRows(int[] rowsToCopy, int nrRows) {
+		StringData copyColumn = new StringData(nrRows);
+		for (int copiedRowCtr=0; copiedRowCtr<nrRows; ++copiedRowCtr) {
+			int row = rowsToCopy[copiedRowCtr];
+			copyColumn.data[copiedRowCtr] = data[row];
+			copyColumn.setNull(copiedRowCtr, isNull(row));
 		}
 		return copyColumn;
 	}
@@ -106,7 +99,7 @@ public class StringData extends ColumnData implements Serializable {
 		for (int row=rowsToCopy.nextSetBit(0); row!=-1; 
 				row=rowsToCopy.nextSetBit(row+1)) {
 			copyColumn.data[copiedRowCtr] = data[row];
-			copyColumn.isNull.set(copiedRowCtr, isNull.get(row));
+			copyColumn.setNull(copiedRowCtr, isNull(row));
 			++copiedRowCtr;
 		}
 		return copyColumn;
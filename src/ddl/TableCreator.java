@@ -84,6 +84,7 @@ public class TableCreator {
 			String dataPath = PathUtil.colToPath.get(colInfo);
 			SQLtype type = colInfo.type;
 			JavaType jType = TypeUtil.toJavaType(type);
+			colInfo.newDataVersion();
 			switch (jType) {
 			case INT:
 				IntData intData = new IntData(0);
@@ -0,0 +1,571 @@
+package diskio;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+import data.ColumnData;
+import data.DoubleData;
+import data.IntData;
+import data.LongData;
+import data.OffHeapDoubleData;
+import data.OffHeapIntData;
+import data.OffHeapLongData;
+import data.PackedIntData;
+import data.RunLengthIntData;
+import data.StringData;
+
+/**
+ * Reads and writes column data in a binary format. Files start
+ * with a header (format marker, format version, column type,
+ * cardinality, offset and size of value and null regions),
+ * followed by the raw values and by a bitmap marking rows with
+ * NULL values. All numbers are stored in little-endian byte
+ * order. String columns store the length of each string in
+ * bytes (-1 for missing strings) followed by the UTF-8 encoded
+ * strings. Bit-packed integer columns store packed words (the
+ * header stores minimal value and lane width), run-length encoded
+ * columns store run end positions followed by run values. Files
+ * are read via memory mapping.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class ColumnFile {
+	/**
+	 * Marks files in binary column format.
+	 */
+	static final int MAGIC = 0x534B4344;
+	/**
+	 * Version of binary column format.
+	 */
+	static final int VERSION = 1;
+	/**
+	 * Number of bytes in file header (values start
+	 * at an offset that is aligned to cache lines).
+	 */
+	static final int HEADER_BYTES = 64;
+	/**
+	 * Type marker for integer columns.
+	 */
+	static final int INT_COLUMN = 0;
+	/**
+	 * Type marker for long columns.
+	 */
+	static final int LONG_COLUMN = 1;
+	/**
+	 * Type marker for double columns.
+	 */
+	static final int DOUBLE_COLUMN = 2;
+	/**
+	 * Type marker for string columns.
+	 */
+	static final int STRING_COLUMN = 3;
+	/**
+	 * Type marker for bit-packed integer columns.
+	 */
+	static final int PACKED_INT_COLUMN = 4;
+	/**
+	 * Type marker for run-length encoded integer columns.
+	 */
+	static final int RLE_INT_COLUMN = 5;
+	/**
+	 * Maximal number of bytes mapped or buffered at once.
+	 */
+	static final int CHUNK_BYTES = 1 << 30;
+	/**
+	 * Number of bytes buffered before writing to disk.
+	 */
+	static final int WRITE_BUFFER_BYTES = 1 << 20;
+	/**
+	 * Header of a file in binary column format.
+	 */
+	public static class Header {
+		/**
+		 * Type of stored column.
+		 */
+		public final int type;
+		/**
+		 * Number of rows in stored column.
+		 */
+		public final int cardinality;
+		/**
+		 * Offset of first byte storing values.
+		 */
+		public final long valuesOffset;
+		/**
+		 * Number of bytes storing values.
+		 */
+		public final long valuesBytes;
+		/**
+		 * Offset of first byte of null bitmap.
+		 */
+		public final long nullsOffset;
+		/**
+		 * Number of 64 bit words in null bitmap.
+		 */
+		public final int nrNullWords;
+		/**
+		 * Minimal value of bit-packed integer columns.
+		 */
+		public final int minValue;
+		/**
+		 * Number of bits per value of bit-packed integer columns.
+		 */
+		public final int laneBits;
+		/**
+		 * Reads header from given mapped buffer.
+		 *
+		 * @param buffer	little-endian buffer at file start
+		 * @throws IOException
+		 */
+		Header(ByteBuffer buffer) throws IOException {
+			int magic = buffer.getInt();
+			int version = buffer.getInt();
+			if (magic != MAGIC || version != VERSION) {
+				throw new IOException("Unsupported column file format");
+			}
+			type = buffer.getInt();
+			cardinality = buffer.getInt();
+			valuesOffset = buffer.getLong();
+			valuesBytes = buffer.getLong();
+			nullsOffset = buffer.getLong();
+			nrNullWords = buffer.getInt();
+			minValue = buffer.getInt();
+			laneBits = buffer.getInt();
+		}
+	}
+	/**
+	 * Operation on one mapped region of a file.
+	 */
+	interface ChunkOperation {
+		/**
+		 * Processes mapped chunk of file.
+		 *
+		 * @param chunk		mapped chunk (little-endian)
+		 * @param start		index of first element in chunk
+		 * @param length	number of elements in chunk
+		 */
+		void apply(ByteBuffer chunk, int start, int length);
+	}
+	/**
+	 * Returns true iff the file at the given path is
+	 * stored in binary column format.
+	 *
+	 * @param path	path to column file
+	 * @return		true iff file has binary column format
+	 * @throws IOException
+	 */
+	public static boolean isColumnFile(String path) throws IOException {
+		File file = new File(path);
+		if (file.length() < HEADER_BYTES) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new FileInputStream(file))) {
+			return Integer.reverseBytes(in.readInt()) == MAGIC;
+		}
+	}
+	/**
+	 * Writes given column to given path in binary format.
+	 * Writes into a temporary file first to avoid partially
+	 * written columns.
+	 *
+	 * @param path	path of column file
+	 * @param data	column data to write
+	 * @throws IOException
+	 */
+	public static void write(String path, ColumnData data) throws IOException {
+		Files.createDirectories(Paths.get(path).toAbsolutePath().getParent());
+		File tmpFile = new File(path + ".tmp");
+		try (RandomAccessFile file = new RandomAccessFile(tmpFile, "rw");
+				FileChannel channel = file.getChannel()) {
+			// Reserve header (also for empty columns)
+			file.setLength(0);
+			file.setLength(HEADER_BYTES);
+			ByteBuffer buffer = ByteBuffer.allocate(
+					WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			channel.position(HEADER_BYTES);
+			// Write values
+			int type;
+			int minValue = 0;
+			int laneBits = 0;
+			if (data instanceof PackedIntData) {
+				type = PACKED_INT_COLUMN;
+				PackedIntData packed = (PackedIntData)data;
+				minValue = packed.minValue;
+				laneBits = packed.laneBits;
+				writeLongs(channel, buffer, LongBuffer.wrap(packed.words));
+			} else if (data instanceof RunLengthIntData) {
+				type = RLE_INT_COLUMN;
+				RunLengthIntData runLength = (RunLengthIntData)data;
+				writeInts(channel, buffer, IntBuffer.wrap(runLength.runEnds));
+				writeInts(channel, buffer, IntBuffer.wrap(runLength.runValues));
+			} else if (data instanceof IntData) {
+				type = INT_COLUMN;
+				IntBuffer values = data instanceof OffHeapIntData ?
+						((OffHeapIntData)data).buffer.duplicate() :
+						IntBuffer.wrap(((IntData)data).data);
+				writeInts(channel, buffer, values);
+			} else if (data instanceof LongData) {
+				type = LONG_COLUMN;
+				LongBuffer values = data instanceof OffHeapLongData ?
+						((OffHeapLongData)data).buffer.duplicate() :
+						LongBuffer.wrap(((LongData)data).data);
+				writeLongs(channel, buffer, values);
+			} else if (data instanceof DoubleData) {
+				type = DOUBLE_COLUMN;
+				DoubleBuffer values = data instanceof OffHeapDoubleData ?
+						((OffHeapDoubleData)data).buffer.duplicate() :
+						DoubleBuffer.wrap(((DoubleData)data).data);
+				for (int start=0; start<data.cardinality; start+=buffer.capacity()/8) {
+					int length = Math.min(buffer.capacity()/8, data.cardinality - start);
+					values.limit(start + length);
+					values.position(start);
+					buffer.asDoubleBuffer().put(values);
+					buffer.position(8 * length);
+					flush(channel, buffer);
+				}
+			} else {
+				type = STRING_COLUMN;
+				String[] values = ((StringData)data).data;
+				// Encode strings once, then write lengths and bytes
+				byte[][] encoded = new byte[values.length][];
+				for (int row=0; row<values.length; ++row) {
+					if (values[row] != null) {
+						encoded[row] = values[row].getBytes(StandardCharsets.UTF_8);
+					}
+				}
+				for (byte[] bytes : encoded) {
+					if (buffer.remaining() < 4) {
+						flush(channel, buffer);
+					}
+					buffer.putInt(bytes == null ? -1 : bytes.length);
+				}
+				for (byte[] bytes : encoded) {
+					if (bytes != null) {
+						if (buffer.remaining() < bytes.length) {
+							flush(channel, buffer);
+						}
+						if (bytes.length > buffer.capacity()) {
+							ByteBuffer largeString = ByteBuffer.wrap(bytes);
+							largeString.position(bytes.length);
+							flush(channel, largeString);
+						} else {
+							buffer.put(bytes);
+						}
+					}
+				}
+				flush(channel, buffer);
+			}
+			long valuesBytes = channel.position() - HEADER_BYTES;
+			// Write null bitmap
+			long nullsOffset = channel.position();
+			int nrNullWords = (data.cardinality + 63) / 64;
+			long[] nullWords = data.getNulls().toLongArray();
+			for (int wordCtr=0; wordCtr<nrNullWords; ++wordCtr) {
+				if (buffer.remaining() < 8) {
+					flush(channel, buffer);
+				}
+				buffer.putLong(wordCtr < nullWords.length ? nullWords[wordCtr] : 0);
+			}
+			flush(channel, buffer);
+			// Write header
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(type);
+			buffer.putInt(data.cardinality);
+			buffer.putLong(HEADER_BYTES);
+			buffer.putLong(valuesBytes);
+			buffer.putLong(nullsOffset);
+			buffer.putInt(nrNullWords);
+			buffer.putInt(minValue);
+			buffer.putInt(laneBits);
+			channel.position(0);
+			flush(channel, buffer);
+		}
+		Files.move(tmpFile.toPath(), Paths.get(path),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+	/**
+	 * Writes all integers in given buffer to channel.
+	 *
+	 * @param channel	write to this channel
+	 * @param buffer	empty buffer used for writing
+	 * @param values	integers to write
+	 * @throws IOException
+	 */
+	static void writeInts(FileChannel channel, ByteBuffer buffer,
+			IntBuffer values) throws IOException {
+		int nrValues = values.remaining();
+		for (int start=0; start<nrValues; start+=buffer.capacity()/4) {
+			int length = Math.min(buffer.capacity()/4, nrValues - start);
+			values.limit(start + length);
+			values.position(start);
+			buffer.asIntBuffer().put(values);
+			buffer.position(4 * length);
+			flush(channel, buffer);
+		}
+	}
+	/**
+	 * Writes all longs in given buffer to channel.
+	 *
+	 * @param channel	write to this channel
+	 * @param buffer	empty buffer used for writing
+	 * @param values	longs to write
+	 * @throws IOException
+	 */
+	static void writeLongs(FileChannel channel, ByteBuffer buffer,
+			LongBuffer values) throws IOException {
+		int nrValues = values.remaining();
+		for (int start=0; start<nrValues; start+=buffer.capacity()/8) {
+			int length = Math.min(buffer.capacity()/8, nrValues - start);
+			values.limit(start + length);
+			values.position(start);
+			buffer.asLongBuffer().put(values);
+			buffer.position(8 * length);
+			flush(channel, buffer);
+		}
+	}
+	/**
+	 * Writes buffered bytes to channel and clears buffer.
+	 *
+	 * @param channel	write to this channel
+	 * @param buffer	buffer containing bytes to write
+	 * @throws IOException
+	 */
+	static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	/**
+	 * Reads header of column file from given channel.
+	 *
+	 * @param channel	channel to column file
+	 * @return			file header
+	 * @throws IOException
+	 */
+	public static Header readHeader(FileChannel channel) throws IOException {
+		ByteBuffer headerBuffer = channel.map(MapMode.READ_ONLY,
+				0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		return new Header(headerBuffer);
+	}
+	/**
+	 * Reads number of rows from header of column file at
+	 * given path (without reading column data).
+	 *
+	 * @param path	path to column file
+	 * @return		cardinality of stored column
+	 * @throws IOException
+	 */
+	public static int readCardinality(String path) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(path, "r");
+				FileChannel channel = file.getChannel()) {
+			return readHeader(channel).cardinality;
+		}
+	}
+	/**
+	 * Reads column from file at given path. Numerical columns
+	 * are mapped into memory if the off-heap flag is set (and
+	 * if the values fit into one mapped region). Compressed
+	 * integer columns are always read into main memory. Otherwise,
+	 * mapped values and null flags are copied in bulk into
+	 * main memory.
+	 *
+	 * @param path		path to column file
+	 * @param offHeap	whether to keep numerical data off heap
+	 * @return			column data read from file
+	 * @throws IOException
+	 */
+	public static ColumnData read(String path, boolean offHeap) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(path, "r");
+				FileChannel channel = file.getChannel()) {
+			Header header = readHeader(channel);
+			int cardinality = header.cardinality;
+			long offset = header.valuesOffset;
+			boolean mapValues = offHeap && 
+					header.valuesBytes <= Integer.MAX_VALUE;
+			ColumnData data;
+			switch (header.type) {
+			case INT_COLUMN:
+				if (mapValues) {
+					data = new OffHeapIntData(cardinality, 
+							mapValues(channel, header).asIntBuffer());
+				} else {
+					IntData intData = new IntData(cardinality);
+					int[] ints = intData.data;
+					mapChunks(channel, offset, cardinality, 4, (chunk, start, length) ->
+						chunk.asIntBuffer().get(ints, start, length));
+					data = intData;
+				}
+				break;
+			case LONG_COLUMN:
+				if (mapValues) {
+					data = new OffHeapLongData(cardinality, 
+							mapValues(channel, header).asLongBuffer());
+				} else {
+					LongData longData = new LongData(cardinality);
+					long[] longs = longData.data;
+					mapChunks(channel, offset, cardinality, 8, (chunk, start, length) ->
+						chunk.asLongBuffer().get(longs, start, length));
+					data = longData;
+				}
+				break;
+			case DOUBLE_COLUMN:
+				if (mapValues) {
+					data = new OffHeapDoubleData(cardinality, 
+							mapValues(channel, header).asDoubleBuffer());
+				} else {
+					DoubleData doubleData = new DoubleData(cardinality);
+					double[] doubles = doubleData.data;
+					mapChunks(channel, offset, cardinality, 8, (chunk, start, length) ->
+						chunk.asDoubleBuffer().get(doubles, start, length));
+					data = doubleData;
+				}
+				break;
+			case PACKED_INT_COLUMN:
+				long[] words = new long[(int)(header.valuesBytes / 8)];
+				mapChunks(channel, offset, words.length, 8, (chunk, start, length) ->
+					chunk.asLongBuffer().get(words, start, length));
+				data = new PackedIntData(cardinality, header.minValue,
+						header.laneBits, words);
+				break;
+			case RLE_INT_COLUMN:
+				int nrRuns = (int)(header.valuesBytes / 8);
+				int[] runEnds = new int[nrRuns];
+				int[] runValues = new int[nrRuns];
+				mapChunks(channel, offset, nrRuns, 4, (chunk, start, length) ->
+					chunk.asIntBuffer().get(runEnds, start, length));
+				mapChunks(channel, offset + 4L * nrRuns, nrRuns, 4,
+						(chunk, start, length) ->
+						chunk.asIntBuffer().get(runValues, start, length));
+				data = new RunLengthIntData(cardinality, runEnds, runValues);
+				break;
+			case STRING_COLUMN:
+				StringData stringData = new StringData(cardinality);
+				readStrings(channel, offset, stringData.data);
+				data = stringData;
+				break;
+			default:
+				throw new IOException("Unknown column type in " + path);
+			}
+			data.addNulls(readNulls(channel, header));
+			return data;
+		}
+	}
+	/**
+	 * Maps value region of column file into memory (read-only).
+	 * The mapping remains valid after the channel is closed.
+	 *
+	 * @param channel	channel to column file
+	 * @param header	header of column file
+	 * @return			little-endian buffer holding values
+	 * @throws IOException
+	 */
+	static ByteBuffer mapValues(FileChannel channel, 
+			Header header) throws IOException {
+		ByteBuffer values = channel.map(MapMode.READ_ONLY,
+				header.valuesOffset, header.valuesBytes);
+		values.order(ByteOrder.LITTLE_ENDIAN);
+		return values;
+	}
+	/**
+	 * Reads null bitmap of column file.
+	 *
+	 * @param channel	channel to column file
+	 * @param header	header of column file
+	 * @return			bit set marking rows with null values
+	 * @throws IOException
+	 */
+	public static BitSet readNulls(FileChannel channel,
+			Header header) throws IOException {
+		long[] words = new long[header.nrNullWords];
+		mapChunks(channel, header.nullsOffset, words.length, 8,
+				(chunk, start, length) ->
+				chunk.asLongBuffer().get(words, start, length));
+		return BitSet.valueOf(words);
+	}
+	/**
+	 * Reads strings from column file, starting from given offset.
+	 * Maps string bytes in chunks that end at string boundaries.
+	 *
+	 * @param channel	channel to column file
+	 * @param offset	offset of string lengths in file
+	 * @param strings	array to fill with strings
+	 * @throws IOException
+	 */
+	static void readStrings(FileChannel channel, long offset,
+			String[] strings) throws IOException {
+		int[] lengths = new int[strings.length];
+		mapChunks(channel, offset, lengths.length, 4, (chunk, start, length) ->
+			chunk.asIntBuffer().get(lengths, start, length));
+		long chunkOffset = offset + 4L * strings.length;
+		int startRow = 0;
+		while (startRow < strings.length) {
+			// Determine rows whose bytes fit into next chunk
+			long chunkBytes = 0;
+			int endRow = startRow;
+			while (endRow < strings.length && (endRow == startRow ||
+					chunkBytes + Math.max(0, lengths[endRow]) <= CHUNK_BYTES)) {
+				chunkBytes += Math.max(0, lengths[endRow]);
+				++endRow;
+			}
+			ByteBuffer chunk = channel.map(MapMode.READ_ONLY,
+					chunkOffset, chunkBytes);
+			byte[] bytes = new byte[(int)chunkBytes];
+			chunk.get(bytes);
+			int bytePos = 0;
+			for (int row=startRow; row<endRow; ++row) {
+				if (lengths[row] >= 0) {
+					strings[row] = new String(bytes, bytePos,
+							lengths[row], StandardCharsets.UTF_8);
+					bytePos += lengths[row];
+				}
+			}
+			chunkOffset += chunkBytes;
+			startRow = endRow;
+		}
+	}
+	/**
+	 * Maps consecutive elements of fixed size, starting from the
+	 * given file offset, in chunks and applies given operation to
+	 * each chunk.
+	 *
+	 * @param channel		channel to column file
+	 * @param offset		offset of first element
+	 * @param nrElements	number of elements to map
+	 * @param elementBytes	number of bytes per element
+	 * @param operation		applied to each mapped chunk
+	 * @throws IOException
+	 */
+	static void mapChunks(FileChannel channel, long offset, int nrElements,
+			int elementBytes, ChunkOperation operation) throws IOException {
+		int chunkSize = CHUNK_BYTES / elementBytes;
+		for (int start=0; start<nrElements; start+=chunkSize) {
+			int length = Math.min(chunkSize, nrElements - start);
+			ByteBuffer chunk = channel.map(MapMode.READ_ONLY,
+					offset + (long)elementBytes * start,
+					(long)elementBytes * length);
+			chunk.order(ByteOrder.LITTLE_ENDIAN);
+			operation.apply(chunk, start, length);
+		}
+	}
+}
@@ -115,7 +115,7 @@ public class LoadCSV {
 				boolean isNull = field==null||
 						field.isEmpty()||
 						field.equals(nullRepresentation);
-				data.get(colCtr).isNull.set(rowCtr, isNull);
+				data.get(colCtr).setNull(rowCtr, isNull);
 				try {
 					switch (columnTypes[colCtr]) {
 					case ANY_TYPE:
@@ -195,6 +195,7 @@ public class LoadCSV {
 			ColumnData colData = data.get(colCtr);
 			String dataPath = PathUtil.colToPath.get(column);
 			colData.store(dataPath);
+			column.newDataVersion();
 			// Load data into buffer pool if required
 			if (GeneralConfig.inMemory) {
 				String tableName = table.name;
@@ -225,6 +226,7 @@ public class LoadCSV {
 		parseData(csvPath, table, data, separator, nullRepresentation);
 		// Store column data to hard disk
 		storeData(table, data);
+		CatalogManager.currentDB.storeDB();
 		System.out.println("Stored table on disk");
 		// Update cardinality estimates
 		String tableName = table.name;
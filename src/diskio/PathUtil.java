@@ -28,11 +28,24 @@ public class PathUtil {
 	 * Path to directory containing data.
 	 */
 	public static String dataPath = null;
+	/**
+	 * Path to directory containing persistent indices.
+	 */
+	public static String indexPath = null;
 	/**
 	 * If a string dictionary was created, it will
 	 * be stored under this path.
 	 */
 	public static String dictionaryPath = null;
+	/**
+	 * Path to file storing join orders learned for prior queries.
+	 */
+	public static String joinOrderCachePath = null;
+	/**
+	 * Path to file storing column usage by prior queries
+	 * (used to prefetch columns).
+	 */
+	public static String columnUsagePath = null;
 	/**
 	 * Maps column to path of associated data file on disk.
 	 */
@@ -45,6 +58,8 @@ public class PathUtil {
 	public static void initSchemaPaths(String dbDir) {
 		PathUtil.dbDir = dbDir;
 		schemaPath = Paths.get(dbDir, "schema.sdb").toString();
+		joinOrderCachePath = Paths.get(dbDir, "joinorders.sdb").toString();
+		columnUsagePath = Paths.get(dbDir, "colusage.sdb").toString();
 	}
 	/**
 	 * Initializes all paths related to data files of
@@ -54,9 +69,10 @@ public class PathUtil {
 	 * @param dbInfo	database schema information
 	 */
 	public static void initDataPaths(DbInfo dbInfo) {
-		// Initialize dictionary and data directory paths
+		// Initialize dictionary, data, and index directory paths
 		dictionaryPath = Paths.get(dbDir, "stringdic.sdb").toString();
 		dataPath = Paths.get(dbDir, "data").toString();
+		indexPath = Paths.get(dbDir, "index").toString();
 		// Iterate over database tables
 		colToPath = new HashMap<>();
 		for (TableInfo tblInfo : dbInfo.nameToTable.values()) {
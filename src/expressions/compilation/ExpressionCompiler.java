@@ -2,13 +2,18 @@ package expressions.compilation;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
@@ -22,9 +27,14 @@ import query.SQLexception;
 import catalog.CatalogManager;
 import catalog.info.ColumnInfo;
 import config.LoggingConfig;
+import data.ColumnData;
+import data.CompressedIntData;
 import data.DoubleData;
 import data.IntData;
 import data.LongData;
+import data.OffHeapDoubleData;
+import data.OffHeapIntData;
+import data.OffHeapLongData;
 import data.StringData;
 import dk.brics.automaton.RegExp;
 import dk.brics.automaton.RunAutomaton;
@@ -152,6 +162,21 @@ public class ExpressionCompiler extends SkinnerVisitor {
 	 * associated column data efficiently).
 	 */
 	public final Map<ColumnRef, Integer> columnToID;
+	/**
+	 * IDs of columns whose data is stored off heap
+	 * (accessed via buffers instead of arrays).
+	 */
+	public final Set<Integer> offHeapIDs;
+	/**
+	 * IDs of integer columns whose data is compressed
+	 * (accessed via the column object).
+	 */
+	public final Set<Integer> encodedIDs;
+	/**
+	 * IDs of columns without NULL values (evaluation
+	 * code does not check NULL flags for them).
+	 */
+	public final Set<Integer> notNullIDs;
 	/**
 	 * Maps LIKE expressions to an ID (used to retrieve
 	 * pre-compiled automaton efficiently).
@@ -196,12 +221,13 @@ public class ExpressionCompiler extends SkinnerVisitor {
 	 * 							if a null vector is passed, it is assumed
 	 * 							that this expression refers to one table.
 	 * @param evaluatorType		type of expression evaluator
+	 * @throws Exception
 	 */
 	public ExpressionCompiler(ExpressionInfo expressionInfo,
 			Map<ColumnRef, ColumnRef> columnMapping,
 			Map<String, Integer> tableMapping,
 			Map<String, ColumnRef> aggMapping,
-			EvaluatorType evaluatorType) {
+			EvaluatorType evaluatorType) throws Exception {
 		// Increment expression ID (used in class name)
 		++expressionID;
 		// Initialize final fields
@@ -210,6 +236,9 @@ public class ExpressionCompiler extends SkinnerVisitor {
 		this.tableMapping = tableMapping;
 		this.aggMapping = aggMapping;
 		this.columnToID = new HashMap<ColumnRef, Integer>();
+		this.offHeapIDs = new HashSet<Integer>();
+		this.encodedIDs = new HashSet<Integer>();
+		this.notNullIDs = new HashSet<Integer>();
 		this.likeToID = new HashMap<Expression, Integer>();
 		this.className = "ExprEval" + expressionID;
 		this.classAndPackage = "expressions/compilation/" + className;
@@ -226,6 +255,22 @@ public class ExpressionCompiler extends SkinnerVisitor {
 				++columnID;
 			}			
 		}
+		// Determine columns stored off heap or compressed
+		// and columns without NULL values.
+		for (Entry<ColumnRef, Integer> entry : columnToID.entrySet()) {
+			ColumnRef dbRef = columnMapping.get(entry.getKey());
+			ColumnData data = BufferManager.getData(dbRef);
+			if (!data.hasNulls()) {
+				notNullIDs.add(entry.getValue());
+			}
+			if (data instanceof OffHeapIntData ||
+					data instanceof OffHeapLongData ||
+					data instanceof OffHeapDoubleData) {
+				offHeapIDs.add(entry.getValue());
+			} else if (data instanceof CompressedIntData) {
+				encodedIDs.add(entry.getValue());
+			}
+		}
 		// Assign regular expressions to IDs
 		int regID = 0;
 		for (Expression regEx : expressionInfo.likeExpressions) {
@@ -310,30 +355,18 @@ public class ExpressionCompiler extends SkinnerVisitor {
 			ColumnRef dbRef = columnMapping.get(queryRef);
 			ColumnInfo dbColumn = CatalogManager.getColumn(dbRef);
 			JavaType javaType = TypeUtil.toJavaType(dbColumn.type);
-			String typeDescriptor = null;
-			switch (javaType) {
-			case INT:
-				typeDescriptor = "[I";
-				break;
-			case LONG:
-				typeDescriptor = "[J";
-				break;
-			case DOUBLE:
-				typeDescriptor = "[D";
-				break;
-			case STRING:
-				typeDescriptor = "[Ljava/lang/String;";
-				break;
-			}
+			String typeDescriptor = dataDescriptor(columnID, javaType);
 			classWriter.visitField(Opcodes.ACC_PUBLIC, 
 					fieldName, typeDescriptor, 
 					null, null);
 		}
 		// Add fields holding isNull flags of required columns
 		for (int columnID : columnToID.values()) {
-			classWriter.visitField(Opcodes.ACC_PUBLIC, 
-					"N" + columnID, "Ljava/util/BitSet;", 
-					null, null);
+			if (!notNullIDs.contains(columnID)) {
+				classWriter.visitField(Opcodes.ACC_PUBLIC, 
+						"N" + columnID, "Ljava/util/BitSet;", 
+						null, null);
+			}
 		}
 		// Add fields containing compiled LIKE expressions
 		for (int regID : likeToID.values()) {
@@ -342,16 +375,67 @@ public class ExpressionCompiler extends SkinnerVisitor {
 					null, null);
 		}
 	}
+	/**
+	 * Returns descriptor of field holding data of given column
+	 * (an array or, for data stored off heap, a buffer, or, for
+	 * compressed data, the column itself).
+	 * 
+	 * @param columnID	ID of column
+	 * @param javaType	Java type of column values
+	 * @return			type descriptor of data field
+	 */
+	String dataDescriptor(int columnID, JavaType javaType) {
+		boolean offHeap = offHeapIDs.contains(columnID);
+		switch (javaType) {
+		case INT:
+			if (encodedIDs.contains(columnID)) {
+				return "Ldata/IntData;";
+			}
+			return offHeap ? "Ljava/nio/IntBuffer;" : "[I";
+		case LONG:
+			return offHeap ? "Ljava/nio/LongBuffer;" : "[J";
+		case DOUBLE:
+			return offHeap ? "Ljava/nio/DoubleBuffer;" : "[D";
+		default:
+			return "[Ljava/lang/String;";
+		}
+	}
+	/**
+	 * Returns name of static method retrieving the
+	 * data of given column (array, buffer, or column).
+	 * 
+	 * @param columnID	ID of column
+	 * @param javaType	Java type of column values
+	 * @return			name of method in this class
+	 */
+	String dataGetter(int columnID, JavaType javaType) {
+		boolean offHeap = offHeapIDs.contains(columnID);
+		switch (javaType) {
+		case INT:
+			if (encodedIDs.contains(columnID)) {
+				return "getIntColumn";
+			}
+			return offHeap ? "getIntBuffer" : "getIntData";
+		case LONG:
+			return offHeap ? "getLongBuffer" : "getLongData";
+		case DOUBLE:
+			return offHeap ? "getDoubleBuffer" : "getDoubleData";
+		default:
+			return "getStringData";
+		}
+	}
 	/**
 	 * Returns array holding data for an integer column.
 	 * 
 	 * @param tableName		name of table to retrieve
 	 * @param columnName	name of column to retrieve
 	 * @return				array of integer data
+	 * @throws Exception
 	 */
-	public static int[] getIntData(String tableName, String columnName) {
+	public static int[] getIntData(String tableName, 
+			String columnName) throws Exception {
 		ColumnRef columnRef = new ColumnRef(tableName, columnName);
-		IntData intData = (IntData)BufferManager.colToData.get(columnRef);
+		IntData intData = (IntData)BufferManager.getData(columnRef);
 		return intData.data;
 	}
 	/**
@@ -360,10 +444,12 @@ public class ExpressionCompiler extends SkinnerVisitor {
 	 * @param tableName		name of the table to retrieve
 	 * @param columnName	name of column to retrieve
 	 * @return				array of long data
+	 * @throws Exception
 	 */
-	public static long[] getLongData(String tableName, String columnName) {
+	public static long[] getLongData(String tableName, 
+			String columnName) throws Exception {
 		ColumnRef columnRef = new ColumnRef(tableName, columnName);
-		LongData longData = (LongData)BufferManager.colToData.get(columnRef);
+		LongData longData = (LongData)BufferManager.getData(columnRef);
 		return longData.data;
 	}
 	/**
@@ -372,22 +458,81 @@ public class ExpressionCompiler extends SkinnerVisitor {
 	 * @param tableName		name of the table to retrieve
 	 * @param columnName	name of column to retrieve
 	 * @return				array of double data
+	 * @throws Exception
 	 */
-	public static double[] getDoubleData(String tableName, String columnName) {
+	public static double[] getDoubleData(String tableName, 
+			String columnName) throws Exception {
 		ColumnRef columnRef = new ColumnRef(tableName, columnName);
-		DoubleData doubleData = (DoubleData)BufferManager.colToData.get(columnRef);
+		DoubleData doubleData = (DoubleData)BufferManager.getData(columnRef);
 		return doubleData.data;
 	}
+	/**
+	 * Returns integer column whose data is compressed.
+	 * 
+	 * @param tableName		name of table to retrieve
+	 * @param columnName	name of column to retrieve
+	 * @return				compressed integer column
+	 * @throws Exception
+	 */
+	public static IntData getIntColumn(String tableName, 
+			String columnName) throws Exception {
+		ColumnRef columnRef = new ColumnRef(tableName, columnName);
+		return (IntData)BufferManager.getData(columnRef);
+	}
+	/**
+	 * Returns buffer holding data for an integer column
+	 * that is stored off heap.
+	 * 
+	 * @param tableName		name of table to retrieve
+	 * @param columnName	name of column to retrieve
+	 * @return				buffer of integer data
+	 * @throws Exception
+	 */
+	public static IntBuffer getIntBuffer(String tableName, 
+			String columnName) throws Exception {
+		ColumnRef columnRef = new ColumnRef(tableName, columnName);
+		return ((OffHeapIntData)BufferManager.getData(columnRef)).buffer;
+	}
+	/**
+	 * Returns buffer holding data for a long column
+	 * that is stored off heap.
+	 * 
+	 * @param tableName		name of table to retrieve
+	 * @param columnName	name of column to retrieve
+	 * @return				buffer of long data
+	 * @throws Exception
+	 */
+	public static LongBuffer getLongBuffer(String tableName, 
+			String columnName) throws Exception {
+		ColumnRef columnRef = new ColumnRef(tableName, columnName);
+		return ((OffHeapLongData)BufferManager.getData(columnRef)).buffer;
+	}
+	/**
+	 * Returns buffer holding data for a double column
+	 * that is stored off heap.
+	 * 
+	 * @param tableName		name of table to retrieve
+	 * @param columnName	name of column to retrieve
+	 * @return				buffer of double data
+	 * @throws Exception
+	 */
+	public static DoubleBuffer getDoubleBuffer(String tableName, 
+			String columnName) throws Exception {
+		ColumnRef columnRef = new ColumnRef(tableName, columnName);
+		return ((OffHeapDoubleData)BufferManager.getData(columnRef)).buffer;
+	}
 	/**
 	 * Returns array holding data for a string column. 
 	 * 
 	 * @param tableName		name of table to retrieve
 	 * @param columnName	name of column to retrieve
 	 * @return				array of string data
+	 * @throws Exception
 	 */
-	public static String[] getStringData(String tableName, String columnName) {
+	public static String[] getStringData(String tableName, 
+			String columnName) throws Exception {
 		ColumnRef columnRef = new ColumnRef(tableName, columnName);
-		StringData stringData = (StringData)BufferManager.colToData.get(columnRef);
+		StringData stringData = (StringData)BufferManager.getData(columnRef);
 		return stringData.data;
 	}
 	/**
@@ -396,10 +541,12 @@ public class ExpressionCompiler extends SkinnerVisitor {
 	 * @param tableName		name of table to retrieve
 	 * @param columnName	name of column to retrieve
 	 * @return				SQL NULL value flags
+	 * @throws Exception
 	 */	
-	public static BitSet getIsNullData(String tableName, String columnName) {
+	public static BitSet getIsNullData(String tableName, 
+			String columnName) throws Exception {
 		ColumnRef columnRef = new ColumnRef(tableName, columnName);
-		return BufferManager.colToData.get(columnRef).isNull;
+		return BufferManager.getData(columnRef).getNulls();
 	}
 	/**
 	 * Extracts notNull flag from given BitSet at given position.
@@ -459,48 +606,20 @@ public class ExpressionCompiler extends SkinnerVisitor {
 			constructorVisitor.visitLdcInsn(dbRef.aliasName);
 			constructorVisitor.visitLdcInsn(dbRef.columnName);
 			JavaType javaType = TypeUtil.toJavaType(colInfo.type);
-			switch (javaType) {
-			case INT:
-				constructorVisitor.visitMethodInsn(Opcodes.INVOKESTATIC,
-						"expressions/compilation/ExpressionCompiler", 
-						"getIntData", 
-						"(Ljava/lang/String;Ljava/lang/String;)[I",
-						false);
-				constructorVisitor.visitFieldInsn(Opcodes.PUTFIELD, 
-						classAndPackage, fieldName, "[I");
-				break;
-			case LONG:
-				constructorVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, 
-						"expressions/compilation/ExpressionCompiler", 
-						"getLongData", 
-						"(Ljava/lang/String;Ljava/lang/String;)[J",
-						false);
-				constructorVisitor.visitFieldInsn(Opcodes.PUTFIELD, 
-						classAndPackage, fieldName, "[J");
-				break;
-			case DOUBLE:
-				constructorVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, 
-						"expressions/compilation/ExpressionCompiler", 
-						"getDoubleData", 
-						"(Ljava/lang/String;Ljava/lang/String;)[D",
-						false);
-				constructorVisitor.visitFieldInsn(Opcodes.PUTFIELD, 
-						classAndPackage, fieldName, "[D");
-				break;
-			case STRING:
-				constructorVisitor.visitMethodInsn(Opcodes.INVOKESTATIC,
-						"expressions/compilation/ExpressionCompiler", 
-						"getStringData", 
-						"(Ljava/lang/String;Ljava/lang/String;)"
-						+ "[Ljava/lang/String;",
-						false);
-				constructorVisitor.visitFieldInsn(Opcodes.PUTFIELD, 
-						classAndPackage, fieldName, "[Ljava/lang/String;");
-				break;				
-			}
+			String typeDescriptor = dataDescriptor(entry.getValue(), javaType);
+			constructorVisitor.visitMethodInsn(Opcodes.INVOKESTATIC,
+					"expressions/compilation/ExpressionCompiler", 
+					dataGetter(entry.getValue(), javaType), 
+					"(Ljava/lang/String;Ljava/lang/String;)" + typeDescriptor,
+					false);
+			constructorVisitor.visitFieldInsn(Opcodes.PUTFIELD, 
+					classAndPackage, fieldName, typeDescriptor);
 		}
 		// Fill fields holding NULL flags for quick access
 		for (Entry<ColumnRef, Integer> entry : columnToID.entrySet()) {
+			if (notNullIDs.contains(entry.getValue())) {
+				continue;
+			}
 			ColumnRef queryCol = entry.getKey();
 			ColumnRef dbCol = columnMapping.get(queryCol);
 			constructorVisitor.visitVarInsn(Opcodes.ALOAD, 0);
@@ -1523,22 +1642,9 @@ public class ExpressionCompiler extends SkinnerVisitor {
 		ColumnRef dbRef = columnMapping.get(queryRef);
 		ColumnInfo colInfo = CatalogManager.getColumn(dbRef);
 		JavaType javaType = TypeUtil.toJavaType(colInfo.type);
-		String fieldDescriptor = null;
-		switch (javaType) {
-		case INT:
-			fieldDescriptor = "[I";
-			break;
-		case LONG:
-			fieldDescriptor = "[J";
-			break;
-		case DOUBLE:
-			fieldDescriptor = "[D";
-			break;
-		case STRING:
-			fieldDescriptor = "[Ljava/lang/String;";
-			break;
-		}
-		// Retrieve data array
+		boolean offHeap = offHeapIDs.contains(columnID);
+		String fieldDescriptor = dataDescriptor(columnID, javaType);
+		// Retrieve data array (or buffer)
 		evaluationVisitor.visitVarInsn(Opcodes.ALOAD, 0);
 		evaluationVisitor.visitFieldInsn(Opcodes.GETFIELD, 
 				classAndPackage, fieldName, fieldDescriptor);
@@ -1582,30 +1688,52 @@ public class ExpressionCompiler extends SkinnerVisitor {
 		// Generate local variable for storing index
 		int tupleIdxVar = evaluationLocals.newLocal(Type.INT_TYPE);
 		evaluationVisitor.visitVarInsn(Opcodes.ISTORE, tupleIdxVar);
-		// Access array at given position
+		// Access array (or buffer) at given position
 		evaluationVisitor.visitVarInsn(Opcodes.ILOAD, tupleIdxVar);
 		switch (javaType) {
 		case INT:
-			evaluationVisitor.visitInsn(Opcodes.IALOAD);
+			if (encodedIDs.contains(columnID)) {
+				evaluationVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+						"data/IntData", "get", "(I)I", false);
+			} else if (offHeap) {
+				evaluationVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+						"java/nio/IntBuffer", "get", "(I)I", false);
+			} else {
+				evaluationVisitor.visitInsn(Opcodes.IALOAD);
+			}
 			break;
 		case LONG:
-			evaluationVisitor.visitInsn(Opcodes.LALOAD);
+			if (offHeap) {
+				evaluationVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+						"java/nio/LongBuffer", "get", "(I)J", false);
+			} else {
+				evaluationVisitor.visitInsn(Opcodes.LALOAD);
+			}
 			break;
 		case DOUBLE:
-			evaluationVisitor.visitInsn(Opcodes.DALOAD);
+			if (offHeap) {
+				evaluationVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+						"java/nio/DoubleBuffer", "get", "(I)D", false);
+			} else {
+				evaluationVisitor.visitInsn(Opcodes.DALOAD);
+			}
 			break;
 		case STRING:
 			evaluationVisitor.visitInsn(Opcodes.AALOAD);
 			break;
 		}
 		// Add code for putting not-null flag on stack
-		evaluationVisitor.visitVarInsn(Opcodes.ALOAD, 0);
-		evaluationVisitor.visitFieldInsn(Opcodes.GETFIELD, 
-				classAndPackage, "N" + columnID, "Ljava/util/BitSet;");
-		evaluationVisitor.visitVarInsn(Opcodes.ILOAD, tupleIdxVar);
-		evaluationVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, 
-				"expressions/compilation/ExpressionCompiler", 
-				"extractNotNull", "(Ljava/util/BitSet;I)I", false);
+		if (notNullIDs.contains(columnID)) {
+			evaluationVisitor.visitInsn(Opcodes.ICONST_1);
+		} else {
+			evaluationVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+			evaluationVisitor.visitFieldInsn(Opcodes.GETFIELD, 
+					classAndPackage, "N" + columnID, "Ljava/util/BitSet;");
+			evaluationVisitor.visitVarInsn(Opcodes.ILOAD, tupleIdxVar);
+			evaluationVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, 
+					"expressions/compilation/ExpressionCompiler", 
+					"extractNotNull", "(Ljava/util/BitSet;I)I", false);
+		}
 		// Print stack content in debugging mode
 		addPrintString("Stack after treating:" + arg0.toString());
 		addPrintStack(javaType);
@@ -0,0 +1,101 @@
+package indexing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import config.PreConfig;
+import data.IntData;
+
+/**
+ * Bloom filter over the values of an integer column. Used
+ * to drop rows without join partners early, i.e. while
+ * scanning other tables connected via equality joins.
+ * May produce false positives but no false negatives.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class BloomFilter {
+	/**
+	 * Bits of the filter, packed into words.
+	 */
+	final long[] words;
+	/**
+	 * Used to map hash values to bit positions.
+	 */
+	final int mask;
+	/**
+	 * Number of bits set per inserted value.
+	 */
+	final int nrHashes;
+	/**
+	 * Number of rows removed by this filter.
+	 */
+	public final AtomicLong nrRemoved = new AtomicLong();
+	/**
+	 * Creates Bloom filter containing all non-null
+	 * values of the given integer column. Size is
+	 * chosen based on the column cardinality.
+	 *
+	 * @param intData	insert values of this column
+	 */
+	public BloomFilter(IntData intData) {
+		long nrBits = Math.max(64, (long)intData.cardinality *
+				PreConfig.BLOOM_BITS_PER_KEY);
+		int nrWords = (int)Math.min(1 << 24,
+				Long.highestOneBit(nrBits - 1) * 2 / 64);
+		words = new long[nrWords];
+		mask = nrWords * 64 - 1;
+		nrHashes = Math.max(1, (int)Math.round(
+				PreConfig.BLOOM_BITS_PER_KEY * Math.log(2)));
+		for (int row=0; row<intData.cardinality; ++row) {
+			if (!intData.isNull(row)) {
+				add(intData.get(row));
+			}
+		}
+	}
+	/**
+	 * Calculates 64 bit hash for given value.
+	 *
+	 * @param value	integer value to hash
+	 * @return		mixed hash value
+	 */
+	static long hash(int value) {
+		long hash = value * 0x9E3779B97F4A7C15L;
+		hash ^= hash >>> 32;
+		hash *= 0xC2B2AE3D27D4EB4FL;
+		return hash ^ (hash >>> 29);
+	}
+	/**
+	 * Inserts value into filter.
+	 *
+	 * @param value	value to insert
+	 */
+	void add(int value) {
+		long hash = hash(value);
+		int hash1 = (int)hash;
+		int hash2 = (int)(hash >>> 32) | 1;
+		for (int hashCtr=0; hashCtr<nrHashes; ++hashCtr) {
+			int bit = (hash1 + hashCtr * hash2) & mask;
+			words[bit >>> 6] |= 1L << bit;
+		}
+	}
+	/**
+	 * Returns false if the value was certainly not
+	 * inserted, true if it may have been inserted.
+	 *
+	 * @param value	value to check
+	 * @return		false only if value not contained
+	 */
+	public boolean mightContain(int value) {
+		long hash = hash(value);
+		int hash1 = (int)hash;
+		int hash2 = (int)(hash >>> 32) | 1;
+		for (int hashCtr=0; hashCtr<nrHashes; ++hashCtr) {
+			int bit = (hash1 + hashCtr * hash2) & mask;
+			if ((words[bit >>> 6] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
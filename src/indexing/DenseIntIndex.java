@@ -0,0 +1,190 @@
+package indexing;
+
+import java.util.Arrays;
+
+import config.IndexConfig;
+import config.LoggingConfig;
+import data.IntData;
+
+/**
+ * Indexes integer values from a compact domain. Instead of
+ * a hash map, the first position for each key is stored in
+ * an array that is addressed by the difference between key
+ * and minimal key. Uses the same layout for row positions
+ * as the generic integer index.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class DenseIntIndex extends IntIndex {
+	/**
+	 * Minimal key in indexed column.
+	 */
+	public final int minKey;
+	/**
+	 * Maps key minus minimal key to position at which
+	 * associated information is stored (-1 for keys
+	 * that do not appear in the indexed column).
+	 */
+	final int[] keyToFirstPos;
+	/**
+	 * Whether each indexed key appears in one row only.
+	 */
+	public final boolean unique;
+	/**
+	 * Initializes index from first positions of keys
+	 * and from position information.
+	 *
+	 * @param intData		integer data that the index refers to
+	 * @param minKey		minimal key in column
+	 * @param keyToFirstPos	first position for each key
+	 * @param positions		row numbers grouped by key
+	 */
+	DenseIntIndex(IntData intData, int minKey,
+			int[] keyToFirstPos, int[] positions) {
+		super(intData, null, positions);
+		this.minKey = minKey;
+		this.keyToFirstPos = keyToFirstPos;
+		nrKeys = 0;
+		for (int firstPos : keyToFirstPos) {
+			if (firstPos >= 0) {
+				++nrKeys;
+			}
+		}
+		this.unique = positions.length == 2 * nrKeys;
+	}
+	/**
+	 * Creates direct-addressed index on the given column
+	 * if its values form a compact domain, returns null
+	 * otherwise.
+	 *
+	 * @param intData	integer data to index
+	 * @return			new index or null
+	 */
+	public static DenseIntIndex create(IntData intData) {
+		long startMillis = System.currentTimeMillis();
+		int cardinality = intData.cardinality;
+		// Determine value range
+		int minKey = Integer.MAX_VALUE;
+		int maxKey = Integer.MIN_VALUE;
+		int nrRows = 0;
+		for (int i=0; i<cardinality; ++i) {
+			if (!intData.isNull(i)) {
+				minKey = Math.min(minKey, intData.get(i));
+				maxKey = Math.max(maxKey, intData.get(i));
+				++nrRows;
+			}
+		}
+		// Number of rows bounds number of distinct values
+		long range = (long)maxKey - minKey + 1;
+		if (nrRows == 0 || range >= Integer.MAX_VALUE ||
+				range > (long)IndexConfig.MAX_DENSE_RANGE_FACTOR * nrRows) {
+			return null;
+		}
+		// Count number of occurrences for each value
+		int[] keyToFirstPos = new int[(int)range];
+		int nrKeys = 0;
+		for (int i=0; i<cardinality; ++i) {
+			if (!intData.isNull(i)) {
+				if (keyToFirstPos[intData.get(i) - minKey]++ == 0) {
+					++nrKeys;
+				}
+			}
+		}
+		if (range > (long)IndexConfig.MAX_DENSE_RANGE_FACTOR * nrKeys) {
+			return null;
+		}
+		// Assign each key to the appropriate position offset
+		int prefixSum = 0;
+		for (int keyCtr=0; keyCtr<range; ++keyCtr) {
+			int nrRowsForKey = keyToFirstPos[keyCtr];
+			if (nrRowsForKey == 0) {
+				keyToFirstPos[keyCtr] = -1;
+			} else {
+				keyToFirstPos[keyCtr] = prefixSum;
+				prefixSum += nrRowsForKey + 1;
+			}
+		}
+		// Generate position information
+		int[] positions = new int[prefixSum];
+		for (int i=0; i<cardinality; ++i) {
+			if (!intData.isNull(i)) {
+				int startPos = keyToFirstPos[intData.get(i) - minKey];
+				positions[startPos] += 1;
+				positions[startPos + positions[startPos]] = i;
+			}
+		}
+		DenseIntIndex index = new DenseIntIndex(
+				intData, minKey, keyToFirstPos, positions);
+		// Output statistics for performance tuning
+		if (LoggingConfig.INDEXING_VERBOSE) {
+			long totalMillis = System.currentTimeMillis() - startMillis;
+			index.log("Created dense index for integer column with cardinality " +
+					cardinality + " and " + nrKeys + " keys in " + totalMillis + " ms.");
+		}
+		// Check index if enabled
+		IndexChecker.checkIndex(intData, index);
+		return index;
+	}
+	/**
+	 * Creates direct-addressed index from previously created
+	 * index data if keys form a compact domain, returns null
+	 * otherwise. Position groups are laid out in ascending key
+	 * order (like for newly created dense indexes) if the given
+	 * keys are ordered differently (e.g., in hash order).
+	 *
+	 * @param intData	integer data that the index refers to
+	 * @param keys		indexed keys, ordered by first position
+	 * @param positions	row numbers grouped by key
+	 * @return			new index or null
+	 */
+	public static DenseIntIndex create(IntData intData,
+			int[] keys, int[] positions) {
+		if (keys.length == 0) {
+			return null;
+		}
+		int minKey = Arrays.stream(keys).min().getAsInt();
+		int maxKey = Arrays.stream(keys).max().getAsInt();
+		long range = (long)maxKey - minKey + 1;
+		if (range >= Integer.MAX_VALUE || range >
+				(long)IndexConfig.MAX_DENSE_RANGE_FACTOR * keys.length) {
+			return null;
+		}
+		int[] keyToFirstPos = new int[(int)range];
+		Arrays.fill(keyToFirstPos, -1);
+		int pos = 0;
+		boolean ascending = true;
+		for (int keyCtr=0; keyCtr<keys.length; ++keyCtr) {
+			int key = keys[keyCtr];
+			if (keyCtr > 0 && key <= keys[keyCtr-1]) {
+				ascending = false;
+			}
+			keyToFirstPos[key - minKey] = pos;
+			pos += positions[pos] + 1;
+		}
+		if (ascending) {
+			return new DenseIntIndex(intData, minKey, keyToFirstPos, positions);
+		}
+		// Sorted index and range scans expect groups in key order
+		int[] sortedPositions = new int[positions.length];
+		int sortedPos = 0;
+		for (int keyCtr=0; keyCtr<range; ++keyCtr) {
+			int firstPos = keyToFirstPos[keyCtr];
+			if (firstPos >= 0) {
+				int groupLength = positions[firstPos] + 1;
+				System.arraycopy(positions, firstPos, 
+						sortedPositions, sortedPos, groupLength);
+				keyToFirstPos[keyCtr] = sortedPos;
+				sortedPos += groupLength;
+			}
+		}
+		return new DenseIntIndex(intData, minKey, 
+				keyToFirstPos, sortedPositions);
+	}
+	@Override
+	public int firstPos(int key) {
+		long offset = (long)key - minKey;
+		return offset >= 0 && offset < keyToFirstPos.length ?
+				keyToFirstPos[(int)offset] : -1;
+	}
+}
@@ -35,19 +35,18 @@ public class DoubleIndex extends Index {
 		long startMillis = System.currentTimeMillis();
 		// Extract info
 		this.doubleData = doubleData;
-		double[] data = doubleData.data;
 		// Count number of occurrences for each value
 		DoubleIntMap keyToNr = HashDoubleIntMaps.newMutableMap();
 		for (int i=0; i<cardinality; ++i) {
 			// Don't index null values
-			if (!doubleData.isNull.get(i)) {
-				double value = data[i];
+			if (!doubleData.isNull(i)) {
+				double value = doubleData.get(i);
 				int nr = keyToNr.getOrDefault(value, 0);
 				keyToNr.put(value, nr+1);				
 			}
 		}
 		// Assign each key to the appropriate position offset
-		int nrKeys = keyToNr.size();
+		nrKeys = keyToNr.size();
 		log("Number of keys:\t" + nrKeys);
 		keyToPositions = HashDoubleIntMaps.newMutableMap(nrKeys);
 		int prefixSum = 0;
@@ -65,8 +64,8 @@ public class DoubleIndex extends Index {
 		// Generate position information
 		positions = new int[prefixSum];
 		for (int i=0; i<cardinality; ++i) {
-			if (!doubleData.isNull.get(i)) {
-				double key = data[i];
+			if (!doubleData.isNull(i)) {
+				double key = doubleData.get(i);
 				int startPos = keyToPositions.get(key);
 				positions[startPos] += 1;
 				int offset = positions[startPos];
@@ -81,6 +80,22 @@ public class DoubleIndex extends Index {
 					cardinality + " in " + totalMillis + " ms.");
 		}
 	}
+	/**
+	 * Initializes index on given double column from
+	 * previously created index data (e.g., read from disk).
+	 * 
+	 * @param doubleData	double data that the index refers to
+	 * @param keyToPositions	maps keys to first position
+	 * @param positions			row numbers grouped by key
+	 */
+	public DoubleIndex(DoubleData doubleData, DoubleIntMap keyToPositions,
+			int[] positions) {
+		super(doubleData.cardinality);
+		this.doubleData = doubleData;
+		this.keyToPositions = keyToPositions;
+		this.positions = positions;
+		this.nrKeys = keyToPositions.size();
+	}
 	/**
 	 * Returns index of next tuple with given value
 	 * or cardinality of indexed table if no such
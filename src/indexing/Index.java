@@ -19,6 +19,11 @@ public abstract class Index {
 	 * numbers at which those entries are found.
 	 */
 	public int[] positions;
+	/**
+	 * Number of distinct keys (set when building the
+	 * index, -1 if not determined yet).
+	 */
+	int nrKeys = -1;
 	/**
 	 * Initialize for given cardinality of indexed table.
 	 * 
@@ -27,6 +32,23 @@ public abstract class Index {
 	public Index(int cardinality) {
 		this.cardinality = cardinality;
 	}
+	/**
+	 * Returns the number of distinct keys in the index
+	 * (derived from the layout of the positions array
+	 * if not determined while building the index).
+	 * 
+	 * @return	number of distinct non-null keys
+	 */
+	public int nrKeys() {
+		if (nrKeys < 0) {
+			int nrKeys = 0;
+			for (int pos=0; pos<positions.length; pos+=positions[pos]+1) {
+				++nrKeys;
+			}
+			this.nrKeys = nrKeys;
+		}
+		return nrKeys;
+	}
 	/**
 	 * Output given log text if activated.
 	 * 
@@ -27,13 +27,13 @@ public class IndexChecker {
 					+ "cardinality " + data.cardinality + " ...");
 			// Iterate over indexed data
 			for (int i=0; i<data.cardinality; ++i) {
-				if (!data.isNull.get(i)) {
+				if (!data.isNull(i)) {
 					// Generate output every 10,000 rows
 					if (i % 10000 == 0) {
 						System.out.println("Checking row " + i + " ...");
 					}
 					// Ensure that index contains reference
-					int value = data.data[i];
+					int value = data.get(i);
 					int nextTuple = index.nextTuple(value, i-1);
 					if (nextTuple != i) {
 						System.out.println("Next indexed tuple should be " + 
@@ -0,0 +1,369 @@
+package indexing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import com.koloboke.collect.map.DoubleIntMap;
+import com.koloboke.collect.map.IntIntMap;
+import com.koloboke.collect.map.hash.HashDoubleIntMaps;
+import com.koloboke.collect.map.hash.HashIntIntMaps;
+
+import catalog.info.ColumnInfo;
+import config.IndexConfig;
+import data.ColumnData;
+import data.DoubleData;
+import data.IntData;
+import diskio.PathUtil;
+import query.ColumnRef;
+
+/**
+ * Stores indices in a binary format in the database directory
+ * and loads them via memory mapping. Each index file starts
+ * with a header (format marker, index type, data version of
+ * the indexed column, cardinality, number of keys, number of
+ * positions), followed by the keys (ordered by their first
+ * position) and by the positions array. Index files whose
+ * data version differs from the one in the catalog are
+ * considered outdated and ignored. Sorted indices are stored
+ * in separate files with the same header (without keys),
+ * followed by the sorted row indices.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class IndexFiles {
+	/**
+	 * Marks files containing persistent indices.
+	 */
+	static final int MAGIC = 0x534B4958;
+	/**
+	 * Type marker for integer indices.
+	 */
+	static final int INT_INDEX = 0;
+	/**
+	 * Type marker for double indices.
+	 */
+	static final int DOUBLE_INDEX = 1;
+	/**
+	 * Type marker for sorted integer indices.
+	 */
+	static final int SORTED_INT_INDEX = 2;
+	/**
+	 * Number of bytes in file header.
+	 */
+	static final int HEADER_BYTES = 32;
+	/**
+	 * Maximal number of bytes mapped at once.
+	 */
+	static final int CHUNK_BYTES = 1 << 30;
+	/**
+	 * Returns path of file storing index on given column.
+	 *
+	 * @param colRef	reference to indexed column
+	 * @return			path to index file
+	 */
+	static String indexPath(ColumnRef colRef) {
+		return Paths.get(PathUtil.indexPath, colRef.aliasName,
+				colRef.columnName + ".idx").toString();
+	}
+	/**
+	 * Returns path of file storing sorted index on given column.
+	 *
+	 * @param colRef	reference to indexed column
+	 * @return			path to sorted index file
+	 */
+	static String sortedIndexPath(ColumnRef colRef) {
+		return Paths.get(PathUtil.indexPath, colRef.aliasName,
+				colRef.columnName + ".sidx").toString();
+	}
+	/**
+	 * Writes given index on given column into the index
+	 * directory, tagged with the column's data version.
+	 * Only integer and double indices are stored.
+	 *
+	 * @param colRef	reference to indexed column
+	 * @param colInfo	catalog information on indexed column
+	 * @param index		index to store
+	 * @throws Exception
+	 */
+	public static void store(ColumnRef colRef, ColumnInfo colInfo,
+			Index index) throws Exception {
+		int type;
+		ColumnData data;
+		if (index instanceof IntIndex) {
+			type = INT_INDEX;
+			data = ((IntIndex)index).intData;
+		} else if (index instanceof DoubleIndex) {
+			type = DOUBLE_INDEX;
+			data = ((DoubleIndex)index).doubleData;
+		} else {
+			return;
+		}
+		int[] positions = index.positions;
+		int nrKeys = index.nrKeys();
+		long keyBytes = (long)nrKeys * (type == INT_INDEX ? 4 : 8);
+		long nrBytes = HEADER_BYTES + keyBytes + 4L * positions.length;
+		// Write into temporary file, then replace old index
+		String path = indexPath(colRef);
+		File tmpFile = new File(path + ".tmp");
+		tmpFile.getParentFile().mkdirs();
+		try (RandomAccessFile file = new RandomAccessFile(tmpFile, "rw");
+				FileChannel channel = file.getChannel()) {
+			file.setLength(nrBytes);
+			MappedByteBuffer header = channel.map(
+					MapMode.READ_WRITE, 0, HEADER_BYTES);
+			header.putInt(MAGIC);
+			header.putInt(type);
+			header.putLong(colInfo.dataVersion);
+			header.putInt(index.cardinality);
+			header.putInt(nrKeys);
+			header.putInt(positions.length);
+			// Keys are ordered by their first position
+			if (type == INT_INDEX) {
+				IntData rows = (IntData)data;
+				int[] keys = new int[nrKeys];
+				int keyCtr = 0;
+				for (int pos=0; pos<positions.length;
+						pos+=positions[pos]+1) {
+					keys[keyCtr++] = rows.get(positions[pos+1]);
+				}
+				writeInts(channel, HEADER_BYTES, keys);
+			} else {
+				DoubleData rows = (DoubleData)data;
+				double[] keys = new double[nrKeys];
+				int keyCtr = 0;
+				for (int pos=0; pos<positions.length;
+						pos+=positions[pos]+1) {
+					keys[keyCtr++] = rows.get(positions[pos+1]);
+				}
+				writeDoubles(channel, HEADER_BYTES, keys);
+			}
+			writeInts(channel, HEADER_BYTES + keyBytes, positions);
+		}
+		Files.move(tmpFile.toPath(), Paths.get(path),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+	/**
+	 * Loads index on given column from the index directory.
+	 * Returns null if no index was stored for that column
+	 * or if the stored index is outdated.
+	 *
+	 * @param colRef	reference to indexed column
+	 * @param colInfo	catalog information on indexed column
+	 * @param data		data of indexed column
+	 * @return			loaded index or null
+	 * @throws Exception
+	 */
+	public static Index load(ColumnRef colRef, ColumnInfo colInfo,
+			ColumnData data) throws Exception {
+		File indexFile = new File(indexPath(colRef));
+		if (!indexFile.exists()) {
+			return null;
+		}
+		try (RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+				FileChannel channel = file.getChannel()) {
+			if (channel.size() < HEADER_BYTES) {
+				return null;
+			}
+			MappedByteBuffer header = channel.map(
+					MapMode.READ_ONLY, 0, HEADER_BYTES);
+			int magic = header.getInt();
+			int type = header.getInt();
+			long dataVersion = header.getLong();
+			int cardinality = header.getInt();
+			int nrKeys = header.getInt();
+			int nrPositions = header.getInt();
+			// Check whether index is up to date
+			int expectedType = data instanceof IntData ? INT_INDEX :
+				data instanceof DoubleData ? DOUBLE_INDEX : -1;
+			long keyBytes = (long)nrKeys * (type == INT_INDEX ? 4 : 8);
+			if (magic != MAGIC || type != expectedType ||
+					dataVersion != colInfo.dataVersion ||
+					cardinality != data.getCardinality() ||
+					channel.size() != HEADER_BYTES +
+					keyBytes + 4L * nrPositions) {
+				return null;
+			}
+			int[] positions = new int[nrPositions];
+			readInts(channel, HEADER_BYTES + keyBytes, positions);
+			// Keys are ordered by their first position
+			if (type == INT_INDEX) {
+				int[] keys = new int[nrKeys];
+				readInts(channel, HEADER_BYTES, keys);
+				DenseIntIndex denseIndex = IndexConfig.DENSE_INDEX ?
+						DenseIntIndex.create((IntData)data, keys, positions) : null;
+				if (denseIndex != null) {
+					return denseIndex;
+				}
+				IntIntMap keyToPositions = HashIntIntMaps.newMutableMap(nrKeys);
+				int pos = 0;
+				for (int key : keys) {
+					keyToPositions.put(key, pos);
+					pos += positions[pos] + 1;
+				}
+				return new IntIndex((IntData)data, keyToPositions, positions);
+			} else {
+				double[] keys = new double[nrKeys];
+				readDoubles(channel, HEADER_BYTES, keys);
+				DoubleIntMap keyToPositions = HashDoubleIntMaps.newMutableMap(nrKeys);
+				int pos = 0;
+				for (double key : keys) {
+					keyToPositions.put(key, pos);
+					pos += positions[pos] + 1;
+				}
+				return new DoubleIndex((DoubleData)data, keyToPositions, positions);
+			}
+		}
+	}
+	/**
+	 * Writes given sorted index on given column into the index
+	 * directory, tagged with the column's data version.
+	 *
+	 * @param colRef		reference to indexed column
+	 * @param colInfo		catalog information on indexed column
+	 * @param sortedIndex	sorted index to store
+	 * @throws Exception
+	 */
+	public static void storeSorted(ColumnRef colRef, ColumnInfo colInfo,
+			SortedIntIndex sortedIndex) throws Exception {
+		int[] sortedRows = sortedIndex.sortedRows;
+		// Write into temporary file, then replace old index
+		String path = sortedIndexPath(colRef);
+		File tmpFile = new File(path + ".tmp");
+		tmpFile.getParentFile().mkdirs();
+		try (RandomAccessFile file = new RandomAccessFile(tmpFile, "rw");
+				FileChannel channel = file.getChannel()) {
+			file.setLength(HEADER_BYTES + 4L * sortedRows.length);
+			MappedByteBuffer header = channel.map(
+					MapMode.READ_WRITE, 0, HEADER_BYTES);
+			header.putInt(MAGIC);
+			header.putInt(SORTED_INT_INDEX);
+			header.putLong(colInfo.dataVersion);
+			header.putInt(sortedIndex.intData.cardinality);
+			header.putInt(0);
+			header.putInt(sortedRows.length);
+			writeInts(channel, HEADER_BYTES, sortedRows);
+		}
+		Files.move(tmpFile.toPath(), Paths.get(path),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+	/**
+	 * Loads sorted index on given column from the index directory.
+	 * Returns null if no sorted index was stored for that column
+	 * or if the stored index is outdated.
+	 *
+	 * @param colRef	reference to indexed column
+	 * @param colInfo	catalog information on indexed column
+	 * @param intData	data of indexed column
+	 * @return			loaded sorted index or null
+	 * @throws Exception
+	 */
+	public static SortedIntIndex loadSorted(ColumnRef colRef, 
+			ColumnInfo colInfo, IntData intData) throws Exception {
+		File indexFile = new File(sortedIndexPath(colRef));
+		if (!indexFile.exists()) {
+			return null;
+		}
+		try (RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+				FileChannel channel = file.getChannel()) {
+			if (channel.size() < HEADER_BYTES) {
+				return null;
+			}
+			MappedByteBuffer header = channel.map(
+					MapMode.READ_ONLY, 0, HEADER_BYTES);
+			int magic = header.getInt();
+			int type = header.getInt();
+			long dataVersion = header.getLong();
+			int cardinality = header.getInt();
+			header.getInt();
+			int nrRows = header.getInt();
+			// Check whether index is up to date
+			if (magic != MAGIC || type != SORTED_INT_INDEX ||
+					dataVersion != colInfo.dataVersion ||
+					cardinality != intData.cardinality ||
+					channel.size() != HEADER_BYTES + 4L * nrRows) {
+				return null;
+			}
+			int[] sortedRows = new int[nrRows];
+			readInts(channel, HEADER_BYTES, sortedRows);
+			return new SortedIntIndex(intData, sortedRows);
+		}
+	}
+	/**
+	 * Writes integer array into file, starting at given offset.
+	 *
+	 * @param channel	channel to file
+	 * @param offset	first byte to write
+	 * @param values	integers to write
+	 * @throws IOException
+	 */
+	static void writeInts(FileChannel channel, long offset,
+			int[] values) throws IOException {
+		int chunkSize = CHUNK_BYTES / 4;
+		for (int start=0; start<values.length; start+=chunkSize) {
+			int length = Math.min(chunkSize, values.length - start);
+			channel.map(MapMode.READ_WRITE, offset + 4L * start,
+					4L * length).asIntBuffer().put(values, start, length);
+		}
+	}
+	/**
+	 * Writes double array into file, starting at given offset.
+	 *
+	 * @param channel	channel to file
+	 * @param offset	first byte to write
+	 * @param values	doubles to write
+	 * @throws IOException
+	 */
+	static void writeDoubles(FileChannel channel, long offset,
+			double[] values) throws IOException {
+		int chunkSize = CHUNK_BYTES / 8;
+		for (int start=0; start<values.length; start+=chunkSize) {
+			int length = Math.min(chunkSize, values.length - start);
+			channel.map(MapMode.READ_WRITE, offset + 8L * start,
+					8L * length).asDoubleBuffer().put(values, start, length);
+		}
+	}
+	/**
+	 * Reads integer array from file, starting at given offset.
+	 *
+	 * @param channel	channel to file
+	 * @param offset	first byte to read
+	 * @param values	array to fill with integers
+	 * @throws IOException
+	 */
+	static void readInts(FileChannel channel, long offset,
+			int[] values) throws IOException {
+		int chunkSize = CHUNK_BYTES / 4;
+		for (int start=0; start<values.length; start+=chunkSize) {
+			int length = Math.min(chunkSize, values.length - start);
+			channel.map(MapMode.READ_ONLY, offset + 4L * start,
+					4L * length).asIntBuffer().get(values, start, length);
+		}
+	}
+	/**
+	 * Reads double array from file, starting at given offset.
+	 *
+	 * @param channel	channel to file
+	 * @param offset	first byte to read
+	 * @param values	array to fill with doubles
+	 * @throws IOException
+	 */
+	static void readDoubles(FileChannel channel, long offset,
+			double[] values) throws IOException {
+		int chunkSize = CHUNK_BYTES / 8;
+		for (int start=0; start<values.length; start+=chunkSize) {
+			int length = Math.min(chunkSize, values.length - start);
+			channel.map(MapMode.READ_ONLY, offset + 8L * start,
+					8L * length).asDoubleBuffer().get(values, start, length);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package indexing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import catalog.info.ColumnInfo;
+import config.IndexConfig;
+import data.IntData;
+import diskio.PathUtil;
+import query.ColumnRef;
+import types.SQLtype;
+
+class IndexFilesTest {
+
+	@Test
+	void rangeOnLoadedHashOrderedIndex() throws Exception {
+		PathUtil.indexPath = Files.createTempDirectory(
+				"index").toString();
+		// Column with compact key domain, keys not in row order
+		int cardinality = 1000;
+		IntData intData = new IntData(cardinality);
+		for (int row=0; row<cardinality; ++row) {
+			intData.data[row] = 100 + (row * 37) % 500;
+		}
+		ColumnRef colRef = new ColumnRef("s", "a");
+		ColumnInfo colInfo = new ColumnInfo("a", SQLtype.INT, 
+				false, false, false, false);
+		boolean denseIndex = IndexConfig.DENSE_INDEX;
+		try {
+			// Store index with keys in hash order
+			IndexConfig.DENSE_INDEX = false;
+			IndexFiles.store(colRef, colInfo, new IntIndex(intData));
+			// Load as direct-addressed index and scan range
+			IndexConfig.DENSE_INDEX = true;
+			Index index = IndexFiles.load(colRef, colInfo, intData);
+			assertTrue(index instanceof DenseIntIndex);
+			SortedIntIndex sortedIndex = new SortedIntIndex(intData, index);
+			List<Integer> expected = new ArrayList<>();
+			for (int row=0; row<cardinality; ++row) {
+				int value = intData.data[row];
+				if (value >= 100 && value <= 400) {
+					expected.add(row);
+				}
+			}
+			assertEquals(expected.size(), sortedIndex.nrInRange(100, 400));
+			assertEquals(expected, sortedIndex.rowsInRange(100, 400));
+		} finally {
+			IndexConfig.DENSE_INDEX = denseIndex;
+		}
+	}
+
+	@Test
+	void storeAndLoadSortedIndex() throws Exception {
+		PathUtil.indexPath = Files.createTempDirectory(
+				"index").toString();
+		int cardinality = 1000;
+		IntData intData = new IntData(cardinality);
+		for (int row=0; row<cardinality; ++row) {
+			intData.data[row] = (row * 7919) % 100003;
+		}
+		ColumnRef colRef = new ColumnRef("s", "a");
+		ColumnInfo colInfo = new ColumnInfo("a", SQLtype.INT, 
+				false, false, false, false);
+		SortedIntIndex sortedIndex = new SortedIntIndex(intData, (Index)null);
+		IndexFiles.storeSorted(colRef, colInfo, sortedIndex);
+		SortedIntIndex loaded = IndexFiles.loadSorted(
+				colRef, colInfo, intData);
+		assertNotNull(loaded);
+		assertArrayEquals(sortedIndex.sortedRows, loaded.sortedRows);
+		// Stored index is outdated once the column changes
+		colInfo.newDataVersion();
+		assertNull(IndexFiles.loadSorted(colRef, colInfo, intData));
+	}
+}
@@ -2,7 +2,10 @@ package indexing;
 
 import buffer.BufferManager;
 import catalog.CatalogManager;
+import catalog.info.ColumnInfo;
+import config.IndexConfig;
 import config.IndexingMode;
+import config.StartupConfig;
 import data.ColumnData;
 import data.DoubleData;
 import data.IntData;
@@ -16,7 +19,8 @@ import query.ColumnRef;
  */
 public class Indexer {
 	/**
-	 * Create an index on the specified column.
+	 * Create an index on the specified column (using a
+	 * direct-addressed index for compact integer domains).
 	 * 
 	 * @param colRef	create index on this column
 	 */
@@ -26,7 +30,11 @@ public class Indexer {
 			ColumnData data = BufferManager.getData(colRef);
 			if (data instanceof IntData) {
 				IntData intData = (IntData)data;
-				IntIndex index = new IntIndex(intData);
+				IntIndex index = IndexConfig.DENSE_INDEX ?
+						DenseIntIndex.create(intData) : null;
+				if (index == null) {
+					index = new IntIndex(intData);
+				}
 				BufferManager.colToIndex.put(colRef, index);
 			} else if (data instanceof DoubleData) {
 				DoubleData doubleData = (DoubleData)data;
@@ -35,6 +43,109 @@ public class Indexer {
 			}
 		}
 	}
+	/**
+	 * Create a sorted index on the specified column
+	 * if it contains integers.
+	 * 
+	 * @param colRef	create sorted index on this column
+	 * @throws Exception
+	 */
+	public static void sortedIndex(ColumnRef colRef) throws Exception {
+		// Check if index already exists
+		if (!BufferManager.colToSortedIndex.containsKey(colRef)) {
+			ColumnData data = BufferManager.getData(colRef);
+			if (data instanceof IntData) {
+				IntData intData = (IntData)data;
+				Index index = BufferManager.colToIndex.get(colRef);
+				SortedIntIndex sortedIndex = new SortedIntIndex(intData, index);
+				BufferManager.colToSortedIndex.put(colRef, sortedIndex);
+			}
+		}
+	}
+	/**
+	 * Create a compact hash index on the specified column if
+	 * it contains integers, a generic index otherwise. Prefers
+	 * a direct-addressed index for compact integer domains.
+	 * 
+	 * @param colRef	create index on this column
+	 */
+	public static void hashIndex(ColumnRef colRef) throws Exception {
+		// Check if index already exists
+		if (!BufferManager.colToIndex.containsKey(colRef)) {
+			ColumnData data = BufferManager.getData(colRef);
+			if (data instanceof IntData) {
+				IntData intData = (IntData)data;
+				Index index = IndexConfig.DENSE_INDEX ?
+						DenseIntIndex.create(intData) : null;
+				if (index == null) {
+					index = new IntHashIndex(intData);
+				}
+				BufferManager.colToIndex.put(colRef, index);
+			} else {
+				index(colRef);
+			}
+		}
+	}
+	/**
+	 * Loads index on the specified base table column from
+	 * the database directory if an up-to-date version was
+	 * stored before. Otherwise, creates the index and stores
+	 * it for future startups.
+	 * 
+	 * @param colRef	create or load index on this column
+	 * @param colInfo	catalog information on column
+	 * @throws Exception
+	 */
+	static void persistentIndex(ColumnRef colRef, 
+			ColumnInfo colInfo) throws Exception {
+		if (!BufferManager.colToIndex.containsKey(colRef)) {
+			ColumnData data = BufferManager.getData(colRef);
+			Index index = IndexFiles.load(colRef, colInfo, data);
+			if (index != null) {
+				System.out.println("Loaded index on " + colRef);
+				BufferManager.colToIndex.put(colRef, index);
+			} else {
+				index(colRef);
+				index = BufferManager.colToIndex.get(colRef);
+				if (index != null) {
+					IndexFiles.store(colRef, colInfo, index);
+				}
+			}
+		}
+	}
+	/**
+	 * Loads sorted index on the specified base table column
+	 * from the database directory if an up-to-date version
+	 * was stored before. Otherwise, creates the sorted index
+	 * and stores it for future startups (unless it is derived
+	 * from a direct-addressed index without sorting).
+	 * 
+	 * @param colRef	create or load sorted index on this column
+	 * @param colInfo	catalog information on column
+	 * @throws Exception
+	 */
+	static void persistentSortedIndex(ColumnRef colRef, 
+			ColumnInfo colInfo) throws Exception {
+		if (!BufferManager.colToSortedIndex.containsKey(colRef)) {
+			ColumnData data = BufferManager.getData(colRef);
+			if (!(data instanceof IntData) || 
+					BufferManager.colToIndex.get(colRef) instanceof DenseIntIndex) {
+				sortedIndex(colRef);
+				return;
+			}
+			IntData intData = (IntData)data;
+			SortedIntIndex sortedIndex = IndexFiles.loadSorted(
+					colRef, colInfo, intData);
+			if (sortedIndex != null) {
+				System.out.println("Loaded sorted index on " + colRef);
+				BufferManager.colToSortedIndex.put(colRef, sortedIndex);
+			} else {
+				sortedIndex(colRef);
+				IndexFiles.storeSorted(colRef, colInfo, 
+						BufferManager.colToSortedIndex.get(colRef));
+			}
+		}
+	}
 	/**
 	 * Creates an index for each key/foreign key column.
 	 * 
@@ -56,7 +167,20 @@ public class Indexer {
 								String column = columnInfo.name;
 								ColumnRef colRef = new ColumnRef(table, column);
 								System.out.println("Indexing " + colRef + " ...");
-								index(colRef);								
+								boolean persist = StartupConfig.PERSIST_INDEXES &&
+										!tableInfo.tempTable;
+								if (persist) {
+									persistentIndex(colRef, columnInfo);
+								} else {
+									index(colRef);
+								}
+								if (IndexConfig.SORTED_INDEX) {
+									if (persist) {
+										persistentSortedIndex(colRef, columnInfo);
+									} else {
+										sortedIndex(colRef);
+									}
+								}								
 							}
 						} catch (Exception e) {
 							System.err.println("Error indexing " + columnInfo);
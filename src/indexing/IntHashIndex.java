@@ -0,0 +1,188 @@
+package indexing;
+
+import config.LoggingConfig;
+import data.IntData;
+import statistics.JoinStats;
+
+/**
+ * Indexes integer values (not necessarily unique) via a
+ * compact hash table with open addressing and linear
+ * probing. Is cheaper to build than the generic integer
+ * index and is used for join columns of filtered tables.
+ * Row indices are stored in the same layout as for the
+ * generic index: for each key, the number of rows is
+ * followed by the rows containing the key in ascending
+ * order.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class IntHashIndex extends Index {
+	/**
+	 * Integer data that the index refers to.
+	 */
+	public final IntData intData;
+	/**
+	 * Keys stored in hash table slots.
+	 */
+	final int[] keys;
+	/**
+	 * For each hash table slot: position at which
+	 * information on associated rows is stored or
+	 * -1 if the slot is empty.
+	 */
+	final int[] slotToPos;
+	/**
+	 * Used to map hash values to slots.
+	 */
+	final int mask;
+	/**
+	 * Create hash index on the given integer column.
+	 *
+	 * @param intData	integer data to index
+	 */
+	public IntHashIndex(IntData intData) {
+		super(intData.cardinality);
+		long startMillis = System.currentTimeMillis();
+		this.intData = intData;
+		// Use at most half of the slots
+		int nrSlots = Integer.highestOneBit(Math.max(1, cardinality)) * 4;
+		keys = new int[nrSlots];
+		slotToPos = new int[nrSlots];
+		mask = nrSlots - 1;
+		// Count number of occurrences for each value
+		int[] counts = new int[nrSlots];
+		nrKeys = 0;
+		for (int i=0; i<cardinality; ++i) {
+			// Don't index null values
+			if (!intData.isNull(i)) {
+				int value = intData.get(i);
+				int slot = hash(value);
+				while (counts[slot] != 0 && keys[slot] != value) {
+					slot = (slot + 1) & mask;
+				}
+				if (counts[slot] == 0) {
+					keys[slot] = value;
+					++nrKeys;
+				}
+				++counts[slot];
+			}
+		}
+		log("Number of keys:\t" + nrKeys);
+		// Assign each key to the appropriate position offset
+		int prefixSum = 0;
+		for (int slot=0; slot<nrSlots; ++slot) {
+			if (counts[slot] == 0) {
+				slotToPos[slot] = -1;
+			} else {
+				slotToPos[slot] = prefixSum;
+				// Reserve one field for the number of rows
+				prefixSum += counts[slot] + 1;
+			}
+		}
+		log("Prefix sum:\t" + prefixSum);
+		// Generate position information
+		positions = new int[prefixSum];
+		for (int i=0; i<cardinality; ++i) {
+			if (!intData.isNull(i)) {
+				int startPos = firstPos(intData.get(i));
+				positions[startPos] += 1;
+				positions[startPos + positions[startPos]] = i;
+			}
+		}
+		// Output statistics for performance tuning
+		if (LoggingConfig.INDEXING_VERBOSE) {
+			long totalMillis = System.currentTimeMillis() - startMillis;
+			log("Created hash index for integer column with cardinality " +
+					cardinality + " in " + totalMillis + " ms.");
+		}
+	}
+	/**
+	 * Maps given key to its first hash table slot.
+	 *
+	 * @param key	integer key
+	 * @return		hash table slot
+	 */
+	int hash(int key) {
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+	/**
+	 * Returns the position at which the number of rows
+	 * with the given value is stored (followed by the
+	 * rows), returns -1 if the value is not indexed.
+	 *
+	 * @param value	indexed value
+	 * @return		first position for value or -1
+	 */
+	public int firstPos(int value) {
+		int slot = hash(value);
+		while (slotToPos[slot] >= 0) {
+			if (keys[slot] == value) {
+				return slotToPos[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+	/**
+	 * Returns position of first row with index above the given
+	 * one within the rows stored after the given start position.
+	 * Returns the last position of those rows plus one if no
+	 * such row exists.
+	 *
+	 * @param firstPos	position storing number of rows
+	 * @param prevTuple	index of last tuple
+	 * @return			position of next row
+	 */
+	public int nextPos(int firstPos, int prevTuple) {
+		int nrVals = positions[firstPos];
+		// Update index-related statistics
+		JoinStats.nrIndexEntries += nrVals;
+		if (nrVals == 1) {
+			JoinStats.nrUniqueIndexLookups += 1;
+		}
+		// Find first position with larger row via binary search
+		int lowerBound = firstPos + 1;
+		int upperBound = firstPos + nrVals + 1;
+		while (lowerBound < upperBound) {
+			int middle = lowerBound + (upperBound - lowerBound) / 2;
+			if (positions[middle] > prevTuple) {
+				upperBound = middle;
+			} else {
+				lowerBound = middle + 1;
+			}
+		}
+		return lowerBound;
+	}
+	/**
+	 * Returns index of next tuple with given value
+	 * or cardinality of indexed table if no such
+	 * tuple exists.
+	 *
+	 * @param value			indexed value
+	 * @param prevTuple		index of last tuple
+	 * @return 	index of next tuple or cardinality
+	 */
+	public int nextTuple(int value, int prevTuple) {
+		int firstPos = firstPos(value);
+		if (firstPos < 0) {
+			JoinStats.nrUniqueIndexLookups += 1;
+			return cardinality;
+		}
+		int pos = nextPos(firstPos, prevTuple);
+		return pos <= firstPos + positions[firstPos] ?
+				positions[pos] : cardinality;
+	}
+	/**
+	 * Returns the number of entries indexed
+	 * for the given value.
+	 *
+	 * @param value	count indexed tuples for this value
+	 * @return		number of indexed values
+	 */
+	public int nrIndexed(int value) {
+		int firstPos = firstPos(value);
+		return firstPos < 0 ? 0 : positions[firstPos];
+	}
+}
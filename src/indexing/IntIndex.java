@@ -1,10 +1,15 @@
 package indexing;
 
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import com.koloboke.collect.map.IntIntCursor;
 import com.koloboke.collect.map.IntIntMap;
 import com.koloboke.collect.map.hash.HashIntIntMaps;
 
 import config.LoggingConfig;
+import config.ParallelConfig;
 import data.IntData;
 import statistics.JoinStats;
 
@@ -35,19 +40,40 @@ public class IntIndex extends Index {
 		long startMillis = System.currentTimeMillis();
 		// Extract info
 		this.intData = intData;
-		int[] data = intData.data;
+		// Use multiple threads for large columns
+		int nrPartitions = (int)Math.min(ParallelConfig.INDEX_PARTITIONS, 
+				(long)cardinality / ParallelConfig.MIN_INDEX_PARTITION_CARD);
+		if (nrPartitions > 1) {
+			parallelBuild(nrPartitions);
+		} else {
+			sequentialBuild();
+		}
+		// Output statistics for performance tuning
+		if (LoggingConfig.INDEXING_VERBOSE) {
+			long totalMillis = System.currentTimeMillis() - startMillis;
+			log("Created index for integer column with cardinality " + 
+					cardinality + " in " + totalMillis + " ms.");
+		}
+		// Check index if enabled
+		IndexChecker.checkIndex(intData, this);
+	}
+	/**
+	 * Creates index in two passes over the column on
+	 * the current thread.
+	 */
+	void sequentialBuild() {
 		// Count number of occurrences for each value
 		IntIntMap keyToNr = HashIntIntMaps.newMutableMap();
 		for (int i=0; i<cardinality; ++i) {
 			// Don't index null values
-			if (!intData.isNull.get(i)) {
-				int value = data[i];
+			if (!intData.isNull(i)) {
+				int value = intData.get(i);
 				int nr = keyToNr.getOrDefault(value, 0);
 				keyToNr.put(value, nr+1);				
 			}
 		}
 		// Assign each key to the appropriate position offset
-		int nrKeys = keyToNr.size();
+		nrKeys = keyToNr.size();
 		log("Number of keys:\t" + nrKeys);
 		keyToPositions = HashIntIntMaps.newMutableMap(nrKeys);
 		int prefixSum = 0;
@@ -65,8 +91,8 @@ public class IntIndex extends Index {
 		// Generate position information
 		positions = new int[prefixSum];
 		for (int i=0; i<cardinality; ++i) {
-			if (!intData.isNull.get(i)) {
-				int key = data[i];
+			if (!intData.isNull(i)) {
+				int key = intData.get(i);
 				int startPos = keyToPositions.get(key);
 				positions[startPos] += 1;
 				int offset = positions[startPos];
@@ -74,14 +100,111 @@ public class IntIndex extends Index {
 				positions[pos] = i;				
 			}
 		}
-		// Output statistics for performance tuning
-		if (LoggingConfig.INDEXING_VERBOSE) {
-			long totalMillis = System.currentTimeMillis() - startMillis;
-			log("Created index for integer column with cardinality " + 
-					cardinality + " in " + totalMillis + " ms.");
+	}
+	/**
+	 * Creates index using multiple threads, each responsible
+	 * for one range of rows. Threads count key occurrences in
+	 * their row range, counts are merged to assign positions,
+	 * then threads insert rows in parallel. Row indices for the
+	 * same key remain sorted since row ranges are processed in
+	 * order when assigning insertion offsets.
+	 * 
+	 * @param nrPartitions	number of row ranges
+	 */
+	void parallelBuild(int nrPartitions) {
+		// Row bounds may exceed integer range for large columns
+		int partitionSize = (int)(((long)cardinality + 
+				nrPartitions - 1) / nrPartitions);
+		// Count number of occurrences for each value per partition
+		List<IntIntMap> partitionCounts = IntStream.range(0, nrPartitions).
+				parallel().mapToObj(partCtr -> {
+			IntIntMap keyToNr = HashIntIntMaps.newMutableMap();
+			int startRow = (int)Math.min(cardinality, 
+					(long)partCtr * partitionSize);
+			int endRow = (int)Math.min(cardinality, 
+					(long)(partCtr+1) * partitionSize);
+			for (int i=startRow; i<endRow; ++i) {
+				if (!intData.isNull(i)) {
+					keyToNr.addValue(intData.get(i), 1);
+				}
+			}
+			return keyToNr;
+		}).collect(Collectors.toList());
+		// Merge counts - replace partition counts by number
+		// of occurrences in preceding partitions.
+		IntIntMap keyToNr = HashIntIntMaps.newMutableMap();
+		for (IntIntMap partitionCount : partitionCounts) {
+			IntIntCursor partitionCursor = partitionCount.cursor();
+			while (partitionCursor.moveNext()) {
+				int key = partitionCursor.key();
+				int nrPrior = keyToNr.addValue(key, 
+						partitionCursor.value()) - partitionCursor.value();
+				partitionCursor.setValue(nrPrior);
+			}
 		}
-		// Check index if enabled
-		IndexChecker.checkIndex(intData, this);
+		// Assign each key to the appropriate position offset
+		nrKeys = keyToNr.size();
+		log("Number of keys:\t" + nrKeys);
+		keyToPositions = HashIntIntMaps.newMutableMap(nrKeys);
+		int nrPositions = nrKeys;
+		IntIntCursor keyToNrCursor = keyToNr.cursor();
+		while (keyToNrCursor.moveNext()) {
+			nrPositions += keyToNrCursor.value();
+		}
+		positions = new int[nrPositions];
+		int prefixSum = 0;
+		keyToNrCursor = keyToNr.cursor();
+		while (keyToNrCursor.moveNext()) {
+			keyToPositions.put(keyToNrCursor.key(), prefixSum);
+			positions[prefixSum] = keyToNrCursor.value();
+			prefixSum += keyToNrCursor.value() + 1;
+		}
+		log("Prefix sum:\t" + prefixSum);
+		// Insert rows (in parallel)
+		IntStream.range(0, nrPartitions).parallel().forEach(partCtr -> {
+			IntIntMap keyToNrPrior = partitionCounts.get(partCtr);
+			int startRow = (int)Math.min(cardinality, 
+					(long)partCtr * partitionSize);
+			int endRow = (int)Math.min(cardinality, 
+					(long)(partCtr+1) * partitionSize);
+			for (int i=startRow; i<endRow; ++i) {
+				if (!intData.isNull(i)) {
+					int key = intData.get(i);
+					int offset = keyToNrPrior.addValue(key, 1);
+					int pos = keyToPositions.get(key) + offset;
+					positions[pos] = i;
+				}
+			}
+		});
+	}
+	/**
+	 * Initializes index on given integer column from
+	 * previously created index data (e.g., read from disk).
+	 * 
+	 * @param intData		integer data that the index refers to
+	 * @param keyToPositions	maps keys to first position
+	 * @param positions			row numbers grouped by key
+	 */
+	public IntIndex(IntData intData, IntIntMap keyToPositions,
+			int[] positions) {
+		super(intData.cardinality);
+		this.intData = intData;
+		this.keyToPositions = keyToPositions;
+		this.positions = positions;
+		if (keyToPositions != null) {
+			this.nrKeys = keyToPositions.size();
+		}
+	}
+	/**
+	 * Returns position at which the number of rows
+	 * with given key is stored (followed by the rows)
+	 * or -1 if the key is not indexed.
+	 * 
+	 * @param key	search key
+	 * @return		first position for key or -1
+	 */
+	public int firstPos(int key) {
+		return keyToPositions.getOrDefault(key, -1);
 	}
 	/**
 	 * Returns index of next tuple with given value
@@ -94,7 +217,7 @@ public class IntIndex extends Index {
 	 */
 	public int nextTuple(int value, int prevTuple) {
 		// Get start position for indexed values
-		int firstPos = keyToPositions.getOrDefault(value, -1);
+		int firstPos = firstPos(value);
 		// No indexed values?
 		if (firstPos < 0) {
 			JoinStats.nrUniqueIndexLookups += 1;
@@ -140,7 +263,7 @@ public class IntIndex extends Index {
 	 * @return		number of indexed values
 	 */
 	public int nrIndexed(int value) {
-		int firstPos = keyToPositions.getOrDefault(value, -1);
+		int firstPos = firstPos(value);
 		if (firstPos<0) {
 			return 0;
 		} else {
@@ -0,0 +1,155 @@
+package indexing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import config.LoggingConfig;
+import data.IntData;
+
+/**
+ * Indexes integer values by sorting row indices by their
+ * value (rows with the same value are sorted by index).
+ * Used to find rows whose value falls into a given range
+ * via binary search.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class SortedIntIndex {
+	/**
+	 * Integer data that the index refers to.
+	 */
+	public final IntData intData;
+	/**
+	 * Indices of rows with non-null values, sorted by value.
+	 */
+	public final int[] sortedRows;
+	/**
+	 * Create sorted index on the given integer column. Derives
+	 * order from the given index on the same column if it is
+	 * direct-addressed (the index lists rows ordered by key).
+	 *
+	 * @param intData	integer data to index
+	 * @param index		index on same column or null
+	 */
+	public SortedIntIndex(IntData intData, Index index) {
+		long startMillis = System.currentTimeMillis();
+		this.intData = intData;
+		int cardinality = intData.cardinality;
+		if (index instanceof DenseIntIndex) {
+			// Skip fields storing number of rows per key
+			int[] positions = index.positions;
+			sortedRows = new int[positions.length - index.nrKeys()];
+			int rowCtr = 0;
+			for (int pos=0; pos<positions.length; pos+=positions[pos]+1) {
+				int nrRows = positions[pos];
+				System.arraycopy(positions, pos+1, sortedRows, rowCtr, nrRows);
+				rowCtr += nrRows;
+			}
+		} else {
+			// Sort values combined with row indices
+			long[] valuesAndRows = new long[cardinality];
+			int nrRows = 0;
+			for (int i=0; i<cardinality; ++i) {
+				if (!intData.isNull(i)) {
+					valuesAndRows[nrRows++] = ((long)intData.get(i) << 32) | i;
+				}
+			}
+			Arrays.parallelSort(valuesAndRows, 0, nrRows);
+			sortedRows = new int[nrRows];
+			for (int rowCtr=0; rowCtr<nrRows; ++rowCtr) {
+				sortedRows[rowCtr] = (int)valuesAndRows[rowCtr];
+			}
+		}
+		// Output statistics for performance tuning
+		if (LoggingConfig.INDEXING_VERBOSE) {
+			long totalMillis = System.currentTimeMillis() - startMillis;
+			System.out.println("Created sorted index for integer column " +
+					"with cardinality " + cardinality + " in " +
+					totalMillis + " ms.");
+		}
+	}
+	/**
+	 * Initializes sorted index on given integer column from
+	 * previously sorted row indices (e.g., read from disk).
+	 *
+	 * @param intData		integer data that the index refers to
+	 * @param sortedRows	indices of non-null rows sorted by value
+	 */
+	public SortedIntIndex(IntData intData, int[] sortedRows) {
+		this.intData = intData;
+		this.sortedRows = sortedRows;
+	}
+	/**
+	 * Returns first position in sorted rows whose value
+	 * is greater or equal to the given value.
+	 *
+	 * @param value	lower bound on value
+	 * @return		first position with value not below bound
+	 */
+	int lowerBound(long value) {
+		int lower = 0;
+		int upper = sortedRows.length;
+		while (lower < upper) {
+			int middle = (lower + upper) >>> 1;
+			if (intData.get(sortedRows[middle]) < value) {
+				lower = middle + 1;
+			} else {
+				upper = middle;
+			}
+		}
+		return lower;
+	}
+	/**
+	 * Returns number of rows whose value falls into
+	 * the given range (including both bounds).
+	 *
+	 * @param lower	lower bound on value
+	 * @param upper	upper bound on value
+	 * @return		number of rows in range
+	 */
+	public int nrInRange(long lower, long upper) {
+		if (lower > upper) {
+			return 0;
+		}
+		return lowerBound(upper + 1) - lowerBound(lower);
+	}
+	/**
+	 * Returns indices of rows whose value falls into the given
+	 * range (including both bounds) in ascending order. Uses a
+	 * bitmap to order rows if many rows are in range.
+	 *
+	 * @param lower	lower bound on value
+	 * @param upper	upper bound on value
+	 * @return		sorted list of row indices in range
+	 */
+	public List<Integer> rowsInRange(long lower, long upper) {
+		List<Integer> rows = new ArrayList<>();
+		if (lower > upper) {
+			return rows;
+		}
+		int startPos = lowerBound(lower);
+		int endPos = lowerBound(upper + 1);
+		int nrRows = endPos - startPos;
+		if (nrRows > intData.cardinality / 64) {
+			BitSet rowsInRange = new BitSet(intData.cardinality);
+			for (int pos=startPos; pos<endPos; ++pos) {
+				rowsInRange.set(sortedRows[pos]);
+			}
+			for (int row=rowsInRange.nextSetBit(0); row>=0;
+					row=rowsInRange.nextSetBit(row+1)) {
+				rows.add(row);
+			}
+		} else {
+			int[] rowsInRange = Arrays.copyOfRange(
+					sortedRows, startPos, endPos);
+			Arrays.sort(rowsInRange);
+			for (int row : rowsInRange) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+}
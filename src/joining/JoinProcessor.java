@@ -1,21 +1,32 @@
 package joining;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.List;
 
 import catalog.CatalogManager;
 import config.LoggingConfig;
 import config.NamingConfig;
 import config.JoinConfig;
+import config.JoinParallelism;
+import config.ParallelConfig;
 import joining.join.OldJoin;
-import joining.result.ResultTuple;
+import joining.parallel.DataParallelJoin;
+import joining.plan.CostBasedOptimizer;
+import joining.parallel.SearchParallelJoin;
+import joining.progress.ProgressTracker;
+import joining.result.AggregateResult;
+import joining.result.JoinResult;
+import joining.uct.CachedOrder;
 import joining.uct.ExplorationWeightPolicy;
+import joining.uct.JoinOrderCache;
 import joining.uct.SelectionPolicy;
 import joining.uct.UctNode;
 import operators.Materialize;
 import preprocessing.Context;
 import print.RelationPrinter;
+import query.AggregationType;
 import query.ColumnRef;
 import query.QueryInfo;
 import statistics.JoinStats;
@@ -50,20 +61,46 @@ public class JoinProcessor {
         JoinStats.nrIndexEntries = 0;
         JoinStats.nrUniqueIndexLookups = 0;
         JoinStats.nrIterations = 0;
-        JoinStats.nrUctNodes = 0;
+        JoinStats.nrUctNodes.set(0);
         JoinStats.nrPlansTried = 0;
+        JoinStats.nrPlansCompiled = 0;
         JoinStats.nrSamples = 0;
+        JoinStats.nrSamplesPerThread = new long[0];
+        JoinStats.avgBudget = 0;
+        JoinStats.lastBudget = 0;
+        JoinStats.nrCostBasedEpisodes = 0;
+        JoinStats.nrProgressNodes = 0;
+        JoinStats.nrProgressBytes = 0;
+        JoinStats.nrProgressEvictions = 0;
 		// Initialize logging for new query
 		nrLogEntries = 0;
+		// Use multiple join threads if activated
+		int nrThreads = ParallelConfig.JOIN_THREADS;
+		if (nrThreads > 1) {
+			JoinResult result = ParallelConfig.JOIN_PARALLELISM.equals(
+					JoinParallelism.SEARCH) ?
+					SearchParallelJoin.execute(query, context, nrThreads) :
+					DataParallelJoin.execute(query, context, nrThreads);
+			materialize(query, context, result);
+			JoinStats.joinMillis = System.currentTimeMillis() - startMillis;
+			return;
+		}
 		// Initialize multi-way join operator
 		/*
 		DefaultJoin joinOp = new DefaultJoin(query, preSummary, 
 				LearningConfig.BUDGET_PER_EPISODE);
 		*/
+		// Aggregate result tuples on the fly if possible
+		AggregateResult aggResult = JoinConfig.STREAM_AGGREGATES &&
+				AggregateResult.applicable(query) ?
+				new AggregateResult(query, context) : null;
 		OldJoin joinOp = new OldJoin(query, context, 
-				JoinConfig.BUDGET_PER_EPISODE);
-		// Initialize UCT join order search tree
+				JoinConfig.BUDGET_PER_EPISODE, null, aggResult);
+		// Initialize UCT join order search tree, using
+		// join orders learned for similar queries if any.
+		List<CachedOrder> cachedOrders = JoinOrderCache.lookup(query);
 		UctNode root = new UctNode(0, query, true, joinOp);
+		JoinOrderCache.warmStart(root, cachedOrders);
 		// Initialize counters and variables
 		int[] joinOrder = new int[query.nrJoined];
 		long roundCtr = 0;
@@ -102,9 +139,38 @@ public class JoinProcessor {
 		// Iterate until join result was generated
 		double accReward = 0;
 		double maxReward = Double.NEGATIVE_INFINITY;
-		while (!joinOp.isFinished()) {
+		int joinLimit = joinLimit(query);
+		// Alternate with traditional join order if activated,
+		// doubling the time per phase after each learning phase.
+		int[] costBasedOrder = JoinConfig.HYBRID ?
+				CostBasedOptimizer.optimize(query, context) : null;
+		log("Cost-based join order:\t" + Arrays.toString(costBasedOrder));
+		boolean costBasedPhase = costBasedOrder != null;
+		long phaseMillis = JoinConfig.HYBRID_START_MILLIS;
+		long phaseEndMillis = System.currentTimeMillis() + phaseMillis;
+		// Order executed in the last episode
+		int[] lastOrder = joinOrder;
+		while (!joinOp.isFinished() && 
+				(joinLimit < 0 || joinOp.result.size() < joinLimit)) {
+			if (costBasedOrder != null) {
+				long curMillis = System.currentTimeMillis();
+				if (curMillis >= phaseEndMillis) {
+					if (!costBasedPhase) {
+						phaseMillis *= 2;
+					}
+					costBasedPhase = !costBasedPhase;
+					phaseEndMillis = curMillis + phaseMillis;
+				}
+				if (costBasedPhase) {
+					joinOp.execute(costBasedOrder);
+					lastOrder = costBasedOrder;
+					++JoinStats.nrCostBasedEpisodes;
+					continue;
+				}
+			}
 			++roundCtr;
 			double reward = root.sample(roundCtr, joinOrder, policy);
+			lastOrder = joinOrder;
 			// Count reward except for final sample
 			if (!joinOp.isFinished()) {
 				accReward += reward;
@@ -130,6 +196,7 @@ public class JoinProcessor {
 			// Consider memory loss
 			if (JoinConfig.FORGET && roundCtr==nextForget) {
 				root = new UctNode(roundCtr, query, true, joinOp);
+				JoinOrderCache.warmStart(root, cachedOrders);
 				nextForget *= 10;
 			}
 			// Generate logging entries if activated
@@ -154,11 +221,15 @@ public class JoinProcessor {
 		}
 		// Update statistics
 		JoinStats.nrSamples = roundCtr;
-		JoinStats.avgReward = accReward/roundCtr;
-		JoinStats.maxReward = maxReward;
+		JoinStats.nrSamplesPerThread = new long[] {roundCtr};
+		updateBudgetStats(Arrays.asList(joinOp));
+		updateProgressStats(Arrays.asList(joinOp));
+		// No rewards are collected if the cost-based order finished
+		JoinStats.avgReward = roundCtr > 0 ? accReward/roundCtr : 0;
+		JoinStats.maxReward = roundCtr > 0 ? maxReward : 0;
 		JoinStats.totalWork = 0;
 		for (int tableCtr=0; tableCtr<query.nrJoined; ++tableCtr) {
-			if (tableCtr == joinOrder[0]) {
+			if (tableCtr == lastOrder[0]) {
 				JoinStats.totalWork += 1;
 			} else {
 				JoinStats.totalWork += Math.max(
@@ -176,12 +247,97 @@ public class JoinProcessor {
 			System.out.println("Table cards.:\t" +
 					Arrays.toString(joinOp.cardinalities));
 		}
-		// Materialize result table
-		Collection<ResultTuple> tuples = joinOp.result.getTuples();
-		int nrTuples = tuples.size();
+		// Materialize result table (one row per group if aggregated)
+		materialize(query, context, joinOp.result);
+		if (aggResult != null) {
+			aggResult.storeAggregates(context);
+			JoinStats.skinnerJoinCard = aggResult.nrAggregated;
+		}
+		// Measure execution time for join phase
+		JoinStats.joinMillis = System.currentTimeMillis() - startMillis;
+		// Store learned join orders for similar queries
+		JoinOrderCache.store(query, root);
+	}
+	/**
+	 * Returns the number of join result tuples after which
+	 * join processing can stop, based on the LIMIT clause.
+	 * This is only possible if post-processing neither sorts,
+	 * groups, nor aggregates (then any subset of result
+	 * tuples with the required size is a valid answer).
+	 * 
+	 * @param query	query being processed
+	 * @return		number of required result tuples or -1
+	 * 				if the complete join result is required
+	 */
+	public static int joinLimit(QueryInfo query) {
+		if (JoinConfig.PUSH_LIMIT && query.limit >= 0 &&
+				query.orderByExpressions.isEmpty() &&
+				query.groupByExpressions.isEmpty() &&
+				query.havingExpression == null &&
+				query.aggregationType.equals(AggregationType.NONE)) {
+			return query.limit;
+		} else {
+			return -1;
+		}
+	}
+	/**
+	 * Updates statistics on the number of steps per episode,
+	 * based on the given join operators (averages over all
+	 * operators for parallel join processing).
+	 * 
+	 * @param joinOps	join operators used to process query
+	 */
+	public static void updateBudgetStats(List<OldJoin> joinOps) {
+		long nrEpisodes = 0;
+		long budgetSum = 0;
+		long lastBudgetSum = 0;
+		for (OldJoin joinOp : joinOps) {
+			nrEpisodes += joinOp.nrEpisodes;
+			budgetSum += joinOp.budgetSum;
+			lastBudgetSum += joinOp.budget;
+		}
+		JoinStats.avgBudget = budgetSum / (double)Math.max(1, nrEpisodes);
+		JoinStats.lastBudget = (int)(lastBudgetSum / 
+				Math.max(1, joinOps.size()));
+	}
+	/**
+	 * Updates statistics on memory used by progress trackers
+	 * of the given join operators (trackers shared by multiple
+	 * operators are counted once).
+	 * 
+	 * @param joinOps	join operators used to process query
+	 */
+	public static void updateProgressStats(List<OldJoin> joinOps) {
+		List<ProgressTracker> trackers = new ArrayList<>();
+		for (OldJoin joinOp : joinOps) {
+			if (!trackers.contains(joinOp.tracker)) {
+				trackers.add(joinOp.tracker);
+			}
+		}
+		JoinStats.nrProgressNodes = 0;
+		JoinStats.nrProgressBytes = 0;
+		JoinStats.nrProgressEvictions = 0;
+		for (ProgressTracker tracker : trackers) {
+			JoinStats.nrProgressNodes += tracker.nrNodes();
+			JoinStats.nrProgressBytes += tracker.nrBytes();
+			JoinStats.nrProgressEvictions += tracker.nrEvictions;
+		}
+	}
+	/**
+	 * Materializes join result tuples into the join result
+	 * table and updates column mappings accordingly.
+	 * 
+	 * @param query		query being processed
+	 * @param context	query execution context
+	 * @param result	join result tuples to materialize
+	 * @throws Exception
+	 */
+	static void materialize(QueryInfo query, Context context, 
+			JoinResult result) throws Exception {
+		int nrTuples = result.size();
 		log("Materializing join result with " + nrTuples + " tuples ...");
 		String targetRelName = NamingConfig.JOINED_NAME;
-		Materialize.execute(tuples, query.aliasToIndex, 
+		Materialize.execute(result, query.aliasToIndex, 
 				query.colsForPostProcessing, 
 				context.columnMapping, targetRelName);
 		// Update processing context
@@ -194,8 +350,6 @@ public class JoinProcessor {
 		// Store number of join result tuples
 		JoinStats.skinnerJoinCard = CatalogManager.
 				getCardinality(NamingConfig.JOINED_NAME);
-		// Measure execution time for join phase
-		JoinStats.joinMillis = System.currentTimeMillis() - startMillis;
 	}
 	/**
 	 * Print out log entry if the maximal number of log
@@ -25,6 +25,10 @@ public class JoinDoubleWrapper extends JoinIndexWrapper {
 	 * Reference to next double index.
 	 */
 	final DoubleIndex nextDoubleIndex;
+	/**
+	 * Bit representation of key that was looked up last.
+	 */
+	long cursorKeyBits;
 	/**
 	 * Initializes wrapper providing access to double index
 	 * on column that appears in equi-join predicate.
@@ -44,14 +48,20 @@ public class JoinDoubleWrapper extends JoinIndexWrapper {
 	@Override
 	public int nextIndex(int[] tupleIndices) {
 		int priorTuple = tupleIndices[priorTable];
-		double priorVal = priorDoubleData.data[priorTuple];
-		int curTuple = tupleIndices[nextTable];
-		return nextDoubleIndex.nextTuple(priorVal, curTuple);
+		double priorVal = priorDoubleData.get(priorTuple);
+		// Look up key unless cursor refers to it
+		long priorBits = Double.doubleToLongBits(priorVal);
+		if (!cursorValid || priorBits != cursorKeyBits) {
+			cursorKeyBits = priorBits;
+			setCursor(nextDoubleIndex.keyToPositions.getOrDefault(
+					priorVal, -1));
+		}
+		return nextFromCursor(tupleIndices[nextTable]);
 	}
 	@Override
 	public int nrIndexed(int[] tupleIndices) {
 		int priorTuple = tupleIndices[priorTable];
-		double priorVal = priorDoubleData.data[priorTuple];
+		double priorVal = priorDoubleData.get(priorTuple);
 		return nextDoubleIndex.nrIndexed(priorVal);
 	}
 }
@@ -0,0 +1,65 @@
+package joining.join;
+
+import java.util.Set;
+
+import data.IntData;
+import indexing.IntHashIndex;
+import preprocessing.Context;
+import query.ColumnRef;
+import query.QueryInfo;
+
+/**
+ * Uses hash index on join column to identify next
+ * tuple to satisfy binary equality condition on
+ * two integer columns.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class JoinHashWrapper extends JoinIndexWrapper {
+	/**
+	 * Reference to prior integer column data.
+	 */
+	final IntData priorIntData;
+	/**
+	 * Reference to next hash index.
+	 */
+	final IntHashIndex nextHashIndex;
+	/**
+	 * Key that was looked up last.
+	 */
+	int cursorKey;
+	/**
+	 * Initializes wrapper providing access to hash index
+	 * on column that appears in equi-join predicate.
+	 *
+	 * @param queryInfo		query meta-data
+	 * @param preSummary	maps query columns to intermediate result columns
+	 * @param joinCols		pair of columns in equi-join predicate
+	 * @param order			join order
+	 */
+	public JoinHashWrapper(QueryInfo queryInfo,
+			Context preSummary, Set<ColumnRef> joinCols,
+			int[] order) throws Exception {
+		super(queryInfo, preSummary, joinCols, order);
+		priorIntData = (IntData)priorData;
+		nextHashIndex = (IntHashIndex)nextIndex;
+	}
+	@Override
+	public int nextIndex(int[] tupleIndices) {
+		int priorTuple = tupleIndices[priorTable];
+		int priorVal = priorIntData.get(priorTuple);
+		// Look up key unless cursor refers to it
+		if (!cursorValid || priorVal != cursorKey) {
+			cursorKey = priorVal;
+			setCursor(nextHashIndex.firstPos(priorVal));
+		}
+		return nextFromCursor(tupleIndices[nextTable]);
+	}
+	@Override
+	public int nrIndexed(int[] tupleIndices) {
+		int priorTuple = tupleIndices[priorTable];
+		int priorVal = priorIntData.get(priorTuple);
+		return nextHashIndex.nrIndexed(priorVal);
+	}
+}
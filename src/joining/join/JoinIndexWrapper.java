@@ -10,11 +10,15 @@ import indexing.Index;
 import preprocessing.Context;
 import query.ColumnRef;
 import query.QueryInfo;
+import statistics.JoinStats;
 
 /**
  * Uses index on join column to identify next
  * tuple to satisfy binary equality condition
- * on two columns.
+ * on two columns. Keeps a cursor into the row list
+ * of the key looked up last: repeated lookups for the
+ * same key skip the hash lookup and search forward
+ * from the previous position.
  * 
  * @author immanueltrummer
  *
@@ -38,6 +42,32 @@ public abstract class JoinIndexWrapper {
 	 * Index on join column to use.
 	 */
 	final Index nextIndex;
+	/**
+	 * Row lists associated with indexed values
+	 * (number of rows followed by the rows).
+	 */
+	final int[] positions;
+	/**
+	 * Cardinality of next table.
+	 */
+	final int nextCardinality;
+	/**
+	 * Whether the cursor refers to a valid key.
+	 */
+	boolean cursorValid = false;
+	/**
+	 * Position storing number of rows for the key looked
+	 * up last (-1 if that key is not indexed).
+	 */
+	int cursorFirstPos;
+	/**
+	 * Last position in row list of last key.
+	 */
+	int cursorLastPos;
+	/**
+	 * Position of the row returned by the last lookup.
+	 */
+	int cursorPos;
 	/**
 	 * Initialize index wrapper for
 	 * given query and join order.
@@ -71,6 +101,8 @@ public abstract class JoinIndexWrapper {
 		ColumnRef nextQueryCol = pos1<pos2?col2:col1;
 		ColumnRef nextDbCol = preSummary.columnMapping.get(nextQueryCol);
 		nextIndex = BufferManager.colToIndex.get(nextDbCol);
+		positions = nextIndex.positions;
+		nextCardinality = nextIndex.cardinality;
 		// Generate logging output
 		if (LoggingConfig.INDEX_WRAPPER_VERBOSE) {
 			System.out.println("Initialized join index wrapper: ");
@@ -82,6 +114,20 @@ public abstract class JoinIndexWrapper {
 			System.out.println("nextDBcol: " + nextDbCol);
 		}
 	}
+	/**
+	 * Initializes wrapper for the same prior and next
+	 * table and index as the given wrapper.
+	 * 
+	 * @param other	copy table and index information from here
+	 */
+	JoinIndexWrapper(JoinIndexWrapper other) {
+		priorTable = other.priorTable;
+		nextTable = other.nextTable;
+		priorData = other.priorData;
+		nextIndex = other.nextIndex;
+		positions = other.positions;
+		nextCardinality = other.nextCardinality;
+	}
 	/**
 	 * Extracts index of table in query column reference.
 	 * 
@@ -109,6 +155,71 @@ public abstract class JoinIndexWrapper {
 		}
 		return -1;
 	}
+	/**
+	 * Moves cursor to the row list starting at the given
+	 * position (after looking up a new key in the index).
+	 * 
+	 * @param firstPos	position storing number of rows or -1
+	 */
+	void setCursor(int firstPos) {
+		cursorValid = true;
+		cursorFirstPos = firstPos;
+		if (firstPos < 0) {
+			JoinStats.nrUniqueIndexLookups += 1;
+		} else {
+			int nrVals = positions[firstPos];
+			cursorLastPos = firstPos + nrVals;
+			cursorPos = firstPos + 1;
+			// Update index-related statistics
+			JoinStats.nrIndexEntries += nrVals;
+			if (nrVals == 1) {
+				JoinStats.nrUniqueIndexLookups += 1;
+			}
+		}
+	}
+	/**
+	 * Returns the first row in the row list of the current
+	 * cursor that is above the given tuple index, returns
+	 * the cardinality of the next table if there is no such
+	 * row. Uses galloping search, starting from the cursor
+	 * position (or from the first row if the tuple index
+	 * decreased since the last call), and updates the cursor.
+	 * 
+	 * @param curTuple	current tuple index in next table
+	 * @return			next row in list or cardinality
+	 */
+	int nextFromCursor(int curTuple) {
+		if (cursorFirstPos < 0) {
+			return nextCardinality;
+		}
+		int lowerBound = cursorPos;
+		if (lowerBound > cursorFirstPos + 1 && 
+				positions[lowerBound - 1] > curTuple) {
+			lowerBound = cursorFirstPos + 1;
+		}
+		// Double step size until passing the tuple index
+		int upperBound = lowerBound;
+		int step = 1;
+		while (upperBound <= cursorLastPos && 
+				positions[upperBound] <= curTuple) {
+			lowerBound = upperBound + 1;
+			upperBound += step;
+			step <<= 1;
+		}
+		upperBound = Math.min(upperBound, cursorLastPos + 1);
+		// Binary search for first row above tuple index
+		while (lowerBound < upperBound) {
+			int middle = lowerBound + (upperBound - lowerBound) / 2;
+			if (positions[middle] > curTuple) {
+				upperBound = middle;
+			} else {
+				lowerBound = middle + 1;
+			}
+		}
+		cursorPos = lowerBound;
+		return lowerBound <= cursorLastPos ? 
+				positions[lowerBound] : nextCardinality;
+	}
 	/**
 	 * Propose next index in next table that
 	 * satisfies equi-join condition with
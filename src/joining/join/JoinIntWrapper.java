@@ -3,10 +3,12 @@ package joining.join;
 import java.util.Set;
 
 import data.IntData;
+import indexing.DenseIntIndex;
 import indexing.IntIndex;
 import preprocessing.Context;
 import query.ColumnRef;
 import query.QueryInfo;
+import statistics.JoinStats;
 
 /**
  * Uses index on join column to identify next
@@ -25,6 +27,15 @@ public class JoinIntWrapper extends JoinIndexWrapper {
 	 * Reference to next integer index.
 	 */
 	final IntIndex nextIntIndex;
+	/**
+	 * Direct-addressed index on next table if each key
+	 * appears in one row only (null otherwise).
+	 */
+	final DenseIntIndex nextUniqueIndex;
+	/**
+	 * Key that was looked up last.
+	 */
+	int cursorKey;
 	/**
 	 * Initializes wrapper providing access to integer index
 	 * on column that appears in equi-join predicate.
@@ -40,18 +51,37 @@ public class JoinIntWrapper extends JoinIndexWrapper {
 		super(queryInfo, preSummary, joinCols, order);
 		priorIntData = (IntData)priorData;
 		nextIntIndex = (IntIndex)nextIndex;
+		nextUniqueIndex = nextIndex instanceof DenseIntIndex &&
+				((DenseIntIndex)nextIndex).unique ?
+						(DenseIntIndex)nextIndex : null;
 	}
 	@Override
 	public int nextIndex(int[] tupleIndices) {
 		int priorTuple = tupleIndices[priorTable];
-		int priorVal = priorIntData.data[priorTuple];
-		int curTuple = tupleIndices[nextTable];
-		return nextIntIndex.nextTuple(priorVal, curTuple);
+		int priorVal = priorIntData.get(priorTuple);
+		// Unique keys - read row directly
+		if (nextUniqueIndex != null) {
+			int firstPos = nextUniqueIndex.firstPos(priorVal);
+			JoinStats.nrUniqueIndexLookups += 1;
+			if (firstPos < 0) {
+				return nextCardinality;
+			}
+			JoinStats.nrIndexEntries += 1;
+			int nextRow = positions[firstPos + 1];
+			return nextRow > tupleIndices[nextTable] ?
+					nextRow : nextCardinality;
+		}
+		// Look up key unless cursor refers to it
+		if (!cursorValid || priorVal != cursorKey) {
+			cursorKey = priorVal;
+			setCursor(nextIntIndex.firstPos(priorVal));
+		}
+		return nextFromCursor(tupleIndices[nextTable]);
 	}
 	@Override
 	public int nrIndexed(int[] tupleIndices) {
 		int priorTuple = tupleIndices[priorTable];
-		int priorVal = priorIntData.data[priorTuple];
+		int priorVal = priorIntData.get(priorTuple);
 		return nextIntIndex.nrIndexed(priorVal);
 	}
 }
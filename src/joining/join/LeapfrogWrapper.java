@@ -0,0 +1,66 @@
+package joining.join;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Combines multiple join indices that propose tuples for
+ * the same table. Proposes tuples satisfying all associated
+ * equality join predicates by intersecting the sorted row
+ * lists in leapfrog fashion: each index in turn seeks to the
+ * first row at or after the current candidate until all
+ * indices agree on the candidate.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class LeapfrogWrapper extends JoinIndexWrapper {
+	/**
+	 * Indices to intersect (all referring to the same next table).
+	 */
+	final JoinIndexWrapper[] wrappers;
+	/**
+	 * Initializes wrapper intersecting given indices.
+	 * 
+	 * @param wrappers	join indices proposing tuples for same table
+	 */
+	public LeapfrogWrapper(List<JoinIndexWrapper> wrappers) {
+		super(wrappers.get(0));
+		this.wrappers = wrappers.toArray(new JoinIndexWrapper[0]);
+	}
+	@Override
+	public int nextIndex(int[] tupleIndices) {
+		int curTuple = tupleIndices[nextTable];
+		int nrWrappers = wrappers.length;
+		int candidate = wrappers[0].nextIndex(tupleIndices);
+		int nrAgreeing = 1;
+		int wrapperCtr = 1;
+		while (nrAgreeing < nrWrappers && candidate < nextCardinality) {
+			// Seek first row at or after candidate in next index
+			tupleIndices[nextTable] = candidate - 1;
+			int next = wrappers[wrapperCtr].nextIndex(tupleIndices);
+			if (next == candidate) {
+				++nrAgreeing;
+			} else {
+				candidate = next;
+				nrAgreeing = 1;
+			}
+			wrapperCtr = (wrapperCtr + 1) % nrWrappers;
+		}
+		tupleIndices[nextTable] = curTuple;
+		return candidate;
+	}
+	@Override
+	public int nrIndexed(int[] tupleIndices) {
+		int minIndexed = Integer.MAX_VALUE;
+		for (JoinIndexWrapper wrapper : wrappers) {
+			minIndexed = Math.min(minIndexed, 
+					wrapper.nrIndexed(tupleIndices));
+		}
+		return minIndexed;
+	}
+	@Override
+	public String toString() {
+		return "Leapfrog:\t" + Arrays.toString(wrappers);
+	}
+}
@@ -75,6 +75,19 @@ public abstract class MultiWayJoin {
      * @param preSummary	summarizes pre-processing steps
      */
     public MultiWayJoin(QueryInfo query, Context preSummary) throws Exception {
+    	this(query, preSummary, null);
+    }
+    /**
+     * Initializes join operator for given query, adding
+     * result tuples to the given join result.
+     * 
+     * @param query			query to process
+     * @param preSummary	summarizes pre-processing steps
+     * @param result		receives result tuples or null to
+     * 						initialize new join result
+     */
+    public MultiWayJoin(QueryInfo query, Context preSummary,
+    		JoinResult result) throws Exception {
         this.query = query;
         this.nrJoined = query.nrJoined;
         this.preSummary = preSummary;
@@ -88,7 +101,9 @@ public abstract class MultiWayJoin {
         	int cardinality = CatalogManager.getCardinality(table);
         	cardinalities[index] = cardinality;
         }
-        this.result = new JoinResult(nrJoined);
+        // Joins of a single table cannot produce duplicates
+        this.result = result != null ? result :
+        	new JoinResult(nrJoined, nrJoined > 1);
         // Compile predicates
         predToEval = new HashMap<>();
         for (ExpressionInfo predInfo : query.wherePredicates) {
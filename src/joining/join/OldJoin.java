@@ -5,23 +5,27 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import config.JoinConfig;
 import config.LoggingConfig;
 import config.PreConfig;
 import expressions.ExpressionInfo;
 import expressions.compilation.KnaryBoolEval;
+import joining.plan.CompiledPlan;
 import joining.plan.JoinOrder;
 import joining.plan.LeftDeepPlan;
 import joining.progress.ProgressTracker;
 import joining.progress.State;
+import joining.result.JoinResult;
 import preprocessing.Context;
 import query.QueryInfo;
 import statistics.JoinStats;
 
 public class OldJoin extends MultiWayJoin {
     /**
-     * Number of steps per episode.
+     * Number of steps per episode (adapted between
+     * episodes if timed episodes are activated).
      */
-    public final int budget;
+    public int budget;
     /**
      * Re-initialized in each invocation:
      * stores the remaining budget for
@@ -54,6 +58,33 @@ public class OldJoin extends MultiWayJoin {
      * Counts number of log entries made.
      */
     int logCtr = 0;
+    /**
+     * Number of episodes executed so far.
+     */
+    public long nrEpisodes = 0;
+    /**
+     * Sum of budgets over all episodes executed so far.
+     */
+    public long budgetSum = 0;
+    /**
+     * Maximal reward per nanosecond observed so far (used
+     * to normalize rewards if timed episodes are activated).
+     */
+    double maxRewardRate = 0;
+    /**
+     * Moving average of the fraction of episode time spent
+     * outside of join execution (planning, progress tracking).
+     */
+    double overheadShare = 0;
+    /**
+     * Moving average of the frequency at which the join order
+     * changes between consecutive episodes.
+     */
+    double switchRate = 1;
+    /**
+     * Join order used in last episode.
+     */
+    final int[] lastOrder;
     /**
      * Initializes join algorithm for given input query.
      * 
@@ -63,10 +94,40 @@ public class OldJoin extends MultiWayJoin {
      */
     public OldJoin(QueryInfo query, Context preSummary, 
     		int budget) throws Exception {
-        super(query, preSummary);
+    	this(query, preSummary, budget, null);
+    }
+    /**
+     * Initializes join algorithm for given input query,
+     * using the given tracker to store evaluation progress
+     * (the tracker may be shared with other join operators).
+     * 
+     * @param query			query to process
+     * @param preSummary	summary of pre-processing
+     * @param budget		budget per episode
+     * @param tracker		progress tracker or null to create new one
+     */
+    public OldJoin(QueryInfo query, Context preSummary, 
+    		int budget, ProgressTracker tracker) throws Exception {
+    	this(query, preSummary, budget, tracker, null);
+    }
+    /**
+     * Initializes join algorithm for given input query,
+     * adding result tuples to the given join result (e.g.,
+     * a result that aggregates tuples on the fly).
+     * 
+     * @param query			query to process
+     * @param preSummary	summary of pre-processing
+     * @param budget		budget per episode
+     * @param tracker		progress tracker or null to create new one
+     * @param result		receives result tuples or null for default
+     */
+    public OldJoin(QueryInfo query, Context preSummary, int budget, 
+    		ProgressTracker tracker, JoinResult result) throws Exception {
+        super(query, preSummary, result);
         this.budget = budget;
         this.planCache = new HashMap<>();
-        this.tracker = new ProgressTracker(nrJoined, cardinalities);
+        this.tracker = tracker != null ? tracker :
+        	new ProgressTracker(nrJoined, cardinalities);
         // Collect unary predicates
         this.unaryPreds = new KnaryBoolEval[nrJoined];
         for (ExpressionInfo unaryExpr : query.wherePredicates) {
@@ -79,8 +140,29 @@ public class OldJoin extends MultiWayJoin {
         	}
         }
         this.tupleIndexDelta = new int[nrJoined];
+        this.lastOrder = new int[nrJoined];
         log("preSummary before join: " + preSummary.toString());
     }
+    /**
+     * Initializes join algorithm that only considers a range
+     * of tuple indices for one of the joined tables. The join
+     * result is complete for that table partition.
+     * 
+     * @param query			query to process
+     * @param preSummary	summary of pre-processing
+     * @param budget		budget per episode
+     * @param partTable		index of partitioned table
+     * @param firstTuple	first tuple index in partition
+     * @param endTuple		first tuple index after partition
+     */
+    public OldJoin(QueryInfo query, Context preSummary, int budget,
+    		int partTable, int firstTuple, int endTuple) throws Exception {
+    	this(query, preSummary, budget);
+    	// Tuples after partition are treated as end of table
+    	cardinalities[partTable] = endTuple;
+    	// Tuples before partition are treated as processed
+    	tracker.tableOffset[partTable] = firstTuple;
+    }
     /**
      * Calculates reward for progress during one invocation.
      * 
@@ -104,6 +186,51 @@ public class OldJoin extends MultiWayJoin {
 		}
 		return 0.5*progress + 0.5*nrResultTuples/(double)budget;
 	}
+	/**
+	 * Normalizes reward by the time consumed by the episode,
+	 * such that join orders that progress faster per unit of
+	 * time obtain higher rewards (e.g., if they avoid costly
+	 * predicates). Rewards are scaled by the maximal rate
+	 * seen so far to remain between 0 and 1.
+	 * 
+	 * @param reward		progress-based reward for episode
+	 * @param episodeNanos	nanoseconds consumed by the episode
+	 * @return				time-normalized reward
+	 */
+	double timedReward(double reward, long episodeNanos) {
+		double rate = reward / Math.max(1, episodeNanos);
+		maxRewardRate = Math.max(maxRewardRate, rate);
+		return maxRewardRate > 0 ? rate / maxRewardRate : 0;
+	}
+	/**
+	 * Adapts the budget per episode after an episode: increases
+	 * budget if per-episode overheads dominate execution time,
+	 * decreases budget if the join order still changes often
+	 * (i.e., learning has not converged yet).
+	 * 
+	 * @param order			join order used in last episode
+	 * @param execNanos		nanoseconds spent executing join order
+	 * @param overheadNanos	nanoseconds spent for other tasks
+	 */
+	void adaptBudget(int[] order, long execNanos, long overheadNanos) {
+		// Update moving averages
+		double weight = JoinConfig.BUDGET_ADAPTATION_WEIGHT;
+		double curShare = overheadNanos / 
+				(double)Math.max(1, execNanos + overheadNanos);
+		overheadShare = (1-weight) * overheadShare + weight * curShare;
+		boolean switched = !Arrays.equals(order, lastOrder);
+		switchRate = (1-weight) * switchRate + weight * (switched ? 1 : 0);
+		System.arraycopy(order, 0, lastOrder, 0, nrJoined);
+		// Adapt budget
+		if (overheadShare > JoinConfig.MAX_OVERHEAD_SHARE) {
+			budget = Math.min(JoinConfig.MAX_BUDGET, budget * 2);
+			// Wait for new observations before next change
+			overheadShare = 0;
+		} else if (switchRate > JoinConfig.MAX_SWITCH_RATE) {
+			budget = Math.max(JoinConfig.MIN_BUDGET, budget / 2);
+			switchRate = JoinConfig.MAX_SWITCH_RATE;
+		}
+	}
     /**
      * Executes a given join order for a given budget of steps
      * (i.e., predicate evaluations). Result tuples are added
@@ -114,6 +241,7 @@ public class OldJoin extends MultiWayJoin {
      */
 	@Override
 	public double execute(int[] order) throws Exception {
+		long startNanos = JoinConfig.TIMED_EPISODES ? System.nanoTime() : 0;
     	log("Context:\t" + preSummary.toString());
     	log("Join order:\t" + Arrays.toString(order));
     	log("Aliases:\t" + Arrays.toString(query.aliases));
@@ -132,15 +260,33 @@ public class OldJoin extends MultiWayJoin {
             plan = new LeftDeepPlan(query, preSummary, predToEval, order);
             planCache.put(joinOrder, plan);
         }
+        // Generate specialized code for frequently used plans
+        ++plan.nrExecutions;
+        if (JoinConfig.COMPILE_PLANS && plan.compiledPlan == null && 
+        		plan.nrExecutions >= JoinConfig.COMPILATION_THRESHOLD) {
+        	plan.compile(cardinalities, unaryPreds);
+        }
         log(plan.toString());
         // Execute from starting state, save progress, return progress
         State state = tracker.continueFrom(joinOrder);
         //logger.println("Start state " + state);
         int[] offsets = tracker.tableOffset;
+        ++nrEpisodes;
+        budgetSum += budget;
+        long execStartNanos = JoinConfig.TIMED_EPISODES ? System.nanoTime() : 0;
         executeWithBudget(plan, state, offsets);
+        long execEndNanos = JoinConfig.TIMED_EPISODES ? System.nanoTime() : 0;
         double reward = reward(joinOrder.order, 
         		tupleIndexDelta, offsets);
         tracker.updateProgress(joinOrder, state);
+        // Normalize reward by time and adapt budget if activated
+        if (JoinConfig.TIMED_EPISODES) {
+        	long endNanos = System.nanoTime();
+        	long execNanos = execEndNanos - execStartNanos;
+        	long overheadNanos = endNanos - startNanos - execNanos;
+        	reward = timedReward(reward, endNanos - startNanos);
+        	adaptBudget(order, execNanos, overheadNanos);
+        }
         return reward;
 	}
 	/**
@@ -209,6 +355,16 @@ public class OldJoin extends MultiWayJoin {
         int remainingBudget = budget;
         // Number of completed tuples added
         nrResultTuples = 0;
+        // Use generated code if available
+        CompiledPlan compiledPlan = plan.compiledPlan;
+        if (compiledPlan != null) {
+        	joinIndex = compiledPlan.execute(tupleIndices, joinIndex, 
+        			remainingBudget, offsets, result);
+        	nrResultTuples = compiledPlan.nrResultTuples;
+        	JoinStats.nrTuples += compiledPlan.nrTuples;
+        	JoinStats.nrIterations += compiledPlan.nrIterations;
+        	remainingBudget = 0;
+        }
         // Execute join order until budget depleted or all input finished -
         // at each iteration start, tuple indices contain next tuple
         // combination to look at.
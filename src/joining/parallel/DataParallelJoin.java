@@ -0,0 +1,107 @@
+package joining.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import catalog.CatalogManager;
+import config.JoinConfig;
+import joining.JoinProcessor;
+import joining.join.OldJoin;
+import joining.result.JoinResult;
+import preprocessing.Context;
+import query.QueryInfo;
+import statistics.JoinStats;
+
+/**
+ * Executes the join phase on multiple threads by splitting
+ * the tuple range of the largest table into partitions.
+ * Each partition is joined by a separate worker with its
+ * own join operator, progress tracker, and UCT tree. The
+ * partial results are merged after all workers finish.
+ * 
+ * Join statistics that are counted by all workers (e.g.,
+ * the number of iterations) are approximate in this mode.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class DataParallelJoin {
+	/**
+	 * Returns index of the table with maximal cardinality
+	 * after pre-processing.
+	 * 
+	 * @param query		query to process
+	 * @param context	query processing context
+	 * @return			index of largest table
+	 */
+	static int largestTable(QueryInfo query, Context context) {
+		int maxTable = 0;
+		int maxCard = -1;
+		for (int tableCtr=0; tableCtr<query.nrJoined; ++tableCtr) {
+			String alias = query.aliases[tableCtr];
+			String table = context.aliasToFiltered.get(alias);
+			int card = CatalogManager.getCardinality(table);
+			if (card > maxCard) {
+				maxTable = tableCtr;
+				maxCard = card;
+			}
+		}
+		return maxTable;
+	}
+	/**
+	 * Executes join phase using given number of threads and
+	 * returns the merged join result.
+	 * 
+	 * @param query			query to process
+	 * @param context		query processing context
+	 * @param nrThreads		number of join threads
+	 * @return				complete join result
+	 * @throws Exception
+	 */
+	public static JoinResult execute(QueryInfo query, Context context, 
+			int nrThreads) throws Exception {
+		// Partition largest table - use at most one partition per tuple
+		int partTable = largestTable(query, context);
+		String partAlias = query.aliases[partTable];
+		int partCard = CatalogManager.getCardinality(
+				context.aliasToFiltered.get(partAlias));
+		int nrWorkers = Math.max(1, Math.min(nrThreads, partCard));
+		// Initialize one join operator per partition
+		List<JoinPartitionWorker> workers = new ArrayList<>();
+		for (int workerCtr=0; workerCtr<nrWorkers; ++workerCtr) {
+			int firstTuple = (int)((long)partCard * workerCtr / nrWorkers);
+			int endTuple = (int)((long)partCard * (workerCtr+1) / nrWorkers);
+			OldJoin joinOp = partCard == 0 ?
+					new OldJoin(query, context, JoinConfig.BUDGET_PER_EPISODE) :
+					new OldJoin(query, context, JoinConfig.BUDGET_PER_EPISODE, 
+							partTable, firstTuple, endTuple);
+			workers.add(new JoinPartitionWorker(query, joinOp));
+		}
+		// Join partitions in parallel
+		ExecutorService executor = Executors.newFixedThreadPool(nrWorkers);
+		JoinStats.nrSamplesPerThread = new long[nrWorkers];
+		try {
+			List<Future<Long>> futures = executor.invokeAll(workers);
+			for (int workerCtr=0; workerCtr<nrWorkers; ++workerCtr) {
+				long nrSamples = futures.get(workerCtr).get();
+				JoinStats.nrSamplesPerThread[workerCtr] = nrSamples;
+				JoinStats.nrSamples += nrSamples;
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// Merge partial results (partitions are disjoint)
+		JoinResult result = new JoinResult(query.nrJoined, false);
+		List<OldJoin> joinOps = new ArrayList<>();
+		for (JoinPartitionWorker worker : workers) {
+			result.addAll(worker.joinOp.result);
+			joinOps.add(worker.joinOp);
+		}
+		JoinProcessor.updateBudgetStats(joinOps);
+		JoinProcessor.updateProgressStats(joinOps);
+		return result;
+	}
+}
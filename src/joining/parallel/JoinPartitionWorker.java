@@ -0,0 +1,65 @@
+package joining.parallel;
+
+import java.util.concurrent.Callable;
+
+import config.JoinConfig;
+import joining.JoinProcessor;
+import joining.join.OldJoin;
+import joining.uct.UctNode;
+import query.QueryInfo;
+
+/**
+ * Joins one partition of the input data on a separate thread,
+ * using its own UCT search tree and its own join operator.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class JoinPartitionWorker implements Callable<Long> {
+	/**
+	 * The query whose join phase is executed.
+	 */
+	final QueryInfo query;
+	/**
+	 * Join operator restricted to the worker's partition -
+	 * contains partial join result after execution.
+	 */
+	final OldJoin joinOp;
+	/**
+	 * Initializes worker for given partition join operator.
+	 * 
+	 * @param query		query to process
+	 * @param joinOp	join operator restricted to one partition
+	 */
+	public JoinPartitionWorker(QueryInfo query, OldJoin joinOp) {
+		this.query = query;
+		this.joinOp = joinOp;
+	}
+	/**
+	 * Samples join orders via UCT until the join
+	 * result for the partition has been generated
+	 * (or until enough tuples satisfy the limit).
+	 * 
+	 * @return	number of UCT samples taken
+	 */
+	@Override
+	public Long call() throws Exception {
+		UctNode root = new UctNode(0, query, true, joinOp);
+		int[] joinOrder = new int[query.nrJoined];
+		long roundCtr = 0;
+		long nextForget = 1;
+		// Partitions are disjoint - each may have to cover limit
+		int joinLimit = JoinProcessor.joinLimit(query);
+		while (!joinOp.isFinished() && 
+				(joinLimit < 0 || joinOp.result.size() < joinLimit)) {
+			++roundCtr;
+			root.sample(roundCtr, joinOrder, JoinConfig.DEFAULT_SELECTION);
+			// Consider memory loss
+			if (JoinConfig.FORGET && roundCtr==nextForget) {
+				root = new UctNode(roundCtr, query, true, joinOp);
+				nextForget *= 10;
+			}
+		}
+		return roundCtr;
+	}
+}
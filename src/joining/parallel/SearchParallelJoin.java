@@ -0,0 +1,117 @@
+package joining.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import catalog.CatalogManager;
+import config.JoinConfig;
+import joining.JoinProcessor;
+import joining.join.OldJoin;
+import joining.result.JoinResult;
+import preprocessing.Context;
+import query.QueryInfo;
+import statistics.JoinStats;
+
+/**
+ * Executes the join phase on multiple threads that sample
+ * join orders from one shared UCT tree. Each thread executes
+ * episodes via its own join operator but all operators store
+ * evaluation progress in the same progress tracker. Join
+ * processing ends once any thread completes the result.
+ * 
+ * Join statistics that are counted by all threads (e.g.,
+ * the number of iterations) are approximate in this mode.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class SearchParallelJoin {
+	/**
+	 * Executes join phase using given number of threads and
+	 * returns the merged join result.
+	 * 
+	 * @param query			query to process
+	 * @param context		query processing context
+	 * @param nrThreads		number of join threads
+	 * @return				complete join result
+	 * @throws Exception
+	 */
+	public static JoinResult execute(QueryInfo query, Context context, 
+			int nrThreads) throws Exception {
+		// Initialize progress tracker shared by all threads
+		int nrTables = query.nrJoined;
+		int[] cardinalities = new int[nrTables];
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			String alias = query.aliases[tableCtr];
+			String table = context.aliasToFiltered.get(alias);
+			cardinalities[tableCtr] = CatalogManager.getCardinality(table);
+		}
+		SharedProgressTracker tracker = new SharedProgressTracker(
+				nrTables, cardinalities);
+		// Initialize one join operator per thread
+		List<OldJoin> joinOps = new ArrayList<>();
+		for (int threadCtr=0; threadCtr<nrThreads; ++threadCtr) {
+			joinOps.add(new OldJoin(query, context, 
+					JoinConfig.BUDGET_PER_EPISODE, tracker));
+		}
+		// Initialize shared UCT tree and round counters
+		AtomicReference<SharedUctNode> root = new AtomicReference<>(
+				new SharedUctNode(0, query, true));
+		AtomicLong roundCtr = new AtomicLong();
+		AtomicLong nextForget = new AtomicLong(1);
+		// Stop all threads once one has enough tuples for limit
+		int joinLimit = JoinProcessor.joinLimit(query);
+		AtomicBoolean limitReached = new AtomicBoolean(false);
+		List<Callable<Long>> threads = new ArrayList<>();
+		for (OldJoin joinOp : joinOps) {
+			threads.add(() -> {
+				int[] joinOrder = new int[nrTables];
+				long nrSamples = 0;
+				while (!tracker.isFinished && !limitReached.get()) {
+					long round = roundCtr.incrementAndGet();
+					++nrSamples;
+					root.get().sample(round, joinOrder, 
+							JoinConfig.DEFAULT_SELECTION, joinOp);
+					// Consider memory loss
+					long forget = nextForget.get();
+					if (JoinConfig.FORGET && round >= forget &&
+							nextForget.compareAndSet(forget, forget * 10)) {
+						root.set(new SharedUctNode(round, query, true));
+					}
+					if (joinLimit >= 0 && joinOp.result.size() >= joinLimit) {
+						limitReached.set(true);
+					}
+				}
+				return nrSamples;
+			});
+		}
+		// Sample join orders in parallel
+		ExecutorService executor = Executors.newFixedThreadPool(nrThreads);
+		JoinStats.nrSamplesPerThread = new long[nrThreads];
+		try {
+			List<Future<Long>> futures = executor.invokeAll(threads);
+			for (int threadCtr=0; threadCtr<nrThreads; ++threadCtr) {
+				long nrSamples = futures.get(threadCtr).get();
+				JoinStats.nrSamplesPerThread[threadCtr] = nrSamples;
+				JoinStats.nrSamples += nrSamples;
+			}
+		} finally {
+			executor.shutdown();
+		}
+		JoinProcessor.updateBudgetStats(joinOps);
+		JoinProcessor.updateProgressStats(joinOps);
+		// Merge results generated by different threads
+		JoinResult result = new JoinResult(nrTables);
+		for (OldJoin joinOp : joinOps) {
+			result.addAll(joinOp.result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,43 @@
+package joining.parallel;
+
+import joining.plan.JoinOrder;
+import joining.progress.ProgressTracker;
+import joining.progress.State;
+
+/**
+ * Progress tracker that is shared by multiple join threads.
+ * Each thread continues from a private copy of the stored
+ * state and integrates its final state after each episode.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class SharedProgressTracker extends ProgressTracker {
+	/**
+	 * Initializes progress tracking for given tables.
+	 * 
+	 * @param nrTables		number of tables joined
+	 * @param cardinalities	cardinality of each table
+	 */
+	public SharedProgressTracker(int nrTables, int[] cardinalities) {
+		super(nrTables, cardinalities);
+	}
+	/**
+	 * Integrates final state achieved by one of the threads. Once
+	 * one thread has finished, processing remains finished.
+	 */
+	@Override
+	public synchronized void updateProgress(JoinOrder joinOrder, State state) {
+		boolean wasFinished = isFinished;
+		super.updateProgress(joinOrder, state);
+		isFinished = wasFinished || isFinished;
+	}
+	/**
+	 * Returns a copy of the state from which to continue, so
+	 * that threads never modify the same state concurrently.
+	 */
+	@Override
+	public synchronized State continueFrom(JoinOrder joinOrder) {
+		return super.continueFrom(joinOrder).copy();
+	}
+}
@@ -0,0 +1,358 @@
+package joining.parallel;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import config.JoinConfig;
+import joining.join.MultiWayJoin;
+import joining.uct.SelectionPolicy;
+import joining.uct.UctNode;
+import query.QueryInfo;
+import statistics.JoinStats;
+
+/**
+ * Represents node in a UCT search tree that is sampled by
+ * multiple threads concurrently. Statistics are updated
+ * atomically. Selecting an action counts as a try before
+ * the reward is known (virtual loss) so that concurrent
+ * threads tend to explore different join orders.
+ * 
+ * @author immanueltrummer
+ *
+ */
+public class SharedUctNode {
+	/**
+	 * The query for which we are optimizing.
+	 */
+	final QueryInfo query;
+	/**
+	 * Iteration in which node was created.
+	 */
+	final long createdIn;
+	/**
+	 * Level of node in tree (root node has level 0).
+	 * At the same time the join order index into
+	 * which table selected in this node is inserted.
+	 */
+	public final int treeLevel;
+	/**
+	 * Number of possible actions from this state.
+	 */
+	public final int nrActions;
+	/**
+	 * Actions to try before applying the UCT formula in
+	 * random order - if the heuristic is used, this only
+	 * contains recommended actions.
+	 */
+	final int[] priorityActions;
+	/**
+	 * Number of priority actions handed out so far.
+	 */
+	final AtomicInteger nrPrioritySelected = new AtomicInteger();
+	/**
+	 * Assigns each action index to child node.
+	 */
+	final AtomicReferenceArray<SharedUctNode> childNodes;
+	/**
+	 * Number of times this node was visited.
+	 */
+	final AtomicInteger nrVisits = new AtomicInteger();
+	/**
+	 * Number of times each action was tried out
+	 * (including tries whose reward is pending).
+	 */
+	final AtomicIntegerArray nrTries;
+	/**
+	 * Reward accumulated for specific actions
+	 * (stored as raw bits of double values).
+	 */
+	final AtomicLongArray accumulatedReward;
+	/**
+	 * Total number of tables to join.
+	 */
+	final int nrTables;
+	/**
+	 * Bit mask of already joined tables (each UCT node represents
+	 * a state in which a subset of tables are joined).
+	 */
+	final long joinedTables;
+	/**
+	 * Associates each action index with a next table to join
+	 * (i.e., contains all tables that are not joined yet).
+	 */
+	public final int[] nextTable;
+	/**
+	 * Indicates whether the search space is restricted to
+	 * join orders that avoid Cartesian products.
+	 */
+	final boolean useHeuristic;
+	/**
+	 * Bit mask of actions that are consistent with the "avoid
+	 * Cartesian products" heuristic (contains all actions if
+	 * the heuristic is not used).
+	 */
+	final long recommendedActions;
+	/**
+	 * Initialize UCT root node.
+	 * 
+	 * @param roundCtr		current round number
+	 * @param query			the query which is optimized
+	 * @param useHeuristic	whether to avoid Cartesian products
+	 */
+	public SharedUctNode(long roundCtr, QueryInfo query, 
+			boolean useHeuristic) {
+		this(roundCtr, query, useHeuristic, 0, 0, allTables(query));
+	}
+	/**
+	 * Initializes UCT node by expanding parent node.
+	 * 
+	 * @param roundCtr		current round number
+	 * @param parent		parent node in UCT tree
+	 * @param joinedTable	new joined table
+	 */
+	SharedUctNode(long roundCtr, SharedUctNode parent, int joinedTable) {
+		this(roundCtr, parent.query, parent.useHeuristic, 
+				parent.treeLevel + 1, 
+				parent.joinedTables | (1L << joinedTable), 
+				withoutTable(parent.nextTable, joinedTable));
+	}
+	/**
+	 * Initializes UCT node for given set of joined tables.
+	 * 
+	 * @param roundCtr			current round number
+	 * @param query				the query which is optimized
+	 * @param useHeuristic		whether to avoid Cartesian products
+	 * @param treeLevel			level of node in tree
+	 * @param joinedTables		bit mask of tables joined before this node
+	 * @param unjoinedTables	tables that remain to be joined
+	 */
+	SharedUctNode(long roundCtr, QueryInfo query, boolean useHeuristic,
+			int treeLevel, long joinedTables, int[] unjoinedTables) {
+		// Count node generation
+		JoinStats.nrUctNodes.incrementAndGet();
+		this.query = query;
+		this.nrTables = query.nrJoined;
+		this.createdIn = roundCtr;
+		this.treeLevel = treeLevel;
+		this.useHeuristic = useHeuristic;
+		this.joinedTables = joinedTables;
+		this.nextTable = unjoinedTables;
+		nrActions = unjoinedTables.length;
+		childNodes = new AtomicReferenceArray<>(nrActions);
+		nrTries = new AtomicIntegerArray(nrActions);
+		accumulatedReward = new AtomicLongArray(nrActions);
+		// Calculate recommended actions if heuristic is activated
+		// (all actions are recommended in the root node).
+		long recommended = 0;
+		if (useHeuristic && treeLevel > 0) {
+			for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
+				if (query.connected(joinedTables, nextTable[actionCtr])) {
+					recommended |= 1L << actionCtr;
+				}
+			}
+		}
+		recommendedActions = recommended != 0 ?
+				recommended : UctNode.firstBits(nrActions);
+		// Collect untried actions in random order
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		priorityActions = new int[Long.bitCount(recommendedActions)];
+		int nrUntried = 0;
+		for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
+			if ((recommendedActions & (1L << actionCtr)) != 0) {
+				int swapPos = random.nextInt(nrUntried + 1);
+				priorityActions[nrUntried] = priorityActions[swapPos];
+				priorityActions[swapPos] = actionCtr;
+				++nrUntried;
+			}
+		}
+	}
+	/**
+	 * Returns array containing all query tables.
+	 * 
+	 * @param query	query to optimize
+	 * @return		array of table indices
+	 */
+	static int[] allTables(QueryInfo query) {
+		int[] tables = new int[query.nrJoined];
+		for (int tableCtr = 0; tableCtr < query.nrJoined; ++tableCtr) {
+			tables[tableCtr] = tableCtr;
+		}
+		return tables;
+	}
+	/**
+	 * Returns copy of table array without given table.
+	 * 
+	 * @param tables	array of tables
+	 * @param table		table to remove
+	 * @return			new table array
+	 */
+	static int[] withoutTable(int[] tables, int table) {
+		int[] result = new int[tables.length - 1];
+		int resultCtr = 0;
+		for (int otherTable : tables) {
+			if (otherTable != table) {
+				result[resultCtr++] = otherTable;
+			}
+		}
+		return result;
+	}
+	/**
+	 * Returns reward accumulated so far for given action.
+	 * 
+	 * @param action	action index
+	 * @return			accumulated reward
+	 */
+	double reward(int action) {
+		return Double.longBitsToDouble(accumulatedReward.get(action));
+	}
+	/**
+	 * Atomically adds reward for given action.
+	 * 
+	 * @param action	action index
+	 * @param reward	reward to add
+	 */
+	void addReward(int action, double reward) {
+		long oldBits;
+		long newBits;
+		do {
+			oldBits = accumulatedReward.get(action);
+			newBits = Double.doubleToRawLongBits(
+					Double.longBitsToDouble(oldBits) + reward);
+		} while (!accumulatedReward.compareAndSet(action, oldBits, newBits));
+	}
+	/**
+	 * Select most interesting action to try next.
+	 * 
+	 * @param policy	policy used to select action
+	 * @return index of action to try next
+	 */
+	int selectAction(SelectionPolicy policy) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		// Are there untried actions?
+		int priorityIndex = nrPrioritySelected.getAndIncrement();
+		if (priorityIndex < priorityActions.length) {
+			return priorityActions[priorityIndex];
+		}
+		// Apply UCT formula, starting from random offset
+		int offset = random.nextInt(nrActions);
+		int bestAction = -1;
+		double bestQuality = -1;
+		double logVisits = Math.log(nrVisits.get());
+		for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
+			int action = (offset + actionCtr) % nrActions;
+			if ((recommendedActions & (1L << action)) == 0) {
+				continue;
+			}
+			int tries = nrTries.get(action);
+			// Other threads may not have counted their try yet
+			if (tries == 0) {
+				return action;
+			}
+			double meanReward = reward(action) / tries;
+			double exploration = Math.sqrt(logVisits / tries);
+			double quality = -1;
+			switch (policy) {
+			case UCB1:
+				quality = meanReward + 
+					JoinConfig.EXPLORATION_WEIGHT * exploration;
+				break;
+			case MAX_REWARD:
+			case EPSILON_GREEDY:
+				quality = meanReward;
+				break;
+			case RANDOM:
+				quality = random.nextDouble();
+				break;
+			case RANDOM_UCB1:
+				if (treeLevel==0) {
+					quality = random.nextDouble();
+				} else {
+					quality = meanReward + 
+							JoinConfig.EXPLORATION_WEIGHT * exploration;
+				}
+				break;
+			}
+			if (quality > bestQuality) {
+				bestAction = action;
+				bestQuality = quality;
+			}
+		}
+		// For epsilon greedy, return random action with
+		// probability epsilon.
+		if (policy.equals(SelectionPolicy.EPSILON_GREEDY)) {
+			if (random.nextDouble()<=JoinConfig.EPSILON) {
+				return random.nextInt(nrActions);
+			}
+		}
+		return bestAction;
+	}
+	/**
+	 * Randomly complete join order with remaining tables,
+	 * invoke evaluation, and return obtained reward.
+	 * 
+	 * @param joinOrder	partially completed join order
+	 * @param joinOp	join operator of calling thread
+	 * @return obtained reward
+	 */
+	double playout(int[] joinOrder, MultiWayJoin joinOp) throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int lastTable = joinOrder[treeLevel];
+		long newlyJoined = joinedTables | (1L << lastTable);
+		long unjoined = ~newlyJoined & UctNode.firstBits(nrTables);
+		for (int posCtr = treeLevel + 1; posCtr < nrTables; ++posCtr) {
+			long candidates = unjoined;
+			// Prefer tables connected to joined ones if heuristic is used
+			if (useHeuristic) {
+				long connected = UctNode.connectedTables(
+						query, newlyJoined, unjoined);
+				if (connected != 0) {
+					candidates = connected;
+				}
+			}
+			int nextTable = UctNode.nthTable(candidates,
+					random.nextInt(Long.bitCount(candidates)));
+			joinOrder[posCtr] = nextTable;
+			newlyJoined |= 1L << nextTable;
+			unjoined &= ~(1L << nextTable);
+		}
+		return joinOp.execute(joinOrder);
+	}
+	/**
+	 * Recursively sample from UCT tree and return reward.
+	 * 
+	 * @param roundCtr	current round (used as timestamp for expansion)
+	 * @param joinOrder	partially completed join order
+	 * @param policy	policy used to select actions
+	 * @param joinOp	join operator of calling thread
+	 * @return achieved reward
+	 */
+	public double sample(long roundCtr, int[] joinOrder, 
+			SelectionPolicy policy, MultiWayJoin joinOp) throws Exception {
+		// Check if this is a (non-extendible) leaf node
+		if (nrActions == 0) {
+			return joinOp.execute(joinOrder);
+		}
+		// Select action and count try before evaluation
+		int action = selectAction(policy);
+		nrVisits.incrementAndGet();
+		nrTries.incrementAndGet(action);
+		int table = nextTable[action];
+		joinOrder[treeLevel] = table;
+		// Grow tree if possible (only one thread creates child)
+		boolean canExpand = createdIn != roundCtr;
+		if (childNodes.get(action) == null && canExpand) {
+			childNodes.compareAndSet(action, null, 
+					new SharedUctNode(roundCtr, this, table));
+		}
+		// Evaluate via recursive invocation or via playout
+		SharedUctNode child = childNodes.get(action);
+		double reward = (child != null) ?
+				child.sample(roundCtr, joinOrder, policy, joinOp):
+					playout(joinOrder, joinOp);
+		addReward(action, reward);
+		return reward;
+	}
+}
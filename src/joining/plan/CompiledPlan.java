@@ -0,0 +1,66 @@
+package joining.plan;
+
+import expressions.compilation.KnaryBoolEval;
+import joining.join.JoinIndexWrapper;
+import joining.result.JoinResult;
+
+/**
+ * Base class of generated classes that execute one specific
+ * left-deep plan for a bounded number of steps. Sub-classes
+ * are generated by the plan compiler and hard-code the join
+ * order, table cardinalities, as well as the predicates and
+ * join indices applicable at each join order position.
+ *
+ * @author immanueltrummer
+ *
+ */
+public abstract class CompiledPlan {
+	/**
+	 * Predicates to evaluate, ordered by the join order
+	 * position at which they are evaluated.
+	 */
+	public final KnaryBoolEval[] preds;
+	/**
+	 * Join indices to use, ordered by the join order
+	 * position at which they are used.
+	 */
+	public final JoinIndexWrapper[] indices;
+	/**
+	 * Number of completed result tuples produced
+	 * during the last invocation.
+	 */
+	public int nrResultTuples;
+	/**
+	 * Number of tuple combinations satisfying all
+	 * applicable predicates during last invocation.
+	 */
+	public int nrTuples;
+	/**
+	 * Number of main loop iterations during last invocation.
+	 */
+	public int nrIterations;
+	/**
+	 * Initializes predicates and indices used by generated code.
+	 *
+	 * @param preds		predicates in order of evaluation
+	 * @param indices	join indices in order of usage
+	 */
+	public CompiledPlan(KnaryBoolEval[] preds, JoinIndexWrapper[] indices) {
+		this.preds = preds;
+		this.indices = indices;
+	}
+	/**
+	 * Executes plan for given number of steps, starting from given
+	 * tuple indices. Completed result tuples are added to the result
+	 * and tuple indices are updated to reflect the final state.
+	 *
+	 * @param tupleIndices	current tuple index for each table (updated)
+	 * @param joinIndex		current position in join order
+	 * @param budget		maximal number of steps
+	 * @param offsets		last fully treated index for each table
+	 * @param result		collects completed result tuples
+	 * @return				join order position in final state
+	 */
+	public abstract int execute(int[] tupleIndices, int joinIndex,
+			int budget, int[] offsets, JoinResult result);
+}
@@ -0,0 +1,216 @@
+package joining.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import buffer.BufferManager;
+import catalog.CatalogManager;
+import config.JoinConfig;
+import expressions.ExpressionInfo;
+import indexing.Index;
+import preprocessing.Context;
+import query.ColumnRef;
+import query.QueryInfo;
+
+/**
+ * Traditional query optimizer that selects a left-deep join
+ * order minimizing the sum of estimated intermediate result
+ * sizes, using dynamic programming over table subsets (or a
+ * greedy heuristic for queries with many tables). Estimates
+ * are based on the cardinality of filtered tables and on the
+ * number of distinct values in join columns (taken from join
+ * indices), assuming independence between predicates.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class CostBasedOptimizer {
+	/**
+	 * Default selectivity of join predicates that are
+	 * not equality predicates between two columns.
+	 */
+	static final double DEFAULT_SELECTIVITY = 1.0/3;
+	/**
+	 * Calculates a left-deep join order for the given query.
+	 *
+	 * @param query		query to optimize
+	 * @param context	maps query columns to filtered columns
+	 * @return			join order as array of table indices
+	 * @throws Exception
+	 */
+	public static int[] optimize(QueryInfo query,
+			Context context) throws Exception {
+		int nrTables = query.nrJoined;
+		// Retrieve cardinalities of filtered tables
+		double[] cardinalities = new double[nrTables];
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			String alias = query.aliases[tableCtr];
+			String filtered = context.aliasToFiltered.get(alias);
+			cardinalities[tableCtr] = CatalogManager.getCardinality(filtered);
+		}
+		// Collect join predicates with associated selectivity
+		List<Long> predMasks = new ArrayList<>();
+		List<Double> predSelectivities = new ArrayList<>();
+		for (ExpressionInfo pred : query.equiJoinPreds) {
+			predMasks.add(tableMask(query, pred));
+			predSelectivities.add(equiSelectivity(
+					query, context, pred, cardinalities));
+		}
+		for (ExpressionInfo pred : query.nonEquiJoinPreds) {
+			predMasks.add(tableMask(query, pred));
+			predSelectivities.add(DEFAULT_SELECTIVITY);
+		}
+		long[] masks = predMasks.stream().mapToLong(m -> m).toArray();
+		double[] selectivities = predSelectivities.stream().
+				mapToDouble(s -> s).toArray();
+		return nrTables <= JoinConfig.MAX_DP_TABLES ?
+				dynamicProgramming(cardinalities, masks, selectivities) :
+					greedy(cardinalities, masks, selectivities);
+	}
+	/**
+	 * Returns bit mask of tables mentioned in given predicate.
+	 *
+	 * @param query	query containing predicate
+	 * @param pred	join predicate
+	 * @return		bit mask of table indices
+	 */
+	static long tableMask(QueryInfo query, ExpressionInfo pred) {
+		long mask = 0;
+		for (String alias : pred.aliasesMentioned) {
+			mask |= 1L << query.aliasToIndex.get(alias);
+		}
+		return mask;
+	}
+	/**
+	 * Estimates selectivity of an equality join predicate as
+	 * the inverse of the maximal number of distinct values in
+	 * the joined columns. If no index is available to determine
+	 * distinct values, the column is assumed to be a key.
+	 *
+	 * @param query			query containing predicate
+	 * @param context		maps query columns to filtered columns
+	 * @param pred			equality join predicate
+	 * @param cardinalities	cardinality of filtered tables
+	 * @return				estimated selectivity
+	 */
+	static double equiSelectivity(QueryInfo query, Context context,
+			ExpressionInfo pred, double[] cardinalities) {
+		double maxDistinct = 1;
+		for (ColumnRef queryRef : pred.columnsMentioned) {
+			ColumnRef dbRef = context.columnMapping.get(queryRef);
+			Index index = BufferManager.colToIndex.get(dbRef);
+			double distinct = index != null ? index.nrKeys() :
+				cardinalities[query.aliasToIndex.get(queryRef.aliasName)];
+			maxDistinct = Math.max(maxDistinct, distinct);
+		}
+		return 1.0 / maxDistinct;
+	}
+	/**
+	 * Estimates cardinality after joining given table to
+	 * a set of tables with given cardinality.
+	 *
+	 * @param priorCard		cardinality of prior join result
+	 * @param priorMask		bit mask of previously joined tables
+	 * @param table			index of newly joined table
+	 * @param cardinalities	cardinality of filtered tables
+	 * @param masks			table masks of join predicates
+	 * @param selectivities	selectivities of join predicates
+	 * @return				estimated join result cardinality
+	 */
+	static double joinCard(double priorCard, long priorMask, int table,
+			double[] cardinalities, long[] masks, double[] selectivities) {
+		long tableBit = 1L << table;
+		long newMask = priorMask | tableBit;
+		double card = priorCard * cardinalities[table];
+		for (int predCtr=0; predCtr<masks.length; ++predCtr) {
+			long mask = masks[predCtr];
+			// Apply predicates that become evaluable
+			if ((mask & tableBit) != 0 && (mask & ~newMask) == 0) {
+				card *= selectivities[predCtr];
+			}
+		}
+		return card;
+	}
+	/**
+	 * Finds left-deep join order minimizing the sum of
+	 * intermediate result sizes via dynamic programming.
+	 *
+	 * @param cardinalities	cardinality of filtered tables
+	 * @param masks			table masks of join predicates
+	 * @param selectivities	selectivities of join predicates
+	 * @return				optimal join order
+	 */
+	static int[] dynamicProgramming(double[] cardinalities,
+			long[] masks, double[] selectivities) {
+		int nrTables = cardinalities.length;
+		int nrSubsets = 1 << nrTables;
+		double[] subsetCard = new double[nrSubsets];
+		double[] subsetCost = new double[nrSubsets];
+		int[] lastTable = new int[nrSubsets];
+		Arrays.fill(subsetCost, Double.POSITIVE_INFINITY);
+		subsetCard[0] = 1;
+		subsetCost[0] = 0;
+		for (int subset=1; subset<nrSubsets; ++subset) {
+			// Cardinality does not depend on join order
+			int anyTable = Integer.numberOfTrailingZeros(subset);
+			int anyPrior = subset & ~(1 << anyTable);
+			subsetCard[subset] = joinCard(subsetCard[anyPrior], anyPrior,
+					anyTable, cardinalities, masks, selectivities);
+			// Select best table to join last
+			for (int table=0; table<nrTables; ++table) {
+				if ((subset & (1 << table)) != 0) {
+					int prior = subset & ~(1 << table);
+					double cost = subsetCost[prior] + subsetCard[subset];
+					if (cost < subsetCost[subset]) {
+						subsetCost[subset] = cost;
+						lastTable[subset] = table;
+					}
+				}
+			}
+		}
+		// Reconstruct optimal join order
+		int[] order = new int[nrTables];
+		int subset = nrSubsets - 1;
+		for (int pos=nrTables-1; pos>=0; --pos) {
+			order[pos] = lastTable[subset];
+			subset &= ~(1 << order[pos]);
+		}
+		return order;
+	}
+	/**
+	 * Builds left-deep join order by starting from the
+	 * smallest table and adding in each step the table
+	 * that minimizes the next intermediate result size.
+	 *
+	 * @param cardinalities	cardinality of filtered tables
+	 * @param masks			table masks of join predicates
+	 * @param selectivities	selectivities of join predicates
+	 * @return				join order
+	 */
+	static int[] greedy(double[] cardinalities,
+			long[] masks, double[] selectivities) {
+		int nrTables = cardinalities.length;
+		int[] order = new int[nrTables];
+		long joined = 0;
+		double card = 1;
+		for (int pos=0; pos<nrTables; ++pos) {
+			int bestTable = -1;
+			double bestCard = Double.POSITIVE_INFINITY;
+			for (int table=0; table<nrTables; ++table) {
+				if ((joined & (1L << table)) == 0) {
+					double newCard = joinCard(card, joined, table,
+							cardinalities, masks, selectivities);
+					if (bestTable < 0 || newCard < bestCard) {
+						bestTable = table;
+						bestCard = newCard;
+					}
+				}
+			}
+			order[pos] = bestTable;
+			joined |= 1L << bestTable;
+			card = bestCard;
+		}
+		return order;
+	}
+}
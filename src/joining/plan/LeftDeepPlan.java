@@ -2,13 +2,19 @@ package joining.plan;
 
 import java.util.*;
 
+import buffer.BufferManager;
 import catalog.CatalogManager;
 import catalog.info.ColumnInfo;
+import config.JoinConfig;
 import expressions.ExpressionInfo;
 import expressions.compilation.KnaryBoolEval;
+import indexing.Index;
+import indexing.IntHashIndex;
 import joining.join.JoinDoubleWrapper;
+import joining.join.JoinHashWrapper;
 import joining.join.JoinIndexWrapper;
 import joining.join.JoinIntWrapper;
+import joining.join.LeapfrogWrapper;
 import net.sf.jsqlparser.expression.Expression;
 import preprocessing.Context;
 import query.ColumnRef;
@@ -41,6 +47,15 @@ public class LeftDeepPlan {
 	 * predicates (null if no new predicate is applicable).
 	 */
 	public final List<List<KnaryBoolEval>> applicablePreds;
+	/**
+	 * Number of episodes in which this plan was executed.
+	 */
+	public int nrExecutions = 0;
+	/**
+	 * Generated code executing this plan or null
+	 * if the plan has not been compiled yet.
+	 */
+	public CompiledPlan compiledPlan = null;
 	/**
 	 * Determines the join order positions at which to
 	 * evaluate specific equality and other predicates.
@@ -92,8 +107,15 @@ public class LeftDeepPlan {
 					ColumnInfo firstInfo = CatalogManager.getColumn(firstDBref);
 					switch (TypeUtil.toJavaType(firstInfo.type)) {
 					case INT:
-						joinIndices.get(joinCtr).add(new JoinIntWrapper(
-								query, preSummary, joinCols, order));
+						// Use hash index if created for next table
+						if (nextIndex(query, preSummary, joinCols, 
+								nextTable) instanceof IntHashIndex) {
+							joinIndices.get(joinCtr).add(new JoinHashWrapper(
+									query, preSummary, joinCols, order));
+						} else {
+							joinIndices.get(joinCtr).add(new JoinIntWrapper(
+									query, preSummary, joinCols, order));
+						}
 						break;
 					case DOUBLE:
 						joinIndices.get(joinCtr).add(new JoinDoubleWrapper(
@@ -107,6 +129,13 @@ public class LeftDeepPlan {
 					equiPredsIter.remove();
 				}
 			}
+			// Intersect multiple indices for same table if activated
+			if (JoinConfig.LEAPFROG && joinIndices.get(joinCtr).size()>1) {
+				JoinIndexWrapper leapfrog = new LeapfrogWrapper(
+						joinIndices.get(joinCtr));
+				joinIndices.set(joinCtr, new ArrayList<>());
+				joinIndices.get(joinCtr).add(leapfrog);
+			}
 			// Iterate over remaining other predicates
 			Iterator<ExpressionInfo> generalPredsIter = 
 					remainingPreds.iterator();
@@ -122,6 +151,39 @@ public class LeftDeepPlan {
 			}
 		} // over join positions
 	}
+	/**
+	 * Returns index on the join column of the given table
+	 * that appears in an equality join predicate.
+	 * 
+	 * @param query			query to process
+	 * @param preSummary	summarizes pre-processing
+	 * @param joinCols		columns in equality join predicate
+	 * @param nextTable		index of table added last
+	 * @return				index on join column of that table
+	 */
+	static Index nextIndex(QueryInfo query, Context preSummary, 
+			Set<ColumnRef> joinCols, int nextTable) {
+		for (ColumnRef queryRef : joinCols) {
+			if (query.aliasToIndex.get(queryRef.aliasName) == nextTable) {
+				ColumnRef dbRef = preSummary.columnMapping.get(queryRef);
+				return BufferManager.colToIndex.get(dbRef);
+			}
+		}
+		return null;
+	}
+	/**
+	 * Generates code executing this plan that is specialized
+	 * for the join order and for the given cardinalities.
+	 * 
+	 * @param cardinalities	cardinality of each joined table
+	 * @param unaryPreds	unary predicate for each table (or null)
+	 * @throws Exception
+	 */
+	public void compile(int[] cardinalities, 
+			KnaryBoolEval[] unaryPreds) throws Exception {
+		++JoinStats.nrPlansCompiled;
+		compiledPlan = PlanCompiler.compile(this, cardinalities, unaryPreds);
+	}
 	@Override
 	public String toString() {
 		return "Join indices:\t" + joinIndices.toString() + System.lineSeparator() +
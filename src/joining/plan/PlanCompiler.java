@@ -0,0 +1,341 @@
+package joining.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import config.LoggingConfig;
+import config.PreConfig;
+import expressions.compilation.DynamicClassLoader;
+import expressions.compilation.ExpressionCompiler;
+import expressions.compilation.KnaryBoolEval;
+import joining.join.JoinIndexWrapper;
+
+/**
+ * Generates byte code executing one specific left-deep plan.
+ * The generated code specializes the join loop of the old
+ * join operator for a fixed join order: each join order
+ * position obtains its own code block in which table indices,
+ * cardinalities, predicates, and index lookups are fixed.
+ * This avoids list accesses and loops over predicates and
+ * indices, and it makes calls to predicate evaluators and
+ * join indices monomorphic per position.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class PlanCompiler {
+	/**
+	 * Used for generating unique class names for compiled
+	 * plans. Is incremented by one after each compilation.
+	 */
+	static int planID = -1;
+	/**
+	 * Internal name of the base class of generated classes.
+	 */
+	static final String BASE_CLASS = "joining/plan/CompiledPlan";
+	/**
+	 * Descriptor of the generated execution method.
+	 */
+	static final String EXECUTE_DESC =
+			"([III[ILjoining/result/JoinResult;)I";
+	/*
+	 * Local variable slots used by the execution method.
+	 */
+	static final int TUPLES_VAR = 1;
+	static final int JOIN_INDEX_VAR = 2;
+	static final int BUDGET_VAR = 3;
+	static final int OFFSETS_VAR = 4;
+	static final int RESULT_VAR = 5;
+	static final int PREDS_VAR = 6;
+	static final int INDICES_VAR = 7;
+	static final int NR_RESULTS_VAR = 8;
+	static final int NR_TUPLES_VAR = 9;
+	static final int NR_ITERATIONS_VAR = 10;
+	static final int NEXT_VAR = 11;
+	static final int MAX_VAR = 12;
+	/**
+	 * Generates a class executing the given plan and returns
+	 * an instance of that class.
+	 *
+	 * @param plan			left-deep plan to compile
+	 * @param cardinalities	cardinality of each joined table
+	 * @param unaryPreds	unary predicate for each table (or null)
+	 * @return				instance of generated class
+	 * @throws Exception
+	 */
+	public static CompiledPlan compile(LeftDeepPlan plan,
+			int[] cardinalities, KnaryBoolEval[] unaryPreds)
+					throws Exception {
+		int[] order = plan.joinOrder.order;
+		int nrTables = order.length;
+		// Collect predicates and indices in order of usage
+		List<KnaryBoolEval> preds = new ArrayList<>();
+		List<JoinIndexWrapper> indices = new ArrayList<>();
+		int[] firstPred = new int[nrTables + 1];
+		int[] firstIndex = new int[nrTables + 1];
+		for (int joinCtr=0; joinCtr<nrTables; ++joinCtr) {
+			firstPred[joinCtr] = preds.size();
+			firstIndex[joinCtr] = indices.size();
+			KnaryBoolEval unaryPred = unaryPreds[order[joinCtr]];
+			if (!PreConfig.PRE_FILTER && unaryPred != null) {
+				preds.add(unaryPred);
+			}
+			preds.addAll(plan.applicablePreds.get(joinCtr));
+			indices.addAll(plan.joinIndices.get(joinCtr));
+		}
+		firstPred[nrTables] = preds.size();
+		firstIndex[nrTables] = indices.size();
+		// Generate class header and constructor
+		++planID;
+		String className = "CompiledPlan" + planID;
+		String classAndPackage = "joining/plan/" + className;
+		ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+		classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC,
+				classAndPackage, null, BASE_CLASS, null);
+		String constructorDesc = "([Lexpressions/compilation/KnaryBoolEval;"
+				+ "[Ljoining/join/JoinIndexWrapper;)V";
+		MethodVisitor constructor = classWriter.visitMethod(
+				Opcodes.ACC_PUBLIC, "<init>", constructorDesc, null, null);
+		constructor.visitCode();
+		constructor.visitVarInsn(Opcodes.ALOAD, 0);
+		constructor.visitVarInsn(Opcodes.ALOAD, 1);
+		constructor.visitVarInsn(Opcodes.ALOAD, 2);
+		constructor.visitMethodInsn(Opcodes.INVOKESPECIAL,
+				BASE_CLASS, "<init>", constructorDesc, false);
+		constructor.visitInsn(Opcodes.RETURN);
+		constructor.visitMaxs(-1, -1);
+		constructor.visitEnd();
+		// Generate execution method
+		MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC,
+				"execute", EXECUTE_DESC, null, null);
+		method.visitCode();
+		generateExecute(method, order, cardinalities,
+				firstPred, firstIndex);
+		method.visitMaxs(-1, -1);
+		method.visitEnd();
+		classWriter.visitEnd();
+		// Print out generated bytecode
+		if (LoggingConfig.COMPILATION_VERBOSE) {
+			ExpressionCompiler.outputBytecode(classWriter);
+		}
+		// Create instance of freshly generated class
+		DynamicClassLoader loader = new DynamicClassLoader();
+		Class<?> planClass = loader.defineClass(
+				"joining.plan." + className, classWriter.toByteArray());
+		return (CompiledPlan)planClass.getConstructor(
+				KnaryBoolEval[].class, JoinIndexWrapper[].class).newInstance(
+						preds.toArray(new KnaryBoolEval[0]),
+						indices.toArray(new JoinIndexWrapper[0]));
+	}
+	/**
+	 * Writes body of execution method. At the start of each
+	 * main loop iteration, tuple indices contain the next
+	 * tuple combination to look at.
+	 *
+	 * @param method		writes execution method
+	 * @param order			join order to compile
+	 * @param cardinalities	cardinality of each table
+	 * @param firstPred		index of first predicate for each position
+	 * @param firstIndex	index of first join index for each position
+	 */
+	static void generateExecute(MethodVisitor method, int[] order,
+			int[] cardinalities, int[] firstPred, int[] firstIndex) {
+		int nrTables = order.length;
+		Label loop = new Label();
+		Label exit = new Label();
+		Label[] positions = new Label[nrTables];
+		Label[] backtracks = new Label[nrTables];
+		for (int pos=0; pos<nrTables; ++pos) {
+			positions[pos] = new Label();
+			backtracks[pos] = new Label();
+		}
+		// Load arrays and initialize counters
+		method.visitVarInsn(Opcodes.ALOAD, 0);
+		method.visitFieldInsn(Opcodes.GETFIELD, BASE_CLASS, "preds",
+				"[Lexpressions/compilation/KnaryBoolEval;");
+		method.visitVarInsn(Opcodes.ASTORE, PREDS_VAR);
+		method.visitVarInsn(Opcodes.ALOAD, 0);
+		method.visitFieldInsn(Opcodes.GETFIELD, BASE_CLASS, "indices",
+				"[Ljoining/join/JoinIndexWrapper;");
+		method.visitVarInsn(Opcodes.ASTORE, INDICES_VAR);
+		method.visitInsn(Opcodes.ICONST_0);
+		method.visitVarInsn(Opcodes.ISTORE, NR_RESULTS_VAR);
+		method.visitInsn(Opcodes.ICONST_0);
+		method.visitVarInsn(Opcodes.ISTORE, NR_TUPLES_VAR);
+		method.visitInsn(Opcodes.ICONST_0);
+		method.visitVarInsn(Opcodes.ISTORE, NR_ITERATIONS_VAR);
+		// Main loop: continue while budget and input remain
+		method.visitLabel(loop);
+		method.visitVarInsn(Opcodes.ILOAD, BUDGET_VAR);
+		method.visitJumpInsn(Opcodes.IFLE, exit);
+		method.visitVarInsn(Opcodes.ILOAD, JOIN_INDEX_VAR);
+		method.visitJumpInsn(Opcodes.IFLT, exit);
+		method.visitIincInsn(BUDGET_VAR, -1);
+		method.visitIincInsn(NR_ITERATIONS_VAR, 1);
+		// Jump to code for current join order position
+		method.visitVarInsn(Opcodes.ILOAD, JOIN_INDEX_VAR);
+		method.visitTableSwitchInsn(0, nrTables - 1, exit, positions);
+		for (int pos=0; pos<nrTables; ++pos) {
+			int table = order[pos];
+			Label advance = new Label();
+			method.visitLabel(positions[pos]);
+			// Integrate table offset
+			method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+			pushInt(method, table);
+			method.visitVarInsn(Opcodes.ALOAD, OFFSETS_VAR);
+			pushInt(method, table);
+			method.visitInsn(Opcodes.IALOAD);
+			loadTupleIndex(method, table);
+			method.visitMethodInsn(Opcodes.INVOKESTATIC,
+					"java/lang/Math", "max", "(II)I", false);
+			method.visitInsn(Opcodes.IASTORE);
+			// Evaluate all applicable predicates
+			for (int predCtr=firstPred[pos];
+					predCtr<firstPred[pos+1]; ++predCtr) {
+				method.visitVarInsn(Opcodes.ALOAD, PREDS_VAR);
+				pushInt(method, predCtr);
+				method.visitInsn(Opcodes.AALOAD);
+				method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+				method.visitMethodInsn(Opcodes.INVOKEINTERFACE,
+						"expressions/compilation/KnaryBoolEval",
+						"evaluate", "([I)B", true);
+				method.visitJumpInsn(Opcodes.IFLE, advance);
+			}
+			method.visitIincInsn(NR_TUPLES_VAR, 1);
+			if (pos == nrTables - 1) {
+				// Complete result row -> add to result
+				method.visitIincInsn(NR_RESULTS_VAR, 1);
+				method.visitVarInsn(Opcodes.ALOAD, RESULT_VAR);
+				method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+				method.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+						"joining/result/JoinResult", "add", "([I)V", false);
+			} else {
+				// No complete result row -> complete further
+				pushInt(method, pos + 1);
+				method.visitVarInsn(Opcodes.ISTORE, JOIN_INDEX_VAR);
+				method.visitJumpInsn(Opcodes.GOTO, loop);
+			}
+			// Propose next tuple index in current table
+			method.visitLabel(advance);
+			if (firstIndex[pos] == firstIndex[pos+1]) {
+				method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+				pushInt(method, table);
+				loadTupleIndex(method, table);
+				method.visitInsn(Opcodes.ICONST_1);
+				method.visitInsn(Opcodes.IADD);
+				method.visitInsn(Opcodes.IASTORE);
+			} else {
+				method.visitInsn(Opcodes.ICONST_M1);
+				method.visitVarInsn(Opcodes.ISTORE, MAX_VAR);
+				for (int indexCtr=firstIndex[pos];
+						indexCtr<firstIndex[pos+1]; ++indexCtr) {
+					Label found = new Label();
+					method.visitVarInsn(Opcodes.ALOAD, INDICES_VAR);
+					pushInt(method, indexCtr);
+					method.visitInsn(Opcodes.AALOAD);
+					method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+					method.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+							"joining/join/JoinIndexWrapper",
+							"nextIndex", "([I)I", false);
+					method.visitVarInsn(Opcodes.ISTORE, NEXT_VAR);
+					method.visitVarInsn(Opcodes.ILOAD, NEXT_VAR);
+					method.visitJumpInsn(Opcodes.IFGE, found);
+					pushInt(method, cardinalities[table]);
+					method.visitVarInsn(Opcodes.ISTORE, NEXT_VAR);
+					method.visitLabel(found);
+					method.visitVarInsn(Opcodes.ILOAD, MAX_VAR);
+					method.visitVarInsn(Opcodes.ILOAD, NEXT_VAR);
+					method.visitMethodInsn(Opcodes.INVOKESTATIC,
+							"java/lang/Math", "max", "(II)I", false);
+					method.visitVarInsn(Opcodes.ISTORE, MAX_VAR);
+				}
+				method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+				pushInt(method, table);
+				method.visitVarInsn(Opcodes.ILOAD, MAX_VAR);
+				method.visitInsn(Opcodes.IASTORE);
+			}
+			method.visitJumpInsn(Opcodes.GOTO, backtracks[pos]);
+		}
+		// Backtrack while end of current table is reached
+		for (int pos=0; pos<nrTables; ++pos) {
+			int table = order[pos];
+			method.visitLabel(backtracks[pos]);
+			pushInt(method, pos);
+			method.visitVarInsn(Opcodes.ISTORE, JOIN_INDEX_VAR);
+			loadTupleIndex(method, table);
+			pushInt(method, cardinalities[table]);
+			method.visitJumpInsn(Opcodes.IF_ICMPLT, loop);
+			method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+			pushInt(method, table);
+			method.visitInsn(Opcodes.ICONST_0);
+			method.visitInsn(Opcodes.IASTORE);
+			if (pos == 0) {
+				method.visitInsn(Opcodes.ICONST_M1);
+				method.visitVarInsn(Opcodes.ISTORE, JOIN_INDEX_VAR);
+				method.visitJumpInsn(Opcodes.GOTO, loop);
+			} else {
+				int priorTable = order[pos-1];
+				method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+				pushInt(method, priorTable);
+				loadTupleIndex(method, priorTable);
+				method.visitInsn(Opcodes.ICONST_1);
+				method.visitInsn(Opcodes.IADD);
+				method.visitInsn(Opcodes.IASTORE);
+				method.visitJumpInsn(Opcodes.GOTO, backtracks[pos-1]);
+			}
+		}
+		// Store counters and return final join order position
+		method.visitLabel(exit);
+		storeCounter(method, NR_RESULTS_VAR, "nrResultTuples");
+		storeCounter(method, NR_TUPLES_VAR, "nrTuples");
+		storeCounter(method, NR_ITERATIONS_VAR, "nrIterations");
+		method.visitVarInsn(Opcodes.ILOAD, JOIN_INDEX_VAR);
+		method.visitInsn(Opcodes.IRETURN);
+	}
+	/**
+	 * Pushes current tuple index of given table on the stack.
+	 *
+	 * @param method	writes execution method
+	 * @param table		index of table
+	 */
+	static void loadTupleIndex(MethodVisitor method, int table) {
+		method.visitVarInsn(Opcodes.ALOAD, TUPLES_VAR);
+		pushInt(method, table);
+		method.visitInsn(Opcodes.IALOAD);
+	}
+	/**
+	 * Copies value of local counter variable into field.
+	 *
+	 * @param method	writes execution method
+	 * @param var		index of local variable
+	 * @param field		name of integer field
+	 */
+	static void storeCounter(MethodVisitor method, int var, String field) {
+		method.visitVarInsn(Opcodes.ALOAD, 0);
+		method.visitVarInsn(Opcodes.ILOAD, var);
+		method.visitFieldInsn(Opcodes.PUTFIELD, BASE_CLASS, field, "I");
+	}
+	/**
+	 * Pushes integer constant on the stack, using the
+	 * most compact instruction for the given value.
+	 *
+	 * @param method	writes execution method
+	 * @param value		integer constant
+	 */
+	static void pushInt(MethodVisitor method, int value) {
+		if (value >= -1 && value <= 5) {
+			method.visitInsn(Opcodes.ICONST_0 + value);
+		} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			method.visitIntInsn(Opcodes.BIPUSH, value);
+		} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			method.visitIntInsn(Opcodes.SIPUSH, value);
+		} else {
+			method.visitLdcInsn(value);
+		}
+	}
+}
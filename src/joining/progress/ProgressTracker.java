@@ -1,11 +1,9 @@
 package joining.progress;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
+import config.JoinConfig;
 import joining.plan.JoinOrder;
-import query.QueryInfo;
 
 /**
  * Keeps track of progress made in evaluating different
@@ -13,6 +11,17 @@ import query.QueryInfo;
  * and methods to retrieve the state from which evaluation
  * for one specific join order should continue.
  *
+ * Progress is stored in a trie over join order prefixes
+ * whose nodes are represented by entries in flat integer
+ * arrays. Inner nodes store the latest tuple indices reached
+ * for their prefix, leaf nodes store the last state reached
+ * for a complete join order. Memory consumption is bounded:
+ * if the limit is reached, the least recently used join
+ * orders are evicted, together with prefix nodes that are
+ * no longer shared by other join orders. Evaluation of an
+ * evicted join order continues from the longest prefix
+ * still stored, which is correct but may repeat work.
+ *
  * @author immanueltrummer
  */
 public class ProgressTracker {
@@ -24,22 +33,91 @@ public class ProgressTracker {
      * Cardinality of each query table.
      */
     final int[] cardinalities;
-    /**
-     * Stores progress made for each join order prefix.
-     */
-    final Progress sharedProgress;
     /**
      * For each table the last tuple that was fully treated.
      */
     public final int[] tableOffset;
     /**
-     * Maps join orders to the last state achieved during evaluation.
+     * Indicates whether processing is finished (may
+     * be read by multiple join threads).
+     */
+    public volatile boolean isFinished = false;
+    /**
+     * Number of bytes required per trie node.
+     */
+    final int bytesPerNode;
+    /**
+     * Maximal number of trie nodes (including the root).
+     */
+    final int maxNodes;
+    /**
+     * Number of nodes for which arrays reserve space.
+     */
+    int capacity;
+    /**
+     * Number of nodes currently in the trie (including the root).
+     */
+    int nrNodes = 1;
+    /**
+     * Smallest node ID that was never used.
+     */
+    int nextUnusedNode = 1;
+    /**
+     * First node in list of freed nodes (linked via
+     * sibling pointers) or -1 if the list is empty.
+     */
+    int freeNode = -1;
+    /**
+     * For each node: table added by this node to the prefix.
+     */
+    int[] nodeTable;
+    /**
+     * For each node: parent node or -1 for the root.
+     */
+    int[] parent;
+    /**
+     * For each node: first child node or -1.
      */
-    Map<JoinOrder, State> orderToState = new HashMap<JoinOrder, State>();
+    int[] firstChild;
     /**
-     * Indicates whether processing is finished.
+     * For each node: next child of same parent or -1.
      */
-    public boolean isFinished = false;
+    int[] nextSibling;
+    /**
+     * For each leaf node: last position index in join order.
+     */
+    int[] lastIndex;
+    /**
+     * For each node: tuple indices for all tables (node
+     * at index i occupies fields i*nrTables to
+     * (i+1)*nrTables-1, tables not in prefix are zero).
+     */
+    int[] tupleIndices;
+    /**
+     * For each leaf: previous leaf in order of last use.
+     */
+    int[] lruPrev;
+    /**
+     * For each leaf: next leaf in order of last use.
+     */
+    int[] lruNext;
+    /**
+     * Least recently used leaf or -1.
+     */
+    int lruFirst = -1;
+    /**
+     * Most recently used leaf or -1.
+     */
+    int lruLast = -1;
+    /**
+     * Nodes on path to current join order (used
+     * to avoid allocations during lookups).
+     */
+    final int[] pathNodes;
+    /**
+     * Number of join orders evicted so far.
+     */
+    public long nrEvictions = 0;
     /**
      * Initializes progress tracking for given tables.
      *
@@ -49,10 +127,224 @@ public class ProgressTracker {
     public ProgressTracker(int nrTables, int[] cardinalities) {
         this.nrTables = nrTables;
         this.cardinalities = cardinalities;
-        sharedProgress = new Progress(nrTables);
         tableOffset = new int[nrTables];
         //Arrays.fill(tableOffset, -1);
         Arrays.fill(tableOffset, 0);
+        // Seven integer arrays plus tuple indices per node
+        bytesPerNode = 4 * (7 + nrTables);
+        long maxByBytes = JoinConfig.MAX_PROGRESS_BYTES / bytesPerNode;
+        long maxByIndex = Integer.MAX_VALUE / Math.max(1, nrTables) - 1;
+        // Leave space for at least one complete join order
+        maxNodes = (int)Math.max(nrTables + 1,
+        		Math.min(maxByBytes, maxByIndex));
+        capacity = Math.min(maxNodes, 64);
+        nodeTable = new int[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        lastIndex = new int[capacity];
+        tupleIndices = new int[capacity * nrTables];
+        lruPrev = new int[capacity];
+        lruNext = new int[capacity];
+        pathNodes = new int[nrTables];
+        // Initialize root node
+        parent[0] = -1;
+        firstChild[0] = -1;
+        nextSibling[0] = -1;
+    }
+    /**
+     * Returns the number of trie nodes (including the root).
+     *
+     * @return	number of nodes
+     */
+    public int nrNodes() {
+    	return nrNodes;
+    }
+    /**
+     * Returns the number of bytes allocated for trie nodes.
+     *
+     * @return	number of allocated bytes
+     */
+    public long nrBytes() {
+    	return (long)capacity * bytesPerNode;
+    }
+    /**
+     * Returns child of given node for given table or -1.
+     *
+     * @param node	parent node
+     * @param table	table added by child node
+     * @return		child node or -1 if no such child exists
+     */
+    int child(int node, int table) {
+    	int child = firstChild[node];
+    	while (child >= 0 && nodeTable[child] != table) {
+    		child = nextSibling[child];
+    	}
+    	return child;
+    }
+    /**
+     * Stores nodes on path for given join order in
+     * path array and returns the number of nodes
+     * found (the root is not stored).
+     *
+     * @param order				order of tables
+     * @param nrJoinedTables	number of tables in order
+     * @return					length of stored path prefix
+     */
+    int findPath(int[] order, int nrJoinedTables) {
+    	int node = 0;
+    	for (int joinCtr=0; joinCtr<nrJoinedTables; ++joinCtr) {
+    		node = child(node, order[joinCtr]);
+    		if (node < 0) {
+    			return joinCtr;
+    		}
+    		pathNodes[joinCtr] = node;
+    	}
+    	return nrJoinedTables;
+    }
+    /**
+     * Doubles capacity of node arrays (up to the maximal
+     * number of nodes).
+     */
+    void grow() {
+    	capacity = (int)Math.min(maxNodes, 2L * capacity);
+    	nodeTable = Arrays.copyOf(nodeTable, capacity);
+    	parent = Arrays.copyOf(parent, capacity);
+    	firstChild = Arrays.copyOf(firstChild, capacity);
+    	nextSibling = Arrays.copyOf(nextSibling, capacity);
+    	lastIndex = Arrays.copyOf(lastIndex, capacity);
+    	tupleIndices = Arrays.copyOf(tupleIndices, capacity * nrTables);
+    	lruPrev = Arrays.copyOf(lruPrev, capacity);
+    	lruNext = Arrays.copyOf(lruNext, capacity);
+    }
+    /**
+     * Adds new child node with zero tuple indices.
+     *
+     * @param parentNode	parent of new node
+     * @param table			table added by new node
+     * @return				ID of new node
+     */
+    int addNode(int parentNode, int table) {
+    	int node;
+    	if (freeNode >= 0) {
+    		node = freeNode;
+    		freeNode = nextSibling[node];
+    	} else {
+    		node = nextUnusedNode++;
+    		if (node >= capacity) {
+    			grow();
+    		}
+    	}
+    	++nrNodes;
+    	nodeTable[node] = table;
+    	parent[node] = parentNode;
+    	firstChild[node] = -1;
+    	nextSibling[node] = firstChild[parentNode];
+    	firstChild[parentNode] = node;
+    	lastIndex[node] = 0;
+    	int offset = node * nrTables;
+    	Arrays.fill(tupleIndices, offset, offset + nrTables, 0);
+    	return node;
+    }
+    /**
+     * Removes node without children from the trie.
+     *
+     * @param node	node to remove
+     */
+    void removeNode(int node) {
+    	int parentNode = parent[node];
+    	if (firstChild[parentNode] == node) {
+    		firstChild[parentNode] = nextSibling[node];
+    	} else {
+    		int sibling = firstChild[parentNode];
+    		while (nextSibling[sibling] != node) {
+    			sibling = nextSibling[sibling];
+    		}
+    		nextSibling[sibling] = nextSibling[node];
+    	}
+    	nextSibling[node] = freeNode;
+    	freeNode = node;
+    	--nrNodes;
+    }
+    /**
+     * Marks leaf as most recently used.
+     *
+     * @param leaf	leaf node (for complete join order)
+     * @param isNew	whether the leaf was just created
+     */
+    void touch(int leaf, boolean isNew) {
+    	if (!isNew) {
+    		if (leaf == lruLast) {
+    			return;
+    		}
+    		unlinkLeaf(leaf);
+    	}
+    	lruPrev[leaf] = lruLast;
+    	lruNext[leaf] = -1;
+    	if (lruLast >= 0) {
+    		lruNext[lruLast] = leaf;
+    	} else {
+    		lruFirst = leaf;
+    	}
+    	lruLast = leaf;
+    }
+    /**
+     * Removes leaf from list of leaves ordered by last use.
+     *
+     * @param leaf	leaf to remove
+     */
+    void unlinkLeaf(int leaf) {
+    	int prev = lruPrev[leaf];
+    	int next = lruNext[leaf];
+    	if (prev >= 0) {
+    		lruNext[prev] = next;
+    	} else {
+    		lruFirst = next;
+    	}
+    	if (next >= 0) {
+    		lruPrev[next] = prev;
+    	} else {
+    		lruLast = prev;
+    	}
+    }
+    /**
+     * Evicts least recently used join order and all
+     * prefix nodes that are not shared with other
+     * join orders.
+     */
+    void evict() {
+    	int node = lruFirst;
+    	unlinkLeaf(node);
+    	while (node > 0 && firstChild[node] < 0) {
+    		int parentNode = parent[node];
+    		removeNode(node);
+    		node = parentNode;
+    	}
+    	++nrEvictions;
+    }
+    /**
+     * Compares given tuple indices with the ones stored for
+     * the given node, considering only the given join order
+     * prefix (whichever has higher progress in the first
+     * table with different indices is ahead).
+     *
+     * @param node			compare with tuple indices of this node
+     * @param order			join order of tables
+     * @param indices		tuple indices to compare
+     * @param prefixLength	length of join order prefix to consider
+     * @return				positive value if given indices are ahead,
+     * 						negative value if node is ahead, zero if equal
+     */
+    int compare(int node, int[] order, int[] indices, int prefixLength) {
+    	int offset = node * nrTables;
+    	for (int joinCtr=0; joinCtr<prefixLength; ++joinCtr) {
+    		int table = order[joinCtr];
+    		int nodeIndex = tupleIndices[offset + table];
+    		if (indices[table] != nodeIndex) {
+    			return indices[table] > nodeIndex ? 1 : -1;
+    		}
+    	}
+    	return 0;
     }
     /**
      * Integrates final state achieved when evaluating one specific
@@ -64,29 +356,52 @@ public class ProgressTracker {
     public void updateProgress(JoinOrder joinOrder, State state) {
         // Update termination flag
         isFinished = state.isFinished();
-        // Update state for specific join order
-        orderToState.put(joinOrder, state);
-        // Update state for all join order prefixes
-        Progress curPrefixProgress = sharedProgress;
-        // Iterate over position in join order
         int nrJoinedTables = joinOrder.nrJoinedTables;
-        for (int joinCtr = 0; joinCtr < nrJoinedTables; ++joinCtr) {
-            int table = joinOrder.order[joinCtr];
-            if (curPrefixProgress.childNodes[table] == null) {
-                curPrefixProgress.childNodes[table] = new Progress(nrTables);
-            }
-            curPrefixProgress = curPrefixProgress.childNodes[table];
-            if (curPrefixProgress.latestState == null) {
-                curPrefixProgress.latestState = new State(nrTables);
-            }
-            curPrefixProgress.latestState.fastForward(
-                    joinOrder.order, state, joinCtr + 1);
+        int[] order = joinOrder.order;
+        // Make space for missing nodes by evicting join orders
+        int nrFound = findPath(order, nrJoinedTables);
+        while (nrFound < nrJoinedTables &&
+        		nrNodes + nrJoinedTables - nrFound > maxNodes &&
+        		lruFirst >= 0) {
+        	evict();
+        	nrFound = findPath(order, nrJoinedTables);
+        }
+        // Update stored states unless memory is insufficient
+        if (nrNodes + nrJoinedTables - nrFound <= maxNodes) {
+        	int node = 0;
+        	for (int joinCtr=0; joinCtr<nrJoinedTables; ++joinCtr) {
+        		node = joinCtr < nrFound ? pathNodes[joinCtr] :
+        			addNode(node, order[joinCtr]);
+        		if (joinCtr < nrJoinedTables - 1) {
+        			// Update state for join order prefix
+        			if (compare(node, order, state.tupleIndices, joinCtr + 1) > 0) {
+        				int offset = node * nrTables;
+        				for (int prefixCtr=0; prefixCtr<=joinCtr; ++prefixCtr) {
+        					int table = order[prefixCtr];
+        					tupleIndices[offset + table] =
+        							state.tupleIndices[table];
+        				}
+        			}
+        		} else {
+        			// Update state for specific join order - keep stored
+        			// state if it is ahead of the new state (may happen
+        			// if multiple threads use the same join order).
+        			boolean isNew = nrFound < nrJoinedTables;
+        			if (isNew || compare(node, order,
+        					state.tupleIndices, nrJoinedTables) >= 0) {
+        				System.arraycopy(state.tupleIndices, 0,
+        						tupleIndices, node * nrTables, nrTables);
+        				lastIndex[node] = state.lastIndex;
+        			}
+        			touch(node, isNew);
+        		}
+        	}
         }
         // Update table offset considering last fully treated tuple -
         // consider first table and all following tables in join order
         // if their cardinality is one.
         for (int joinCtr=0; joinCtr<nrJoinedTables; ++joinCtr) {
-        	int table = joinOrder.order[joinCtr];
+        	int table = order[joinCtr];
         	int lastTreated = state.tupleIndices[table]-1;
         	tableOffset[table] = Math.max(lastTreated, tableOffset[table]);
         	// Stop after first table with cardinality >1
@@ -98,7 +413,7 @@ public class ProgressTracker {
         /*
         int firstTable = joinOrder.order[0];
         int lastTreatedTuple = state.tupleIndices[firstTable] - 1;
-        tableOffset[firstTable] = Math.max(lastTreatedTuple, 
+        tableOffset[firstTable] = Math.max(lastTreatedTuple,
         		tableOffset[firstTable]);
         */
     }
@@ -112,39 +427,31 @@ public class ProgressTracker {
     public State continueFrom(JoinOrder joinOrder) {
         int nrJoinedTables = joinOrder.nrJoinedTables;
         int[] order = joinOrder.order;
-        State state = orderToState.get(joinOrder);
-        if (state == null) {
-            state = new State(nrTables);
+        State state = new State(nrTables);
+        int nrFound = findPath(order, nrJoinedTables);
+        // Start from last state of join order if available
+        if (nrFound == nrJoinedTables) {
+        	int leaf = pathNodes[nrJoinedTables - 1];
+        	System.arraycopy(tupleIndices, leaf * nrTables,
+        			state.tupleIndices, 0, nrTables);
+        	state.lastIndex = lastIndex[leaf];
+        	touch(leaf, false);
         }
         // Integrate progress from join orders with same prefix
-        Progress curPrefixProgress = sharedProgress;
-        for (int joinCtr = 0; joinCtr < nrJoinedTables; ++joinCtr) {
-            int table = order[joinCtr];
-            curPrefixProgress = curPrefixProgress.childNodes[table];
-            if (curPrefixProgress == null) {
-                break;
-            }
-            state.fastForward(order, curPrefixProgress.latestState, joinCtr + 1);
+        for (int joinCtr=0; joinCtr<Math.min(nrFound,
+        		nrJoinedTables - 1); ++joinCtr) {
+        	int node = pathNodes[joinCtr];
+        	if (compare(node, order, state.tupleIndices, joinCtr + 1) < 0) {
+        		// Adopt prefix and start from its last position
+        		int offset = node * nrTables;
+        		for (int posCtr=0; posCtr<nrJoinedTables; ++posCtr) {
+        			int table = order[posCtr];
+        			state.tupleIndices[table] = posCtr <= joinCtr ?
+        					tupleIndices[offset + table] : 0;
+        		}
+        		state.lastIndex = joinCtr;
+        	}
         }
-        // Integrate table offset
-        /*
-		int firstTable = order[0];
-		int offset = Math.max(state.tupleIndices[firstTable], tableOffset[firstTable]);
-		state.tupleIndices[firstTable] = offset;
-		*/
-		/*
-		int firstChange = nrTables + 1;
-		for (int joinCtr=0; joinCtr<nrTables; ++joinCtr) {
-			int table = order[joinCtr];
-			int offset = Math.max(state.tupleIndices[table], tableOffset[table]);
-			if (offset > state.tupleIndices[table]) {
-				firstChange = Math.min(firstChange, joinCtr);
-			}
-			state.tupleIndices[table] = offset;
-		}
-		state.lastIndex = 0;
-		*/
-        //state.lastIndex = Math.min(state.lastIndex, firstChange);
         return state;
     }
-}
\ No newline at end of file
+}
@@ -37,6 +37,19 @@ public class State {
 		lastIndex = 0;
 		//lastMove = JoinMove.RIGHT;
 	}
+	/**
+	 * Returns a new state with the same position
+	 * and tuple indices as this state.
+	 * 
+	 * @return	copy of this state
+	 */
+	public State copy() {
+		State copy = new State(tupleIndices.length);
+		copy.lastIndex = lastIndex;
+		System.arraycopy(tupleIndices, 0, copy.tupleIndices, 
+				0, tupleIndices.length);
+		return copy;
+	}
 	/**
 	 * Checks whether processing is finished.
 	 * 
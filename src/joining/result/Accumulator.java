@@ -0,0 +1,49 @@
+package joining.result;
+
+import data.ColumnData;
+
+/**
+ * Maintains the per-group state of one aggregate while
+ * join result tuples are produced (avoids materializing
+ * join result tuples before aggregation).
+ *
+ * @author immanueltrummer
+ *
+ */
+public abstract class Accumulator {
+	/**
+	 * Index of the joined table whose column is
+	 * aggregated (-1 if the input is a constant).
+	 */
+	final int tableIdx;
+	/**
+	 * Initializes accumulator for input from given table.
+	 *
+	 * @param tableIdx	index of table containing input column
+	 */
+	public Accumulator(int tableIdx) {
+		this.tableIdx = tableIdx;
+	}
+	/**
+	 * Makes sure that state can be stored for the
+	 * given number of groups.
+	 *
+	 * @param nrGroups	number of groups to accommodate
+	 */
+	abstract void resize(int nrGroups);
+	/**
+	 * Updates aggregate of given group with the value
+	 * of given join result tuple.
+	 *
+	 * @param group			group of result tuple
+	 * @param tupleIndices	tuple index for each joined table
+	 */
+	abstract void update(int group, int[] tupleIndices);
+	/**
+	 * Returns final aggregate for each group.
+	 *
+	 * @param nrGroups	number of groups
+	 * @return			column containing one row per group
+	 */
+	abstract ColumnData result(int nrGroups);
+}
@@ -0,0 +1,331 @@
+package joining.result;
+
+import buffer.BufferManager;
+import catalog.CatalogManager;
+import data.ColumnData;
+import expressions.ExpressionInfo;
+import expressions.aggregates.AggInfo;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.schema.Column;
+import preprocessing.Context;
+import query.AggregationType;
+import query.ColumnRef;
+import query.QueryInfo;
+
+/**
+ * Join result that aggregates result tuples as they are
+ * produced instead of storing them. Only one representative
+ * tuple is stored per group (used to materialize group-by
+ * columns). Applies to queries whose group-by expressions
+ * are columns and whose aggregates are minima, maxima, or
+ * sums over columns or constants (counts are rewritten into
+ * sums). As the join may produce the same result tuple more
+ * than once, sums are only updated for tuples that were not
+ * seen before. Minima and maxima are insensitive to
+ * duplicates and require no deduplication.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class AggregateResult extends JoinResult {
+	/**
+	 * Aggregates calculated, in the same order as accumulators.
+	 */
+	final AggInfo[] aggs;
+	/**
+	 * Maintain per-group state for each aggregate.
+	 */
+	final Accumulator[] accumulators;
+	/**
+	 * For each group-by column: index of the joined
+	 * table containing it.
+	 */
+	final int[] groupTables;
+	/**
+	 * Data of group-by columns.
+	 */
+	final ColumnData[] groupCols;
+	/**
+	 * Collects result tuples seen so far for deduplication
+	 * (null if duplicates do not influence aggregates).
+	 */
+	final JoinResult seen;
+	/**
+	 * Number of groups created so far.
+	 */
+	int nrGroups;
+	/**
+	 * Number of groups for which accumulators reserve space.
+	 */
+	int groupCapacity;
+	/**
+	 * Hash table mapping group-by values to groups via open
+	 * addressing (contains group index plus one or zero if
+	 * the slot is empty). Null if the query has no group-by.
+	 */
+	int[] groupSlots;
+	/**
+	 * Number of result tuples that were aggregated (may
+	 * count duplicates if no deduplication is required).
+	 */
+	public int nrAggregated = 0;
+	/**
+	 * Initializes accumulators for aggregates of given query,
+	 * reading input from columns in the given context.
+	 *
+	 * @param query		query whose aggregates to calculate
+	 * @param context	maps query columns to filtered columns
+	 * @throws Exception
+	 */
+	public AggregateResult(QueryInfo query, Context context) throws Exception {
+		super(query.nrJoined, false);
+		// Collect group-by columns
+		int nrGroupCols = query.groupByExpressions.size();
+		groupTables = new int[nrGroupCols];
+		groupCols = new ColumnData[nrGroupCols];
+		for (int groupCtr=0; groupCtr<nrGroupCols; ++groupCtr) {
+			ExpressionInfo groupExpr = query.groupByExpressions.get(groupCtr);
+			ColumnRef queryRef = groupExpr.columnsMentioned.iterator().next();
+			groupTables[groupCtr] = query.aliasToIndex.get(queryRef.aliasName);
+			groupCols[groupCtr] = BufferManager.getData(
+					context.columnMapping.get(queryRef));
+		}
+		// Initialize accumulators
+		int nrAggs = query.aggregates.size();
+		aggs = query.aggregates.toArray(new AggInfo[nrAggs]);
+		accumulators = new Accumulator[nrAggs];
+		boolean hasSums = false;
+		for (int aggCtr=0; aggCtr<nrAggs; ++aggCtr) {
+			ExpressionInfo aggInput = aggs[aggCtr].aggInput;
+			Expression inputExpr = aggInput.finalExpression;
+			if (inputExpr instanceof Column) {
+				ColumnRef queryRef = aggInput.columnsMentioned.iterator().next();
+				ColumnRef dbRef = context.columnMapping.get(queryRef);
+				int tableIdx = query.aliasToIndex.get(queryRef.aliasName);
+				ColumnData data = BufferManager.getData(dbRef);
+				switch (aggs[aggCtr].aggFunction) {
+				case MIN:
+					accumulators[aggCtr] = new MinMaxAccumulator(
+							tableIdx, data, false);
+					break;
+				case MAX:
+					accumulators[aggCtr] = new MinMaxAccumulator(
+							tableIdx, data, true);
+					break;
+				default:
+					accumulators[aggCtr] = new SumAccumulator(tableIdx,
+							data, CatalogManager.getColumn(dbRef).type);
+					hasSums = true;
+					break;
+				}
+			} else {
+				double constant = inputExpr instanceof LongValue ?
+						((LongValue)inputExpr).getValue() :
+						((DoubleValue)inputExpr).getValue();
+				accumulators[aggCtr] = new SumAccumulator(
+						aggInput.resultType, constant);
+				hasSums = true;
+			}
+		}
+		// Sums over duplicate tuples would be incorrect
+		seen = hasSums && nrTables > 1 ? new JoinResult(nrTables) : null;
+		// All rows form one group if no group-by clause
+		if (nrGroupCols == 0) {
+			nrGroups = 1;
+			groupSlots = null;
+		} else {
+			nrGroups = 0;
+			groupSlots = new int[32];
+		}
+		groupCapacity = 16;
+		for (Accumulator accumulator : accumulators) {
+			accumulator.resize(groupCapacity);
+		}
+	}
+	/**
+	 * Returns true iff aggregates of the given query can be
+	 * calculated while join result tuples are produced.
+	 *
+	 * @param query	query to check
+	 * @return		true iff aggregates can be calculated on the fly
+	 */
+	public static boolean applicable(QueryInfo query) {
+		if (query.aggregationType.equals(AggregationType.NONE)) {
+			return false;
+		}
+		// Group by columns only
+		for (ExpressionInfo groupExpr : query.groupByExpressions) {
+			if (!(groupExpr.finalExpression instanceof Column)) {
+				return false;
+			}
+		}
+		// Minima, maxima, and sums over columns or constants only
+		for (AggInfo agg : query.aggregates) {
+			Expression inputExpr = agg.aggInput.finalExpression;
+			if (agg.aggFunction == null) {
+				return false;
+			}
+			switch (agg.aggFunction) {
+			case MIN:
+			case MAX:
+				if (!(inputExpr instanceof Column)) {
+					return false;
+				}
+				break;
+			case SUM:
+				if (!(inputExpr instanceof Column) &&
+						!(inputExpr instanceof LongValue) &&
+						!(inputExpr instanceof DoubleValue)) {
+					return false;
+				}
+				switch (agg.aggInput.resultType) {
+				case INT:
+				case LONG:
+				case DOUBLE:
+					break;
+				default:
+					return false;
+				}
+				break;
+			default:
+				return false;
+			}
+		}
+		return true;
+	}
+	/**
+	 * Calculates hash code for group-by values
+	 * of given result tuple.
+	 *
+	 * @param indices	tuple index for each table
+	 * @return			hash code
+	 */
+	int groupHash(int[] indices) {
+		int hash = 1;
+		for (int groupCtr=0; groupCtr<groupCols.length; ++groupCtr) {
+			int row = indices[groupTables[groupCtr]];
+			hash = 31 * hash + groupCols[groupCtr].hashForRow(row);
+		}
+		return hash ^ (hash >>> 16);
+	}
+	/**
+	 * Calculates hash code for group-by values
+	 * of representative tuple of given group.
+	 *
+	 * @param group	group index
+	 * @return		hash code
+	 */
+	int groupHash(int group) {
+		int hash = 1;
+		for (int groupCtr=0; groupCtr<groupCols.length; ++groupCtr) {
+			int row = tupleIndices[groupTables[groupCtr]][group];
+			hash = 31 * hash + groupCols[groupCtr].hashForRow(row);
+		}
+		return hash ^ (hash >>> 16);
+	}
+	/**
+	 * Checks whether given result tuple belongs to given group.
+	 *
+	 * @param group		group index
+	 * @param indices	tuple index for each table
+	 * @return			true iff group-by values are equal
+	 */
+	boolean inGroup(int group, int[] indices) {
+		for (int groupCtr=0; groupCtr<groupCols.length; ++groupCtr) {
+			int table = groupTables[groupCtr];
+			int groupRow = tupleIndices[table][group];
+			if (groupCols[groupCtr].compareRows(
+					groupRow, indices[table]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	/**
+	 * Returns group of given result tuple, creates
+	 * new group with tuple as representative if no
+	 * group with the same group-by values exists.
+	 *
+	 * @param indices	tuple index for each table
+	 * @return			group index
+	 */
+	int group(int[] indices) {
+		int mask = groupSlots.length - 1;
+		int slot = groupHash(indices) & mask;
+		while (groupSlots[slot] != 0) {
+			int group = groupSlots[slot] - 1;
+			if (inGroup(group, indices)) {
+				return group;
+			}
+			slot = (slot + 1) & mask;
+		}
+		// Store representative tuple for new group
+		int group = nrGroups;
+		super.add(indices);
+		++nrGroups;
+		if (nrGroups > groupCapacity) {
+			groupCapacity *= 2;
+			for (Accumulator accumulator : accumulators) {
+				accumulator.resize(groupCapacity);
+			}
+		}
+		// Register group in hash table, keep load factor below 0.5
+		groupSlots[slot] = nrGroups;
+		if (2 * nrGroups > groupSlots.length) {
+			rehashGroups();
+		}
+		return group;
+	}
+	/**
+	 * Doubles the size of the hash table used for
+	 * finding groups and re-inserts all groups.
+	 */
+	void rehashGroups() {
+		groupSlots = new int[groupSlots.length * 2];
+		int mask = groupSlots.length - 1;
+		for (int group=0; group<nrGroups; ++group) {
+			int slot = groupHash(group) & mask;
+			while (groupSlots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			groupSlots[slot] = group + 1;
+		}
+	}
+	/**
+	 * Updates aggregates of the group to which the
+	 * given result tuple belongs (unless the tuple
+	 * was seen before and duplicates matter).
+	 *
+	 * @param indices	tuple index for each table
+	 */
+	@Override
+	public void add(int[] indices) {
+		// Filter out duplicates if necessary
+		if (seen != null) {
+			int nrSeen = seen.size();
+			seen.add(indices);
+			if (seen.size() == nrSeen) {
+				return;
+			}
+		}
+		++nrAggregated;
+		int group = groupSlots == null ? 0 : group(indices);
+		for (Accumulator accumulator : accumulators) {
+			accumulator.update(group, indices);
+		}
+	}
+	/**
+	 * Stores per-group aggregates in the query context,
+	 * ordered consistently with representative tuples.
+	 *
+	 * @param context	query processing context
+	 */
+	public void storeAggregates(Context context) {
+		for (int aggCtr=0; aggCtr<aggs.length; ++aggCtr) {
+			ColumnData aggData = accumulators[aggCtr].result(nrGroups);
+			context.joinAggregates.put(aggs[aggCtr].toString(), aggData);
+		}
+	}
+}
@@ -1,84 +1,187 @@
 package joining.result;
 
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.Arrays;
 
 /**
  * Represents the result of a query in compact form
  * (indices of joined result tuples in base tables).
+ * Tuple indices are stored column-wise, using one
+ * integer array per joined table.
  *
  * @author immanueltrummer
  *
  */
 public class JoinResult {
-	/**
-	 * Contains join result tuples, represented as
-	 * integer vectors (each vector component
-	 * captures the tuple index for one of the
-	 * join tables).
-	 */
-	public Set<ResultTuple> tuples = new HashSet<>();
 	/**
 	 * Number of tables being joined.
 	 */
 	final int nrTables;
 	/**
-	 * Root of tree representing join result.
+	 * Whether duplicate result tuples are filtered out
+	 * (required if the same tuple may be added twice).
 	 */
-	final ResultNode resultRoot;
+	final boolean deduplicate;
 	/**
-	 * Initializes join result for query of given size.
+	 * At i-th position: tuple indices in i-th table
+	 * for each result tuple (may contain unused
+	 * entries after the last result tuple).
+	 */
+	int[][] tupleIndices;
+	/**
+	 * Number of result tuples added so far.
+	 */
+	int nrTuples = 0;
+	/**
+	 * Hash table for detecting duplicates via open addressing
+	 * (contains result tuple index plus one or zero if the
+	 * slot is empty). Null if no deduplication is required.
+	 */
+	int[] slots;
+	/**
+	 * Initializes join result for query of given size,
+	 * filtering out duplicate result tuples.
 	 * 
 	 * @param nrTables	number of tables being joined
 	 */
 	public JoinResult(int nrTables) {
+		this(nrTables, true);
+	}
+	/**
+	 * Initializes join result for query of given size.
+	 * 
+	 * @param nrTables		number of tables being joined
+	 * @param deduplicate	whether to filter out duplicates
+	 */
+	public JoinResult(int nrTables, boolean deduplicate) {
 		this.nrTables = nrTables;
-		this.resultRoot = new ResultNode();
+		this.deduplicate = deduplicate;
+		this.tupleIndices = new int[nrTables][16];
+		this.slots = deduplicate ? new int[32] : null;
+	}
+	/**
+	 * Calculates hash code for given tuple indices.
+	 * 
+	 * @param indices	tuple index for each table
+	 * @return			hash code
+	 */
+	static int hash(int[] indices) {
+		int hash = 1;
+		for (int index : indices) {
+			hash = 31 * hash + index;
+		}
+		return hash ^ (hash >>> 16);
+	}
+	/**
+	 * Calculates hash code for result tuple with given index.
+	 * 
+	 * @param tuple	index of stored result tuple
+	 * @return		hash code
+	 */
+	int hash(int tuple) {
+		int hash = 1;
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			hash = 31 * hash + tupleIndices[tableCtr][tuple];
+		}
+		return hash ^ (hash >>> 16);
 	}
 	/**
-	 * Add tuple indices to the partial result set.
+	 * Checks whether stored result tuple equals given tuple.
+	 * 
+	 * @param tuple		index of stored result tuple
+	 * @param indices	tuple index for each table
+	 * @return			true iff both tuples are equal
+	 */
+	boolean equalsStored(int tuple, int[] indices) {
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			if (tupleIndices[tableCtr][tuple] != indices[tableCtr]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	/**
+	 * Doubles the size of the hash table used for
+	 * detecting duplicates and re-inserts all tuples.
+	 */
+	void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int tuple=0; tuple<nrTuples; ++tuple) {
+			int slot = hash(tuple) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = tuple + 1;
+		}
+	}
+	/**
+	 * Add tuple indices to the partial result set
+	 * (unless the same tuple was added before).
 	 *
-	 * @param tupleIndices  tuple indices
+	 * @param indices  tuple index for each table
 	 */
-	public void add(int[] tupleIndices) {
-		tuples.add(new ResultTuple(tupleIndices));
-		/*
-		ResultNode curNode = resultRoot;
+	public void add(int[] indices) {
+		// Find empty hash table slot unless tuple exists
+		int slot = -1;
+		if (deduplicate) {
+			int mask = slots.length - 1;
+			slot = hash(indices) & mask;
+			while (slots[slot] != 0) {
+				if (equalsStored(slots[slot] - 1, indices)) {
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+		// Append tuple, growing arrays if necessary
+		if (nrTuples == tupleIndices[0].length) {
+			for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+				tupleIndices[tableCtr] = Arrays.copyOf(
+						tupleIndices[tableCtr], 2 * nrTuples);
+			}
+		}
 		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
-			int curTuple = tupleIndices[tableCtr];
-			if (!curNode.childNodes.containsKey(curTuple)) {
-				curNode.childNodes.put(curTuple, new ResultNode());
+			tupleIndices[tableCtr][nrTuples] = indices[tableCtr];
+		}
+		++nrTuples;
+		// Register tuple in hash table, keep load factor below 0.5
+		if (deduplicate) {
+			slots[slot] = nrTuples;
+			if (2 * nrTuples > slots.length) {
+				rehash();
 			}
-			curNode = curNode.childNodes.get(curTuple);
 		}
-		*/
 	}
-	
-	void addSubtree(ResultNode resultNode, int level, 
-			int[] resultIndices, List<ResultTuple> tuples) {
-		if (level==nrTables) {
-			tuples.add(new ResultTuple(resultIndices));
-		} else {
-			for (Entry<Integer, ResultNode> entry : 
-				resultNode.childNodes.entrySet()) {
-				resultIndices[level] = entry.getKey();
-				addSubtree(entry.getValue(), level+1, 
-						resultIndices, tuples);
+	/**
+	 * Adds all tuples of another (partial) join result.
+	 * 
+	 * @param other	partial join result to integrate
+	 */
+	public void addAll(JoinResult other) {
+		int[] indices = new int[nrTables];
+		for (int tuple=0; tuple<other.nrTuples; ++tuple) {
+			for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+				indices[tableCtr] = other.tupleIndices[tableCtr][tuple];
 			}
+			add(indices);
 		}
 	}
 	/**
-	 * Returns result tuples as tuple set.
+	 * Returns the number of result tuples.
+	 * 
+	 * @return	number of result tuples
+	 */
+	public int size() {
+		return nrTuples;
+	}
+	/**
+	 * Returns tuple indices of one table for all result tuples.
+	 * Only the first entries (up to the result size) are valid.
 	 * 
-	 * @return	set of result tuples
+	 * @param tableIdx	index of joined table
+	 * @return			tuple indices in given table
 	 */
-	public Collection<ResultTuple> getTuples() {
-		return tuples;
-		/*
-		List<ResultTuple> tuples = new ArrayList<>();
-		int[] resultIndices = new int[nrTables];
-		addSubtree(resultRoot, 0, resultIndices, tuples);
-		return tuples;
-		*/
+	public int[] getTupleIndices(int tableIdx) {
+		return tupleIndices[tableIdx];
 	}
-}
\ No newline at end of file
+}
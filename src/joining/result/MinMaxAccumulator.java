@@ -0,0 +1,75 @@
+package joining.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import data.ColumnData;
+
+/**
+ * Calculates minimum or maximum per group by keeping
+ * track of the row containing the current extremum.
+ * Adding the same tuple twice does not change the
+ * result, hence no deduplication is required.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class MinMaxAccumulator extends Accumulator {
+	/**
+	 * Data of input column.
+	 */
+	final ColumnData data;
+	/**
+	 * Whether to calculate maximum (otherwise: minimum).
+	 */
+	final boolean isMax;
+	/**
+	 * For each group: row with minimal/maximal
+	 * value or -1 if no non-null value seen.
+	 */
+	int[] rowForGroup = new int[0];
+	/**
+	 * Initializes minimum/maximum over given column.
+	 *
+	 * @param tableIdx	index of table containing column
+	 * @param data		data of input column
+	 * @param isMax		whether to calculate maximum
+	 */
+	public MinMaxAccumulator(int tableIdx, ColumnData data, boolean isMax) {
+		super(tableIdx);
+		this.data = data;
+		this.isMax = isMax;
+	}
+	@Override
+	void resize(int nrGroups) {
+		int oldSize = rowForGroup.length;
+		rowForGroup = Arrays.copyOf(rowForGroup, nrGroups);
+		Arrays.fill(rowForGroup, oldSize, nrGroups, -1);
+	}
+	@Override
+	void update(int group, int[] tupleIndices) {
+		int row = tupleIndices[tableIdx];
+		// Only consider non-NULL values
+		if (!data.isNull(row)) {
+			int priorRow = rowForGroup[group];
+			if (priorRow == -1) {
+				rowForGroup[group] = row;
+			} else {
+				int cmp = data.compareRows(priorRow, row);
+				if (cmp<0 && isMax || cmp>0 && !isMax) {
+					rowForGroup[group] = row;
+				}
+			}
+		}
+	}
+	@Override
+	ColumnData result(int nrGroups) {
+		// Copying row -1 inserts NULL value
+		List<Integer> resultRows = new ArrayList<>(nrGroups);
+		for (int group=0; group<nrGroups; ++group) {
+			resultRows.add(rowForGroup[group]);
+		}
+		return data.copyRows(resultRows);
+	}
+}
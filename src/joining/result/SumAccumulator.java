@@ -0,0 +1,187 @@
+package joining.result;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import data.ColumnData;
+import data.DoubleData;
+import data.IntData;
+import data.LongData;
+import types.SQLtype;
+
+/**
+ * Calculates sums per group over a numerical column or
+ * over a constant (the latter results from rewriting
+ * COUNT aggregates). Requires deduplicated input.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class SumAccumulator extends Accumulator {
+	/**
+	 * Type of input and result.
+	 */
+	final SQLtype type;
+	/**
+	 * Data of input column (null for constant input).
+	 */
+	final ColumnData data;
+	/**
+	 * Integer input column or null.
+	 */
+	final IntData intVals;
+	/**
+	 * Long input column or null.
+	 */
+	final LongData longVals;
+	/**
+	 * Double input column or null.
+	 */
+	final DoubleData doubleVals;
+	/**
+	 * Value added per tuple for constant input
+	 * of integer or long type.
+	 */
+	final long longConstant;
+	/**
+	 * Value added per tuple for constant
+	 * input of double type.
+	 */
+	final double doubleConstant;
+	/**
+	 * Sums per group for integer and long input.
+	 */
+	long[] longSums = new long[0];
+	/**
+	 * Sums per group for double input.
+	 */
+	double[] doubleSums = new double[0];
+	/**
+	 * Marks groups with at least one non-null input.
+	 */
+	final BitSet hasValue = new BitSet();
+	/**
+	 * Initializes sum over given column.
+	 *
+	 * @param tableIdx	index of table containing column
+	 * @param data		data of input column
+	 * @param type		type of input column
+	 * @throws Exception
+	 */
+	public SumAccumulator(int tableIdx, ColumnData data,
+			SQLtype type) throws Exception {
+		super(tableIdx);
+		this.type = type;
+		this.data = data;
+		this.intVals = type == SQLtype.INT ? (IntData)data : null;
+		this.longVals = type == SQLtype.LONG ? (LongData)data : null;
+		this.doubleVals = type == SQLtype.DOUBLE ? (DoubleData)data : null;
+		this.longConstant = 0;
+		this.doubleConstant = 0;
+		checkType();
+	}
+	/**
+	 * Initializes sum over a constant value.
+	 *
+	 * @param type		type of constant
+	 * @param constant	value added per tuple
+	 * @throws Exception
+	 */
+	public SumAccumulator(SQLtype type, double constant) throws Exception {
+		super(-1);
+		this.type = type;
+		this.data = null;
+		this.intVals = null;
+		this.longVals = null;
+		this.doubleVals = null;
+		this.longConstant = (long)constant;
+		this.doubleConstant = constant;
+		checkType();
+	}
+	/**
+	 * Throws exception if sums over input type are unsupported.
+	 *
+	 * @throws Exception
+	 */
+	void checkType() throws Exception {
+		switch (type) {
+		case INT:
+		case LONG:
+		case DOUBLE:
+			break;
+		default:
+			throw new Exception("Error - no sum over " + type + " allowed");
+		}
+	}
+	@Override
+	void resize(int nrGroups) {
+		if (type == SQLtype.DOUBLE) {
+			doubleSums = Arrays.copyOf(doubleSums, nrGroups);
+		} else {
+			longSums = Arrays.copyOf(longSums, nrGroups);
+		}
+	}
+	@Override
+	void update(int group, int[] tupleIndices) {
+		// Treat constant input
+		if (tableIdx < 0) {
+			hasValue.set(group);
+			if (type == SQLtype.DOUBLE) {
+				doubleSums[group] += doubleConstant;
+			} else {
+				longSums[group] += longConstant;
+			}
+			return;
+		}
+		// Only consider non-NULL values
+		int row = tupleIndices[tableIdx];
+		if (!data.isNull(row)) {
+			hasValue.set(group);
+			switch (type) {
+			case INT:
+				longSums[group] += intVals.get(row);
+				break;
+			case LONG:
+				longSums[group] += longVals.get(row);
+				break;
+			default:
+				doubleSums[group] += doubleVals.get(row);
+				break;
+			}
+		}
+	}
+	@Override
+	ColumnData result(int nrGroups) {
+		ColumnData target = null;
+		switch (type) {
+		case INT:
+		{
+			IntData intTarget = new IntData(nrGroups);
+			for (int group=0; group<nrGroups; ++group) {
+				intTarget.data[group] = (int)longSums[group];
+			}
+			target = intTarget;
+		}
+			break;
+		case LONG:
+		{
+			LongData longTarget = new LongData(nrGroups);
+			System.arraycopy(longSums, 0, longTarget.data, 0, nrGroups);
+			target = longTarget;
+		}
+			break;
+		default:
+		{
+			DoubleData doubleTarget = new DoubleData(nrGroups);
+			System.arraycopy(doubleSums, 0, doubleTarget.data, 0, nrGroups);
+			target = doubleTarget;
+		}
+			break;
+		}
+		// Sums over groups without non-null values are null
+		for (int group=0; group<nrGroups; ++group) {
+			target.setNull(group, !hasValue.get(group));
+		}
+		return target;
+	}
+}
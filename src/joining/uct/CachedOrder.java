@@ -0,0 +1,46 @@
+package joining.uct;
+
+import java.io.Serializable;
+
+/**
+ * Join order (or join order prefix) learned during a prior
+ * query evaluation, together with UCT statistics for each
+ * table selection along that order.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class CachedOrder implements Serializable {
+	/**
+	 * Fixed serialization version (orders are stored in the
+	 * join order cache file of the database directory).
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Tables in join order (may cover only a prefix).
+	 */
+	public final int[] order;
+	/**
+	 * For each join order position: number of times the
+	 * corresponding table was selected at that position.
+	 */
+	public final int[] nrTries;
+	/**
+	 * For each join order position: reward accumulated
+	 * when selecting the corresponding table.
+	 */
+	public final double[] accumulatedReward;
+	/**
+	 * Initializes cached order with given statistics.
+	 *
+	 * @param order				tables in join order
+	 * @param nrTries			number of tries per position
+	 * @param accumulatedReward	accumulated reward per position
+	 */
+	public CachedOrder(int[] order, int[] nrTries,
+			double[] accumulatedReward) {
+		this.order = order;
+		this.nrTries = nrTries;
+		this.accumulatedReward = accumulatedReward;
+	}
+}
@@ -0,0 +1,292 @@
+package joining.uct;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+import config.JoinConfig;
+import config.LoggingConfig;
+import diskio.PathUtil;
+import expressions.ExpressionInfo;
+import query.ColumnRef;
+import query.QueryInfo;
+
+/**
+ * Stores join orders learned for prior queries, indexed
+ * by a signature of the join graph (tables, join predicates,
+ * and the shape of unary predicates, ignoring constants).
+ * Queries with the same signature initialize their UCT
+ * tree with statistics for the best join orders found
+ * previously. The number of cached signatures is bounded
+ * (least recently used signatures are evicted first) and
+ * the cache is written to the database directory after a
+ * given number of updates.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class JoinOrderCache {
+	/**
+	 * Maps join graph signatures to cached join orders,
+	 * ordered by last use (null if not loaded yet).
+	 */
+	static LinkedHashMap<String, List<CachedOrder>> signatureToOrders = null;
+	/**
+	 * Path from which cache was loaded (null if
+	 * cache is not associated with a database).
+	 */
+	static String loadedPath = null;
+	/**
+	 * Number of cache updates not yet written to disk.
+	 */
+	static int nrUnsavedUpdates = 0;
+	/**
+	 * Calculates join graph signature of given query. Queries
+	 * that differ only in constants have the same signature.
+	 *
+	 * @param query	query to calculate signature for
+	 * @return		signature of join graph
+	 */
+	public static String signature(QueryInfo query) {
+		StringBuilder signature = new StringBuilder();
+		// Join order search refers to tables by alias index
+		for (String alias : query.aliases) {
+			signature.append(alias);
+			signature.append(":");
+			signature.append(query.aliasToTable.get(alias));
+			signature.append(";");
+		}
+		// Equality join predicates contain no constants
+		TreeSet<String> equiPreds = new TreeSet<>();
+		for (ExpressionInfo equiPred : query.equiJoinPreds) {
+			equiPreds.add(equiPred.finalExpression.toString());
+		}
+		signature.append(equiPreds);
+		// Consider columns and type for other predicates
+		TreeSet<String> otherPreds = new TreeSet<>();
+		for (ExpressionInfo pred : query.nonEquiJoinPreds) {
+			otherPreds.add(predicateShape(pred));
+		}
+		for (ExpressionInfo pred : query.unaryPredicates) {
+			otherPreds.add(predicateShape(pred));
+		}
+		signature.append(otherPreds);
+		return signature.toString();
+	}
+	/**
+	 * Returns coarse description of a predicate, consisting
+	 * of the columns it refers to and its expression type.
+	 *
+	 * @param pred	predicate to describe
+	 * @return		predicate shape (independent of constants)
+	 */
+	static String predicateShape(ExpressionInfo pred) {
+		TreeSet<String> columns = new TreeSet<>();
+		for (ColumnRef colRef : pred.columnsMentioned) {
+			columns.add(colRef.toString());
+		}
+		return pred.finalExpression.getClass().getSimpleName() + columns;
+	}
+	/**
+	 * Makes sure that the cache associated with the current
+	 * database is loaded (from disk if available).
+	 */
+	static void load() {
+		String path = PathUtil.joinOrderCachePath;
+		if (signatureToOrders != null && (path == null ||
+				path.equals(loadedPath))) {
+			return;
+		}
+		// Write pending updates before switching database
+		persist(true);
+		signatureToOrders = new LinkedHashMap<>(16, 0.75f, true);
+		loadedPath = path;
+		nrUnsavedUpdates = 0;
+		if (path != null && new File(path).exists()) {
+			try {
+				FileInputStream fileIn = new FileInputStream(path);
+				ObjectInputStream objIn = new ObjectInputStream(fileIn);
+				@SuppressWarnings("unchecked")
+				LinkedHashMap<String, List<CachedOrder>> stored =
+						(LinkedHashMap<String, List<CachedOrder>>)
+						objIn.readObject();
+				signatureToOrders.putAll(stored);
+				objIn.close();
+				fileIn.close();
+			} catch (Exception e) {
+				// Cache only accelerates join order search
+				log("Ignoring unreadable join order cache: " + e);
+			}
+		}
+	}
+	/**
+	 * Returns join orders cached for queries with the same
+	 * join graph signature (empty list if cache is disabled
+	 * or no orders are cached).
+	 *
+	 * @param query	query for which to retrieve orders
+	 * @return		list of cached orders with statistics
+	 */
+	public static synchronized List<CachedOrder> lookup(QueryInfo query) {
+		if (!JoinConfig.CACHE_JOIN_ORDERS) {
+			return new ArrayList<>();
+		}
+		load();
+		List<CachedOrder> orders = signatureToOrders.get(signature(query));
+		log("Cached join orders: " + (orders==null ? 0 : orders.size()));
+		return orders == null ? new ArrayList<>() : orders;
+	}
+	/**
+	 * Initializes statistics of given UCT tree according to
+	 * given cached join orders. Statistics are scaled down
+	 * such that new observations quickly dominate.
+	 *
+	 * @param root		root of UCT tree to initialize
+	 * @param orders	cached join orders with statistics
+	 */
+	public static void warmStart(UctNode root, List<CachedOrder> orders) {
+		for (CachedOrder cached : orders) {
+			double scale = Math.min(1.0,
+					JoinConfig.CACHE_MAX_TRIES / (double)cached.nrTries[0]);
+			UctNode node = root;
+			for (int pos=0; pos<cached.order.length &&
+					node.nrActions > 0; ++pos) {
+				int action = -1;
+				for (int actionCtr=0; actionCtr<node.nrActions; ++actionCtr) {
+					if (node.nextTable[actionCtr] == cached.order[pos]) {
+						action = actionCtr;
+					}
+				}
+				// Stop if cached order is inconsistent with query
+				if (action < 0) {
+					break;
+				}
+				int tries = (int)Math.max(1, Math.round(
+						cached.nrTries[pos] * scale));
+				double reward = cached.accumulatedReward[pos] *
+						tries / cached.nrTries[pos];
+				node.addPrior(action, tries, reward);
+				if (node.childNodes[action] == null) {
+					node.childNodes[action] = new UctNode(
+							node.createdIn, node, cached.order[pos]);
+				}
+				node = node.childNodes[action];
+			}
+		}
+	}
+	/**
+	 * Extracts most frequently selected join orders from given
+	 * UCT tree and stores them for the given query's signature
+	 * (in memory, see {@link #persist(boolean)}).
+	 *
+	 * @param query	query whose join orders are cached
+	 * @param root	root of UCT tree after join phase
+	 * @throws Exception
+	 */
+	public static synchronized void store(QueryInfo query,
+			UctNode root) throws Exception {
+		if (!JoinConfig.CACHE_JOIN_ORDERS) {
+			return;
+		}
+		load();
+		// Follow most frequently tried actions, starting from
+		// different root actions for different orders.
+		List<CachedOrder> orders = new ArrayList<>();
+		boolean[] used = new boolean[root.nrActions];
+		for (int orderCtr=0; orderCtr<JoinConfig.CACHE_ORDERS_PER_QUERY;
+				++orderCtr) {
+			int action = mostTried(root, used);
+			if (action < 0) {
+				break;
+			}
+			used[action] = true;
+			List<Integer> tables = new ArrayList<>();
+			List<Integer> tries = new ArrayList<>();
+			List<Double> rewards = new ArrayList<>();
+			UctNode node = root;
+			while (action >= 0) {
+				tables.add(node.nextTable[action]);
+				tries.add(node.nrTries[action]);
+				rewards.add(node.accumulatedReward[action]);
+				node = node.childNodes[action];
+				action = node == null || node.nrActions == 0 ? -1 :
+					mostTried(node, new boolean[node.nrActions]);
+			}
+			orders.add(new CachedOrder(
+					tables.stream().mapToInt(i -> i).toArray(),
+					tries.stream().mapToInt(i -> i).toArray(),
+					rewards.stream().mapToDouble(r -> r).toArray()));
+		}
+		if (orders.isEmpty()) {
+			return;
+		}
+		// Insert as most recently used signature
+		signatureToOrders.put(signature(query), orders);
+		Iterator<String> signatureIter = signatureToOrders.keySet().iterator();
+		while (signatureToOrders.size() > JoinConfig.CACHE_MAX_SIGNATURES) {
+			signatureIter.next();
+			signatureIter.remove();
+		}
+		++nrUnsavedUpdates;
+	}
+	/**
+	 * Writes cache to the database directory if it was updated
+	 * at least a given number of times since it was last written
+	 * or, if the write is forced, at least once.
+	 *
+	 * @param force	whether to write any pending update
+	 */
+	public static synchronized void persist(boolean force) {
+		if (loadedPath == null || nrUnsavedUpdates == 0 || (!force &&
+				nrUnsavedUpdates < JoinConfig.CACHE_WRITE_INTERVAL)) {
+			return;
+		}
+		try {
+			FileOutputStream fileOut = new FileOutputStream(loadedPath);
+			ObjectOutputStream objOut = new ObjectOutputStream(fileOut);
+			objOut.writeObject(signatureToOrders);
+			objOut.close();
+			fileOut.close();
+			nrUnsavedUpdates = 0;
+		} catch (Exception e) {
+			// Cache only accelerates join order search
+			log("Could not store join order cache: " + e);
+		}
+	}
+	/**
+	 * Returns action of given node that was tried most often,
+	 * excluding given actions (-1 if no action was tried).
+	 *
+	 * @param node		UCT node
+	 * @param exclude	flags actions to exclude
+	 * @return			most frequently tried action or -1
+	 */
+	static int mostTried(UctNode node, boolean[] exclude) {
+		int bestAction = -1;
+		for (int action=0; action<node.nrActions; ++action) {
+			if (!exclude[action] && node.nrTries[action] > 0 &&
+					(bestAction < 0 || node.nrTries[action] >
+					node.nrTries[bestAction])) {
+				bestAction = action;
+			}
+		}
+		return bestAction;
+	}
+	/**
+	 * Output logging message if join logging activated.
+	 *
+	 * @param toLog		text to display if logging is activated
+	 */
+	static void log(String toLog) {
+		if (LoggingConfig.MAX_JOIN_LOGS > 0) {
+			System.out.println(toLog);
+		}
+	}
+}
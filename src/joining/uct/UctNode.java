@@ -4,7 +4,7 @@ import joining.join.MultiWayJoin;
 import query.QueryInfo;
 import statistics.JoinStats;
 
-import java.util.*;
+import java.util.SplittableRandom;
 
 import config.JoinConfig;
 
@@ -15,9 +15,10 @@ import config.JoinConfig;
  */
 public class UctNode {
     /**
-     * Used for randomized selection policy.
+     * Used for randomized selection policy (shared
+     * by all nodes of the same tree).
      */
-    final Random random = new Random();
+    final SplittableRandom random;
     /**
      * The query for which we are optimizing.
      */
@@ -41,7 +42,12 @@ public class UctNode {
      * heuristic is used, this only contains actions
      * that have not been tried and are recommended.
      */
-    final List<Integer> priorityActions;
+    final int[] priorityActions;
+    /**
+     * Number of actions in priority actions array that
+     * have not been tried yet (stored in a prefix).
+     */
+    int nrPriorityActions;
     /**
      * Assigns each action index to child node.
      */
@@ -63,17 +69,13 @@ public class UctNode {
      */
     final int nrTables;
     /**
-     * Set of already joined tables (each UCT node represents
+     * Bit mask of already joined tables (each UCT node represents
      * a state in which a subset of tables are joined).
      */
-    final Set<Integer> joinedTables;
+    final long joinedTables;
     /**
-     * List of unjoined tables (we use a list instead of a set
-     * to enable shuffling during playouts).
-     */
-    final List<Integer> unjoinedTables;
-    /**
-     * Associates each action index with a next table to join.
+     * Associates each action index with a next table to join
+     * (i.e., contains all tables that are not joined yet).
      */
     public final int[] nextTable;
     /**
@@ -89,12 +91,12 @@ public class UctNode {
      */
     final boolean useHeuristic;
     /**
-     * Contains actions that are consistent with the "avoid
+     * Bit mask of actions that are consistent with the "avoid
      * Cartesian products" heuristic. UCT algorithm will
      * restrict focus on such actions if heuristic flag
      * is activated.
      */
-    final Set<Integer> recommendedActions;
+    final long recommendedActions;
     /**
      * Initialize UCT root node.
      *
@@ -106,33 +108,29 @@ public class UctNode {
     public UctNode(long roundCtr, QueryInfo query, 
     		boolean useHeuristic, MultiWayJoin joinOp) {
     	// Count node generation
-    	++JoinStats.nrUctNodes;
+    	JoinStats.nrUctNodes.incrementAndGet();
         this.query = query;
         this.nrTables = query.nrJoined;
         createdIn = roundCtr;
         treeLevel = 0;
         nrActions = nrTables;
-        priorityActions = new ArrayList<Integer>();
+        random = new SplittableRandom();
+        priorityActions = new int[nrActions];
+        nrPriorityActions = nrActions;
         for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
-            priorityActions.add(actionCtr);
+            priorityActions[actionCtr] = actionCtr;
         }
         childNodes = new UctNode[nrActions];
         nrTries = new int[nrActions];
         accumulatedReward = new double[nrActions];
-        joinedTables = new HashSet<Integer>();
-        unjoinedTables = new ArrayList<>();
+        joinedTables = 0;
         nextTable = new int[nrTables];
         for (int tableCtr = 0; tableCtr < nrTables; ++tableCtr) {
-            unjoinedTables.add(tableCtr);
             nextTable[tableCtr] = tableCtr;
         }
         this.joinOp = joinOp;
         this.useHeuristic = useHeuristic;
-        recommendedActions = new HashSet<Integer>();
-        for (int action = 0; action < nrActions; ++action) {
-            accumulatedReward[action] = 0;
-            recommendedActions.add(action);
-        }
+        recommendedActions = firstBits(nrActions);
     }
     /**
      * Initializes UCT node by expanding parent node.
@@ -143,7 +141,7 @@ public class UctNode {
      */
     public UctNode(long roundCtr, UctNode parent, int joinedTable) {
     	// Count node generation
-    	++JoinStats.nrUctNodes;
+    	JoinStats.nrUctNodes.incrementAndGet();
         createdIn = roundCtr;
         treeLevel = parent.treeLevel + 1;
         nrActions = parent.nrActions - 1;
@@ -152,51 +150,94 @@ public class UctNode {
         accumulatedReward = new double[nrActions];
         query = parent.query;
         nrTables = parent.nrTables;
-        joinedTables = new HashSet<Integer>();
-        joinedTables.addAll(parent.joinedTables);
-        joinedTables.add(joinedTable);
-        unjoinedTables = new ArrayList<Integer>();
-        unjoinedTables.addAll(parent.unjoinedTables);
-        int indexToRemove = unjoinedTables.indexOf(joinedTable);
-        unjoinedTables.remove(indexToRemove);
+        random = parent.random;
+        joinedTables = parent.joinedTables | (1L << joinedTable);
+        // Unjoined tables keep their order from the parent node
         nextTable = new int[nrActions];
-        for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
-            accumulatedReward[actionCtr] = 0;
-            nextTable[actionCtr] = unjoinedTables.get(actionCtr);
+        int actionCtr = 0;
+        for (int table : parent.nextTable) {
+            if (table != joinedTable) {
+                nextTable[actionCtr++] = table;
+            }
         }
         this.joinOp = parent.joinOp;
         // Calculate recommended actions if heuristic is activated
         this.useHeuristic = parent.useHeuristic;
         if (useHeuristic) {
-            recommendedActions = new HashSet<Integer>();
+            long recommended = 0;
             // Iterate over all actions
-            for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
+            for (actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
                 // Get table associated with (join) action
                 int table = nextTable[actionCtr];
                 // Check if at least one predicate connects current
                 // tables to new table.
                 if (query.connected(joinedTables, table)) {
-                    recommendedActions.add(actionCtr);
+                    recommended |= 1L << actionCtr;
                 } // over predicates
             } // over actions
-            if (recommendedActions.isEmpty()) {
-                // add all actions to recommended actions
-                for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
-                    recommendedActions.add(actionCtr);
-                }
-            }
+            // Recommend all actions if none is connected
+            recommendedActions = recommended != 0 ?
+                    recommended : firstBits(nrActions);
         } // if heuristic is used
         else {
-            recommendedActions = null;
+            recommendedActions = firstBits(nrActions);
         }
         // Collect untried actions, restrict to recommended actions
         // if the heuristic is activated.
-        priorityActions = new ArrayList<Integer>();
-        for (int actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
-            if (!useHeuristic || recommendedActions.contains(actionCtr)) {
-                priorityActions.add(actionCtr);
+        priorityActions = new int[Long.bitCount(recommendedActions)];
+        nrPriorityActions = 0;
+        for (actionCtr = 0; actionCtr < nrActions; ++actionCtr) {
+            if ((recommendedActions & (1L << actionCtr)) != 0) {
+                priorityActions[nrPriorityActions++] = actionCtr;
+            }
+        }
+    }
+    /**
+     * Returns bit mask in which the given number
+     * of least significant bits are set (e.g., to
+     * represent all actions or all tables).
+     *
+     * @param nrBits	number of bits to set
+     * @return			bit mask with first bits set
+     */
+    public static long firstBits(int nrBits) {
+        return nrBits == 64 ? -1L : (1L << nrBits) - 1;
+    }
+    /**
+     * Returns bit mask of candidate tables that are connected
+     * via join predicates to the already joined tables.
+     *
+     * @param query			query whose tables are joined
+     * @param joined		bit mask of joined tables
+     * @param candidates	bit mask of candidate tables
+     * @return				bit mask of connected candidates
+     */
+    public static long connectedTables(QueryInfo query,
+            long joined, long candidates) {
+        long connected = 0;
+        for (long remaining = candidates; remaining != 0;
+                remaining &= remaining - 1) {
+            int table = Long.numberOfTrailingZeros(remaining);
+            if (query.connected(joined, table)) {
+                connected |= 1L << table;
             }
         }
+        return connected;
+    }
+    /**
+     * Returns table with given rank among tables in bit mask
+     * (selecting a random rank yields the same distribution
+     * as picking the first table in a shuffled list).
+     *
+     * @param tables	bit mask of tables
+     * @param rank		rank of table to return (starting from 0)
+     * @return			index of table with given rank
+     */
+    public static int nthTable(long tables, int rank) {
+        for (int rankCtr = 0; rankCtr < rank; ++rankCtr) {
+            tables &= tables - 1;
+        }
+        return Long.numberOfTrailingZeros(tables);
     }
     /**
      * Select most interesting action to try next. Also updates
@@ -207,12 +248,12 @@ public class UctNode {
      */
     int selectAction(SelectionPolicy policy) {
         // Are there untried actions?
-        if (!priorityActions.isEmpty()) {
-            int nrUntried = priorityActions.size();
-            int actionIndex = random.nextInt(nrUntried);
-            int action = priorityActions.get(actionIndex);
+        if (nrPriorityActions > 0) {
+            int actionIndex = random.nextInt(nrPriorityActions);
+            int action = priorityActions[actionIndex];
             // Remove from untried actions and return
-            priorityActions.remove(actionIndex);
+            --nrPriorityActions;
+            priorityActions[actionIndex] = priorityActions[nrPriorityActions];
             // System.out.println("Untried action: " + action);
             return action;
         } else {
@@ -231,10 +272,7 @@ public class UctNode {
                 // Calculate index of current action
                 int action = (offset + actionCtr) % nrActions;
                 // if heuristic is used, choose only from recommended actions
-                if (useHeuristic && recommendedActions.size() == 0) {
-                    throw new RuntimeException("there are no recommended exception and we are trying to use heuristic");
-                }
-                if (useHeuristic && !recommendedActions.contains(action))
+                if (useHeuristic && (recommendedActions & (1L << action)) == 0)
                     continue;
                 double meanReward = accumulatedReward[action] / nrTries[action];
                 double exploration = Math.sqrt(Math.log(nrVisits) / nrTries[action]);
@@ -280,6 +318,27 @@ public class UctNode {
             return bestAction;
         } // if there are unvisited actions
     }
+    /**
+     * Adds statistics from prior query evaluations for given
+     * action (e.g., from cached join orders). Removes action
+     * from untried actions.
+     *
+     * @param action	action to which statistics refer
+     * @param tries		number of prior tries
+     * @param reward	reward accumulated over prior tries
+     */
+    void addPrior(int action, int tries, double reward) {
+        nrVisits += tries;
+        nrTries[action] += tries;
+        accumulatedReward[action] += reward;
+        for (int priorityCtr = 0; priorityCtr < nrPriorityActions; ++priorityCtr) {
+            if (priorityActions[priorityCtr] == action) {
+                --nrPriorityActions;
+                priorityActions[priorityCtr] = priorityActions[nrPriorityActions];
+                break;
+            }
+        }
+    }
     /**
      * Updates UCT statistics after sampling.
      *
@@ -301,48 +360,24 @@ public class UctNode {
     double playout(int[] joinOrder) throws Exception {
         // Last selected table
         int lastTable = joinOrder[treeLevel];
-        // Should we avoid Cartesian product joins?
-        if (useHeuristic) {
-            Set<Integer> newlyJoined = new HashSet<Integer>();
-            newlyJoined.addAll(joinedTables);
-            newlyJoined.add(lastTable);
-            // Iterate over join order positions to fill
-            List<Integer> unjoinedTablesShuffled = new ArrayList<Integer>();
-            unjoinedTablesShuffled.addAll(unjoinedTables);
-            Collections.shuffle(unjoinedTablesShuffled);
-            for (int posCtr = treeLevel + 1; posCtr < nrTables; ++posCtr) {
-                boolean foundTable = false;
-                for (int table : unjoinedTablesShuffled) {
-                    if (!newlyJoined.contains(table) &&
-                            query.connected(newlyJoined, table)) {
-                        joinOrder[posCtr] = table;
-                        newlyJoined.add(table);
-                        foundTable = true;
-                        break;
-                    }
-                }
-                if (!foundTable) {
-                    for (int table : unjoinedTablesShuffled) {
-                        if (!newlyJoined.contains(table)) {
-                            joinOrder[posCtr] = table;
-                            newlyJoined.add(table);
-                            break;
-                        }
-                    }
-                }
-            }
-        } else {
-            // Shuffle remaining tables
-            Collections.shuffle(unjoinedTables);
-            Iterator<Integer> unjoinedTablesIter = unjoinedTables.iterator();
-            // Fill in remaining join order positions
-            for (int posCtr = treeLevel + 1; posCtr < nrTables; ++posCtr) {
-                int nextTable = unjoinedTablesIter.next();
-                while (nextTable == lastTable) {
-                    nextTable = unjoinedTablesIter.next();
+        long newlyJoined = joinedTables | (1L << lastTable);
+        long unjoined = ~newlyJoined & firstBits(nrTables);
+        // Iterate over join order positions to fill
+        for (int posCtr = treeLevel + 1; posCtr < nrTables; ++posCtr) {
+            long candidates = unjoined;
+            // Should we avoid Cartesian product joins?
+            if (useHeuristic) {
+                long connected = connectedTables(query, newlyJoined, unjoined);
+                if (connected != 0) {
+                    candidates = connected;
                 }
-                joinOrder[posCtr] = nextTable;
             }
+            // Select random table among candidates
+            int table = nthTable(candidates,
+                    random.nextInt(Long.bitCount(candidates)));
+            joinOrder[posCtr] = table;
+            newlyJoined |= 1L << table;
+            unjoined &= ~(1L << table);
         }
         // Evaluate completed join order and return reward
         return joinOp.execute(joinOrder);
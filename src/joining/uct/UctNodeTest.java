@@ -0,0 +1,121 @@
+package joining.uct;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import catalog.CatalogManager;
+import catalog.info.ColumnInfo;
+import catalog.info.DbInfo;
+import catalog.info.TableInfo;
+import joining.join.MultiWayJoin;
+import joining.parallel.SharedUctNode;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import query.QueryInfo;
+import types.SQLtype;
+
+class UctNodeTest {
+	/**
+	 * Number of tables in test query.
+	 */
+	static final int NR_TABLES = 5;
+	/**
+	 * Number of samples until the UCT tree is fully expanded.
+	 */
+	static final int NR_WARMUP = 50000;
+	/**
+	 * Number of samples during which allocations are measured.
+	 */
+	static final int NR_MEASURED = 10000;
+	/**
+	 * Analyzes chain join query over test tables.
+	 */
+	static QueryInfo chainQuery() throws Exception {
+		CatalogManager.currentDB = new DbInfo("test");
+		StringBuilder from = new StringBuilder();
+		StringBuilder where = new StringBuilder();
+		for (int tableCtr=0; tableCtr<NR_TABLES; ++tableCtr) {
+			TableInfo table = new TableInfo("t" + tableCtr, false);
+			table.addColumn(new ColumnInfo("a", SQLtype.INT, 
+					false, false, false, false));
+			CatalogManager.currentDB.addTable(table);
+			from.append(tableCtr > 0 ? ", " : "").append("t" + tableCtr);
+			if (tableCtr > 0) {
+				where.append(tableCtr > 1 ? " AND " : "");
+				where.append("t" + (tableCtr-1) + ".a = t" + tableCtr + ".a");
+			}
+		}
+		String sql = "SELECT COUNT(*) FROM " + from + " WHERE " + where;
+		Select select = (Select)CCJSqlParserUtil.parse(sql);
+		return new QueryInfo((PlainSelect)select.getSelectBody(), 
+				false, -1, -1, null);
+	}
+	/**
+	 * Join operator that returns rewards without executing joins.
+	 */
+	static MultiWayJoin rewardOnlyJoin(QueryInfo query) throws Exception {
+		return new MultiWayJoin(query) {
+			@Override
+			public double execute(int[] order) throws Exception {
+				return order[0] * 0.1 + order[1] * 0.01;
+			}
+			@Override
+			public boolean isFinished() {
+				return false;
+			}
+		};
+	}
+	/**
+	 * Returns number of bytes allocated by the current thread.
+	 */
+	static long allocatedBytes() {
+		com.sun.management.ThreadMXBean threadBean = 
+				(com.sun.management.ThreadMXBean)
+				ManagementFactory.getThreadMXBean();
+		return threadBean.getThreadAllocatedBytes(
+				Thread.currentThread().getId());
+	}
+
+	@Test
+	void uctSamplingDoesNotAllocate() throws Exception {
+		QueryInfo query = chainQuery();
+		UctNode root = new UctNode(0, query, true, rewardOnlyJoin(query));
+		int[] joinOrder = new int[NR_TABLES];
+		long roundCtr = 0;
+		for (int sampleCtr=0; sampleCtr<NR_WARMUP; ++sampleCtr) {
+			root.sample(++roundCtr, joinOrder, SelectionPolicy.UCB1);
+		}
+		long bytesBefore = allocatedBytes();
+		for (int sampleCtr=0; sampleCtr<NR_MEASURED; ++sampleCtr) {
+			root.sample(++roundCtr, joinOrder, SelectionPolicy.UCB1);
+		}
+		long bytesAfter = allocatedBytes();
+		// Tolerate allocations by the measurement itself
+		assertTrue(bytesAfter - bytesBefore < 1024, 
+				"Allocated " + (bytesAfter - bytesBefore) + " bytes");
+	}
+
+	@Test
+	void sharedUctSamplingDoesNotAllocate() throws Exception {
+		QueryInfo query = chainQuery();
+		MultiWayJoin joinOp = rewardOnlyJoin(query);
+		SharedUctNode root = new SharedUctNode(0, query, true);
+		int[] joinOrder = new int[NR_TABLES];
+		long roundCtr = 0;
+		for (int sampleCtr=0; sampleCtr<NR_WARMUP; ++sampleCtr) {
+			root.sample(++roundCtr, joinOrder, SelectionPolicy.UCB1, joinOp);
+		}
+		long bytesBefore = allocatedBytes();
+		for (int sampleCtr=0; sampleCtr<NR_MEASURED; ++sampleCtr) {
+			root.sample(++roundCtr, joinOrder, SelectionPolicy.UCB1, joinOp);
+		}
+		long bytesAfter = allocatedBytes();
+		// Tolerate allocations by the measurement itself
+		assertTrue(bytesAfter - bytesBefore < 1024, 
+				"Allocated " + (bytesAfter - bytesBefore) + " bytes");
+	}
+}
@@ -10,11 +10,19 @@ import buffer.BufferManager;
 import catalog.CatalogManager;
 import config.GeneralConfig;
 import config.ParallelConfig;
+import config.PreConfig;
+import data.ColumnData;
+import data.CompressedIntData;
+import data.IntData;
 import expressions.ExpressionInfo;
 import expressions.compilation.EvaluatorType;
 import expressions.compilation.ExpressionCompiler;
 import expressions.compilation.UnaryBoolEval;
+import indexing.BloomFilter;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.schema.Column;
 import query.ColumnRef;
+import query.where.WhereUtil;
 
 /**
  * Filters a table by applying a unary predicate.
@@ -56,6 +64,47 @@ public class Filter {
 		unaryPred.finalExpression.accept(unaryCompiler);
 		return (UnaryBoolEval)unaryCompiler.getBoolEval();
 	}
+	/**
+	 * Evaluates conjuncts of given predicate that restrict compressed
+	 * integer columns to constant ranges (or constants) directly on
+	 * the compressed data. Adds all other conjuncts to given list.
+	 * 
+	 * @param unaryPred			unary predicate
+	 * @param columnMapping		maps query to database columns
+	 * @param remaining			conjuncts that were not evaluated
+	 * @return					rows satisfying evaluated conjuncts or
+	 * 							null if no conjunct was evaluated
+	 * @throws Exception
+	 */
+	static BitSet filterCompressed(ExpressionInfo unaryPred,
+			Map<ColumnRef, ColumnRef> columnMapping,
+			List<Expression> remaining) throws Exception {
+		BitSet result = null;
+		for (Expression conjunct : unaryPred.conjuncts) {
+			IndexRange range = IndexRange.bounds(conjunct);
+			ColumnData data = null;
+			if (range != null) {
+				Column column = range.column;
+				ColumnRef queryRef = new ColumnRef(
+						column.getTable().getName(), 
+						column.getColumnName());
+				ColumnRef dbRef = columnMapping.get(queryRef);
+				data = dbRef == null ? null : BufferManager.getData(dbRef);
+			}
+			if (data instanceof CompressedIntData) {
+				BitSet rows = ((CompressedIntData)data).rowsInRange(
+						range.lower, range.upper);
+				if (result == null) {
+					result = rows;
+				} else {
+					result.and(rows);
+				}
+			} else {
+				remaining.add(conjunct);
+			}
+		}
+		return result;
+	}
 	/**
 	 * Returns bit set indicating which rows satisfy a given unary predicate.
 	 * 
@@ -96,24 +145,69 @@ public class Filter {
 	public static List<Integer> executeToList(ExpressionInfo unaryPred,
 			String tableName, Map<ColumnRef, ColumnRef> columnMapping) 
 					throws Exception {
+		return executeToList(unaryPred, tableName, columnMapping, 
+				new ArrayList<>(), new ArrayList<>());
+	}
+	/**
+	 * Returns list of indices of rows satisfying given unary
+	 * predicate whose values in given columns may be contained
+	 * in the associated Bloom filters. Bloom filters are checked
+	 * before the predicate (and update their counters of removed
+	 * rows accordingly).
+	 * 
+	 * @param unaryPred		unary predicate
+	 * @param tableName		name of DB table to which predicate applies
+	 * @param columnMapping	maps query columns to buffered columns
+	 * @param bloomCols		query columns checked via Bloom filters
+	 * @param bloomFilters	Bloom filter for each checked column
+	 * @return				list of satisfying row indices
+	 */
+	public static List<Integer> executeToList(ExpressionInfo unaryPred,
+			String tableName, Map<ColumnRef, ColumnRef> columnMapping,
+			List<ColumnRef> bloomCols, List<BloomFilter> bloomFilters) 
+					throws Exception {
 		// Load required columns for predicate evaluation
 		loadPredCols(unaryPred, columnMapping);
+		// Retrieve data of columns checked by Bloom filters
+		int nrBloomFilters = bloomFilters.size();
+		IntData[] bloomData = new IntData[nrBloomFilters];
+		for (int filterCtr=0; filterCtr<nrBloomFilters; ++filterCtr) {
+			ColumnRef dbRef = columnMapping.get(bloomCols.get(filterCtr));
+			bloomData[filterCtr] = (IntData)BufferManager.getData(dbRef);
+		}
+		// Evaluate conjuncts on compressed columns if possible
+		BitSet candidates = null;
+		ExpressionInfo remainingPred = unaryPred;
+		if (PreConfig.FILTER_COMPRESSED) {
+			List<Expression> remaining = new ArrayList<>();
+			candidates = filterCompressed(unaryPred, 
+					columnMapping, remaining);
+			if (candidates != null) {
+				Expression remainingExpr = WhereUtil.conjunction(remaining);
+				remainingPred = remainingExpr == null ? null : 
+					new ExpressionInfo(unaryPred.queryInfo, remainingExpr);
+			}
+		}
 		// Compile unary predicate for fast evaluation
-		UnaryBoolEval unaryBoolEval = compilePred(unaryPred, columnMapping);
+		UnaryBoolEval unaryBoolEval = remainingPred == null ? null :
+			compilePred(remainingPred, columnMapping);
 		// Get cardinality of table referenced in predicate
 		int cardinality = CatalogManager.getCardinality(tableName);
 		// Initialize filter result
 		List<Integer> result = null;
 		// Choose between sequential and parallel processing
+		BitSet rowsToCheck = candidates;
 		if (cardinality <= ParallelConfig.PRE_BATCH_SIZE) {
 			RowRange allTuples = new RowRange(0, cardinality - 1);
-			result = filterBatch(unaryBoolEval, allTuples);
+			result = filterBatch(unaryBoolEval, allTuples, 
+					rowsToCheck, bloomData, bloomFilters);
 		} else {
 			// Divide tuples into batches
 			List<RowRange> batches = split(cardinality);
 			// Process batches in parallel
 			result = batches.parallelStream().flatMap(batch -> 
-				filterBatch(unaryBoolEval, batch).stream()).collect(
+				filterBatch(unaryBoolEval, batch, rowsToCheck,
+						bloomData, bloomFilters).stream()).collect(
 						Collectors.toList());
 		}
 		// Clean up columns loaded for this operation
@@ -145,25 +239,76 @@ public class Filter {
 		}
 		return batches;
 	}
+	/**
+	 * Returns next row to check, starting from given row.
+	 * 
+	 * @param row			index of first row to consider
+	 * @param rowsToCheck	rows to check (all rows if null)
+	 * @return				next row to check or -1
+	 */
+	static int nextRow(int row, BitSet rowsToCheck) {
+		return rowsToCheck == null ? row : rowsToCheck.nextSetBit(row);
+	}
+	/**
+	 * Checks whether the given row may have join partners
+	 * according to all Bloom filters. Increases counter of
+	 * the first Bloom filter that excludes the row.
+	 * 
+	 * @param row			index of row to check
+	 * @param bloomData		data of columns checked via Bloom filters
+	 * @param bloomFilters	Bloom filter for each checked column
+	 * @param nrRemoved		number of rows removed by each filter
+	 * @return				true iff no Bloom filter excludes row
+	 */
+	static boolean passesBloomFilters(int row, IntData[] bloomData, 
+			List<BloomFilter> bloomFilters, long[] nrRemoved) {
+		for (int filterCtr=0; filterCtr<bloomData.length; ++filterCtr) {
+			IntData data = bloomData[filterCtr];
+			if (data.isNull(row) || !bloomFilters.get(
+					filterCtr).mightContain(data.get(row))) {
+				++nrRemoved[filterCtr];
+				return false;
+			}
+		}
+		return true;
+	}
 	/**
 	 * Filters given tuple batch using specified predicate evaluator,
 	 * return indices of rows within the batch that satisfy the 
 	 * predicate.
 	 * 
-	 * @param unaryBoolEval	unary predicate evaluator
+	 * @param unaryBoolEval	unary predicate evaluator (null if
+	 * 						all rows to check satisfy predicate)
 	 * @param rowRange		range of tuple indices of batch
+	 * @param rowsToCheck	only rows in this set are checked (all
+	 * 						rows in batch are checked if null)
+	 * @param bloomData		data of columns checked via Bloom filters
+	 * @param bloomFilters	Bloom filter for each checked column
 	 * @return				list of indices satisfying the predicate
 	 */
 	static List<Integer> filterBatch(UnaryBoolEval unaryBoolEval, 
-			RowRange rowRange) {
+			RowRange rowRange, BitSet rowsToCheck, IntData[] bloomData, 
+			List<BloomFilter> bloomFilters) {
 		List<Integer> result = new ArrayList<Integer>();
-		// Evaluate predicate for each table row
-		for (int rowCtr=rowRange.firstTuple; 
-				rowCtr<=rowRange.lastTuple; ++rowCtr) {
-			if (unaryBoolEval.evaluate(rowCtr) > 0) {
+		int nrBloomFilters = bloomData.length;
+		long[] nrRemoved = new long[nrBloomFilters];
+		// Evaluate predicate for each table row (after
+		// dropping rows without join partners).
+		for (int rowCtr=nextRow(rowRange.firstTuple, rowsToCheck); 
+				rowCtr>=0 && rowCtr<=rowRange.lastTuple; 
+				rowCtr=nextRow(rowCtr+1, rowsToCheck)) {
+			if (passesBloomFilters(rowCtr, bloomData, 
+					bloomFilters, nrRemoved) &&
+					(unaryBoolEval == null || 
+					unaryBoolEval.evaluate(rowCtr) > 0)) {
 				result.add(rowCtr);
 			}
 		}
+		// Update statistics on Bloom filters
+		for (int filterCtr=0; filterCtr<nrBloomFilters; ++filterCtr) {
+			bloomFilters.get(filterCtr).nrRemoved.addAndGet(
+					nrRemoved[filterCtr]);
+		}
 		return result;
 	}
 }
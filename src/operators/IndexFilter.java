@@ -10,19 +10,26 @@ import buffer.BufferManager;
 import expressions.normalization.PlainVisitor;
 import indexing.Index;
 import indexing.IntIndex;
+import net.sf.jsqlparser.expression.BinaryExpression;
 import net.sf.jsqlparser.expression.LongValue;
 import net.sf.jsqlparser.expression.StringValue;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
 import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
 import net.sf.jsqlparser.schema.Column;
 import query.ColumnRef;
 import query.QueryInfo;
 
 /**
- * Uses all applicable indices to evaluate a unary
- * predicate and returns set of qualifying row
- * indices. The index filter should only be applied
+ * Uses all applicable indices (hash indices for equality
+ * predicates, sorted indices for range predicates) to
+ * evaluate a unary predicate and returns set of qualifying
+ * row indices. The index filter should only be applied
  * to expressions that pass the IndexTest.
  * 
  * @author immanueltrummer
@@ -61,6 +68,15 @@ public class IndexFilter extends PlainVisitor {
 	
 	@Override
 	public void visit(AndExpression and) {
+		// Intersect ranges on the same column via sorted index
+		IndexRange leftRange = IndexRange.of(query, and.getLeftExpression());
+		IndexRange rightRange = IndexRange.of(query, and.getRightExpression());
+		if (leftRange != null && rightRange != null &&
+				leftRange.index == rightRange.index) {
+			IndexRange range = leftRange.intersect(rightRange);
+			qualifyingRows.push(range.index.rowsInRange(range.lower, range.upper));
+			return;
+		}
 		and.getLeftExpression().accept(this);
 		and.getRightExpression().accept(this);
 		// Intersect sorted row index lists
@@ -142,7 +158,7 @@ public class IndexFilter extends PlainVisitor {
 		List<Integer> rows = new ArrayList<Integer>();
 		qualifyingRows.push(rows);
 		IntIndex intIndex = (IntIndex)index;
-		int startPos = intIndex.keyToPositions.getOrDefault(constant, -1);
+		int startPos = intIndex.firstPos(constant);
 		if (startPos >= 0) {
 			int nrEntries = intIndex.positions[startPos];
 			for (int i=0; i<nrEntries; ++i) {
@@ -153,6 +169,41 @@ public class IndexFilter extends PlainVisitor {
 		}
 	}
 	
+	@Override
+	public void visit(Between between) {
+		IndexRange range = IndexRange.fromBetween(query, between);
+		qualifyingRows.push(range.index.rowsInRange(range.lower, range.upper));
+	}
+	
+	@Override
+	public void visit(GreaterThan greaterThan) {
+		visitComparison(greaterThan);
+	}
+	
+	@Override
+	public void visit(GreaterThanEquals greaterThanEquals) {
+		visitComparison(greaterThanEquals);
+	}
+	
+	@Override
+	public void visit(MinorThan minorThan) {
+		visitComparison(minorThan);
+	}
+	
+	@Override
+	public void visit(MinorThanEquals minorThanEquals) {
+		visitComparison(minorThanEquals);
+	}
+	/**
+	 * Collects rows satisfying comparison via sorted index.
+	 * 
+	 * @param comparison	comparison that passed index test
+	 */
+	void visitComparison(BinaryExpression comparison) {
+		IndexRange range = IndexRange.fromComparison(query, comparison);
+		qualifyingRows.push(range.index.rowsInRange(range.lower, range.upper));
+	}
+	
 	@Override
 	public void visit(LongValue longValue) {
 		extractedConstants.push((int)longValue.getValue());
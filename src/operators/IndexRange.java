@@ -0,0 +1,283 @@
+package operators;
+
+import buffer.BufferManager;
+import indexing.SortedIntIndex;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.DateTimeLiteralExpression;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.schema.Column;
+import query.ColumnRef;
+import query.QueryInfo;
+
+/**
+ * Describes a range predicate on an integer column
+ * (comparison or BETWEEN with constants) that can be
+ * evaluated using a sorted index (or, for ranges without
+ * index, on compressed column data).
+ *
+ * @author immanueltrummer
+ *
+ */
+public class IndexRange {
+	/**
+	 * Restricted column.
+	 */
+	public final Column column;
+	/**
+	 * Sorted index on restricted column (null for ranges
+	 * obtained via {@link #bounds(Expression)}).
+	 */
+	public final SortedIntIndex index;
+	/**
+	 * Lower bound on column values (inclusive).
+	 */
+	public final long lower;
+	/**
+	 * Upper bound on column values (inclusive).
+	 */
+	public final long upper;
+	/**
+	 * Initializes range for given column and bounds.
+	 *
+	 * @param column	restricted column
+	 * @param index		sorted index on restricted column
+	 * @param lower		inclusive lower bound on values
+	 * @param upper		inclusive upper bound on values
+	 */
+	IndexRange(Column column, SortedIntIndex index, 
+			long lower, long upper) {
+		this.column = column;
+		this.index = index;
+		this.lower = Math.max(lower, Integer.MIN_VALUE);
+		this.upper = Math.min(upper, Integer.MAX_VALUE);
+	}
+	/**
+	 * Returns range described by given predicate if it is a
+	 * comparison or BETWEEN predicate that can be evaluated
+	 * via a sorted index, returns null otherwise.
+	 *
+	 * @param query		query containing predicate
+	 * @param predicate	predicate to analyze
+	 * @return			range of values or null
+	 */
+	public static IndexRange of(QueryInfo query, Expression predicate) {
+		while (predicate instanceof Parenthesis) {
+			predicate = ((Parenthesis)predicate).getExpression();
+		}
+		if (predicate instanceof GreaterThan ||
+				predicate instanceof GreaterThanEquals ||
+				predicate instanceof MinorThan ||
+				predicate instanceof MinorThanEquals) {
+			return fromComparison(query, (BinaryExpression)predicate);
+		} else if (predicate instanceof Between) {
+			return fromBetween(query, (Between)predicate);
+		} else {
+			return null;
+		}
+	}
+	/**
+	 * Returns range described by given predicate if it is an
+	 * equality, comparison, or BETWEEN predicate on a column
+	 * with constants, returns null otherwise. The returned
+	 * range is not associated with an index.
+	 *
+	 * @param predicate	predicate to analyze
+	 * @return			range of values or null
+	 */
+	public static IndexRange bounds(Expression predicate) {
+		while (predicate instanceof Parenthesis) {
+			predicate = ((Parenthesis)predicate).getExpression();
+		}
+		if (predicate instanceof EqualsTo ||
+				predicate instanceof GreaterThan ||
+				predicate instanceof GreaterThanEquals ||
+				predicate instanceof MinorThan ||
+				predicate instanceof MinorThanEquals) {
+			return comparisonBounds((BinaryExpression)predicate);
+		} else if (predicate instanceof Between) {
+			return betweenBounds((Between)predicate);
+		} else {
+			return null;
+		}
+	}
+	/**
+	 * Returns range described by a comparison between a
+	 * column and a constant or null if the comparison has
+	 * a different form or if no sorted index is available.
+	 *
+	 * @param query			query containing comparison
+	 * @param comparison	comparison (<, <=, >, >=)
+	 * @return				range of values or null
+	 */
+	static IndexRange fromComparison(QueryInfo query,
+			BinaryExpression comparison) {
+		return withIndex(query, comparisonBounds(comparison));
+	}
+	/**
+	 * Returns range described by a BETWEEN predicate on a
+	 * column with constant bounds or null if the predicate
+	 * has a different form or no sorted index is available.
+	 *
+	 * @param query		query containing predicate
+	 * @param between	BETWEEN predicate
+	 * @return			range of values or null
+	 */
+	static IndexRange fromBetween(QueryInfo query, Between between) {
+		return withIndex(query, betweenBounds(between));
+	}
+	/**
+	 * Returns range described by a comparison between a
+	 * column and a constant (without index) or null if
+	 * the comparison has a different form.
+	 *
+	 * @param comparison	comparison (=, <, <=, >, >=)
+	 * @return				range of values or null
+	 */
+	static IndexRange comparisonBounds(BinaryExpression comparison) {
+		Expression left = comparison.getLeftExpression();
+		Expression right = comparison.getRightExpression();
+		// Normalize to column on the left side
+		boolean flipped = !(left instanceof Column);
+		Expression columnExpr = flipped ? right : left;
+		Expression constantExpr = flipped ? left : right;
+		Long constant = constant(constantExpr);
+		if (!(columnExpr instanceof Column) || constant == null) {
+			return null;
+		}
+		Column column = (Column)columnExpr;
+		long value = constant;
+		if (comparison instanceof EqualsTo) {
+			return new IndexRange(column, null, value, value);
+		}
+		boolean greater = comparison instanceof GreaterThan ||
+				comparison instanceof GreaterThanEquals;
+		boolean strict = comparison instanceof GreaterThan ||
+				comparison instanceof MinorThan;
+		// Column > constant is constant < column
+		if (greater != flipped) {
+			return new IndexRange(column, null,
+					strict ? value + 1 : value, Integer.MAX_VALUE);
+		} else {
+			return new IndexRange(column, null,
+					Integer.MIN_VALUE, strict ? value - 1 : value);
+		}
+	}
+	/**
+	 * Returns range described by a BETWEEN predicate on a
+	 * column with constant bounds (without index) or null
+	 * if the predicate has a different form.
+	 *
+	 * @param between	BETWEEN predicate
+	 * @return			range of values or null
+	 */
+	static IndexRange betweenBounds(Between between) {
+		Long lower = constant(between.getBetweenExpressionStart());
+		Long upper = constant(between.getBetweenExpressionEnd());
+		if (between.isNot() || 
+				!(between.getLeftExpression() instanceof Column) ||
+				lower == null || upper == null) {
+			return null;
+		}
+		return new IndexRange((Column)between.getLeftExpression(),
+				null, lower, upper);
+	}
+	/**
+	 * Associates given range with sorted index on its column,
+	 * returns null if the range or the index is missing.
+	 *
+	 * @param query	query containing range predicate
+	 * @param range	range without index (may be null)
+	 * @return		range with sorted index or null
+	 */
+	static IndexRange withIndex(QueryInfo query, IndexRange range) {
+		SortedIntIndex index = range == null ? 
+				null : sortedIndex(query, range.column);
+		return index == null ? null : new IndexRange(
+				range.column, index, range.lower, range.upper);
+	}
+	/**
+	 * Returns sorted index on given column or null if the
+	 * expression is no column or no index is available.
+	 *
+	 * @param query			query containing expression
+	 * @param expression	expression referencing column
+	 * @return				sorted index or null
+	 */
+	static SortedIntIndex sortedIndex(QueryInfo query,
+			Expression expression) {
+		if (!(expression instanceof Column)) {
+			return null;
+		}
+		Column column = (Column)expression;
+		String aliasName = column.getTable().getName();
+		String tableName = query.aliasToTable.get(aliasName);
+		String columnName = column.getColumnName();
+		ColumnRef colRef = new ColumnRef(tableName, columnName);
+		return BufferManager.colToSortedIndex.get(colRef);
+	}
+	/**
+	 * Returns integer representation of given constant or
+	 * null if the expression is no integer or date constant.
+	 *
+	 * @param expression	constant expression
+	 * @return				integer value or null
+	 */
+	static Long constant(Expression expression) {
+		if (expression instanceof LongValue) {
+			return ((LongValue)expression).getValue();
+		} else if (expression instanceof DateValue) {
+			// Dates are represented as Unix time
+			return (long)(int)(((DateValue)expression).
+					getValue().getTime()/1000);
+		} else if (expression instanceof DateTimeLiteralExpression) {
+			DateTimeLiteralExpression literal =
+					(DateTimeLiteralExpression)expression;
+			if (literal.getType().equals(
+					DateTimeLiteralExpression.DateTime.DATE)) {
+				return constant(new DateValue(literal.getValue()));
+			}
+		}
+		return null;
+	}
+	/**
+	 * Returns fraction of indexed rows in range.
+	 *
+	 * @return	selectivity of range predicate
+	 */
+	public double selectivity() {
+		int cardinality = index.intData.cardinality;
+		return cardinality == 0 ? 0 :
+			index.nrInRange(lower, upper) / (double)cardinality;
+	}
+	/**
+	 * Returns intersection with given range on same column.
+	 *
+	 * @param other	range on the same column
+	 * @return		range satisfying both restrictions
+	 */
+	public IndexRange intersect(IndexRange other) {
+		return new IndexRange(column, index, Math.max(lower, other.lower),
+				Math.min(upper, other.upper));
+	}
+	/**
+	 * Returns BETWEEN predicate describing this range.
+	 *
+	 * @return	predicate restricting column to range
+	 */
+	public Expression toExpression() {
+		Between between = new Between();
+		between.setLeftExpression(column);
+		between.setBetweenExpressionStart(new LongValue(lower));
+		between.setBetweenExpressionEnd(new LongValue(upper));
+		return between;
+	}
+}
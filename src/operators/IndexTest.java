@@ -87,6 +87,13 @@ public class IndexTest implements ExpressionVisitor {
 	 * Whether we can use an index to evaluate input predicate.
 	 */
 	public boolean canUseIndex = true;
+	/**
+	 * Estimated fraction of rows satisfying range predicates
+	 * evaluated via sorted indices (upper bound obtained by
+	 * summing over disjuncts and taking the minimum over
+	 * conjuncts, ignoring predicates that use no ranges).
+	 */
+	public double rangeSelectivity = 0;
 	/**
 	 * Initialize index test for given query.
 	 * 
@@ -96,6 +103,20 @@ public class IndexTest implements ExpressionVisitor {
 		this.query = query;
 	}
 
+	/**
+	 * Updates test result for a range predicate.
+	 * 
+	 * @param range	value range or null if predicate
+	 * 				cannot be evaluated via index
+	 */
+	void visitRange(IndexRange range) {
+		if (range == null) {
+			canUseIndex = false;
+		} else {
+			rangeSelectivity += range.selectivity();
+		}
+	}
+
 	@Override
 	public void visit(NullValue nullValue) {
 		canUseIndex = false;
@@ -189,8 +210,27 @@ public class IndexTest implements ExpressionVisitor {
 
 	@Override
 	public void visit(AndExpression andExpression) {
+		// Conjunction is at most as selective as each operand
+		double priorSelectivity = rangeSelectivity;
+		rangeSelectivity = 0;
 		andExpression.getLeftExpression().accept(this);
+		double leftSelectivity = rangeSelectivity;
+		rangeSelectivity = 0;
 		andExpression.getRightExpression().accept(this);
+		double rightSelectivity = rangeSelectivity;
+		// Intersect ranges on the same column
+		IndexRange leftRange = IndexRange.of(query, 
+				andExpression.getLeftExpression());
+		IndexRange rightRange = IndexRange.of(query, 
+				andExpression.getRightExpression());
+		if (leftRange != null && rightRange != null && 
+				leftRange.index == rightRange.index) {
+			rangeSelectivity = priorSelectivity + 
+					leftRange.intersect(rightRange).selectivity();
+		} else {
+			rangeSelectivity = priorSelectivity + 
+					Math.min(leftSelectivity, rightSelectivity);
+		}
 	}
 
 	@Override
@@ -201,7 +241,7 @@ public class IndexTest implements ExpressionVisitor {
 
 	@Override
 	public void visit(Between between) {
-		canUseIndex = false;
+		visitRange(IndexRange.fromBetween(query, between));
 	}
 
 	@Override
@@ -223,12 +263,12 @@ public class IndexTest implements ExpressionVisitor {
 
 	@Override
 	public void visit(GreaterThan greaterThan) {
-		canUseIndex = false;
+		visitRange(IndexRange.fromComparison(query, greaterThan));
 	}
 
 	@Override
 	public void visit(GreaterThanEquals greaterThanEquals) {
-		canUseIndex = false;
+		visitRange(IndexRange.fromComparison(query, greaterThanEquals));
 	}
 
 	@Override
@@ -249,12 +289,12 @@ public class IndexTest implements ExpressionVisitor {
 
 	@Override
 	public void visit(MinorThan minorThan) {
-		canUseIndex = false;
+		visitRange(IndexRange.fromComparison(query, minorThan));
 	}
 
 	@Override
 	public void visit(MinorThanEquals minorThanEquals) {
-		canUseIndex = false;
+		visitRange(IndexRange.fromComparison(query, minorThanEquals));
 	}
 
 	@Override
@@ -79,7 +79,7 @@ public class MapRows {
 			// Generate result data and store in buffer
 			IntData intResult = new IntData(outCard);
 			if (groupBy && outCard<0) {
-				intResult.isNull.set(0, outCard-1);
+				intResult.addNulls(0, outCard-1);
 			}
 			BufferManager.colToData.put(targetRef, intResult);
 			// Iterate over source table and store results
@@ -89,7 +89,7 @@ public class MapRows {
 				int targetRow = !groupBy?srcRow:groupData.data[srcRow];
 				boolean notNull = unaryIntEval.evaluate(srcRow, rowResult);
 				if (!groupBy || notNull) {
-					intResult.isNull.set(targetRow, !notNull);
+					intResult.setNull(targetRow, !notNull);
 					intResult.data[targetRow] = rowResult[0];					
 				}
 			}			
@@ -106,7 +106,7 @@ public class MapRows {
 			// Generate result data and store in buffer
 			LongData longResult = new LongData(outCard);
 			if (groupBy && outCard<0) {
-				longResult.isNull.set(0, outCard-1);
+				longResult.addNulls(0, outCard-1);
 			}
 			BufferManager.colToData.put(targetRef, longResult);
 			// Iterate over source table and store results
@@ -116,7 +116,7 @@ public class MapRows {
 				int targetRow = !groupBy?srcRow:groupData.data[srcRow];
 				boolean notNull = unaryLongEval.evaluate(srcRow, rowResult);
 				if (!groupBy || notNull) {
-					longResult.isNull.set(targetRow, !notNull);
+					longResult.setNull(targetRow, !notNull);
 					longResult.data[targetRow] = rowResult[0];					
 				}
 			}			
@@ -133,7 +133,7 @@ public class MapRows {
 			// Generate result data and store in buffer
 			DoubleData doubleResult = new DoubleData(outCard);
 			if (groupBy && outCard<0) {
-				doubleResult.isNull.set(0, outCard-1);
+				doubleResult.addNulls(0, outCard-1);
 			}
 			BufferManager.colToData.put(targetRef, doubleResult);
 			// Iterate over source table and store results
@@ -143,7 +143,7 @@ public class MapRows {
 				int targetRow = !groupBy?srcRow:groupData.data[srcRow];
 				boolean notNull = unaryDoubleEval.evaluate(srcRow, rowResult);
 				if (!groupBy || notNull) {
-					doubleResult.isNull.set(targetRow, !notNull);
+					doubleResult.setNull(targetRow, !notNull);
 					doubleResult.data[targetRow] = rowResult[0];					
 				}
 			}			
@@ -160,7 +160,7 @@ public class MapRows {
 			// Generate result data and store in buffer
 			StringData stringResult = new StringData(outCard);
 			if (groupBy && outCard<0) {
-				stringResult.isNull.set(0, outCard-1);
+				stringResult.addNulls(0, outCard-1);
 			}
 			BufferManager.colToData.put(targetRef, stringResult);
 			// Iterate over source table and store results
@@ -170,7 +170,7 @@ public class MapRows {
 				int targetRow = !groupBy?srcRow:groupData.data[srcRow];
 				boolean notNull = unaryStringEval.evaluate(srcRow, rowResult);
 				if (!groupBy || notNull) {
-					stringResult.isNull.set(targetRow, !notNull);
+					stringResult.setNull(targetRow, !notNull);
 					stringResult.data[targetRow] = rowResult[0];					
 				}
 			}
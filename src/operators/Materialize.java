@@ -12,7 +12,7 @@ import catalog.info.ColumnInfo;
 import catalog.info.TableInfo;
 import config.GeneralConfig;
 import data.ColumnData;
-import joining.result.ResultTuple;
+import joining.result.JoinResult;
 import query.ColumnRef;
 
 /**
@@ -57,10 +57,8 @@ public class Materialize {
 			resultTable.addColumn(resultCol);
 		}		
 		// Load source data if necessary
-		if (!GeneralConfig.inMemory) {
-			for (ColumnRef sourceColRef : sourceColRefs) {
-				BufferManager.loadColumn(sourceColRef);
-			}
+		for (ColumnRef sourceColRef : sourceColRefs) {
+			BufferManager.getData(sourceColRef);
 		}
 		// Generate column data
 		sourceColRefs.parallelStream().forEach(sourceColRef -> {
@@ -85,32 +83,18 @@ public class Materialize {
 	 * Materializes a join relation from given indices
 	 * for a set of base tables.
 	 * 
-	 * @param tuples			base table indices representing result tuples
+	 * @param result			base table indices representing result tuples
 	 * @param tableToIdx		maps table names to base table indices
 	 * @param sourceCols		set of columns to copy
 	 * @param columnMappings	maps source columns, as in query, to DB columns
 	 * @param targetRelName		name of materialized result relation
 	 * @throws Exception
 	 */
-	public static void execute(Collection<ResultTuple> tuples, 
+	public static void execute(JoinResult result, 
 			Map<String, Integer> tableToIdx, 
 			Collection<ColumnRef> sourceCols, 
 			Map<ColumnRef, ColumnRef> columnMappings, 
 			String targetRelName) throws Exception {
-		/*
-		// Extract dimensions
-		int nrTables = tableToIdx.size();
-		int nrTuples = tuples.size();
-		// Collect row indices for each table
-		Map<Integer, List<Integer>> idxToRows = new ConcurrentHashMap<>();
-		IntStream.range(0, nrTables).parallel().forEach(i-> {
-			List<Integer> rows = new ArrayList<>(nrTuples);
-			for (ResultTuple tuple : tuples) {
-				rows.add(tuple.baseIndices[i]);
-			}
-			idxToRows.put(i, rows);
-		});
-		*/
 		// Update catalog, insert result table
 		TableInfo resultInfo = new TableInfo(targetRelName, true);
 		CatalogManager.currentDB.addTable(resultInfo);
@@ -128,6 +112,10 @@ public class Materialize {
 					srcInfo.type, false, false, false, false);
 			resultInfo.addColumn(targetInfo);
 		}
+		// Load source data if necessary
+		for (ColumnRef srcQueryRef : sourceCols) {
+			BufferManager.getData(columnMappings.get(srcQueryRef));
+		}
 		// Materialize result columns
 		sourceCols.parallelStream().forEach(srcQueryRef -> {
 			// Generate target column reference
@@ -137,7 +125,8 @@ public class Materialize {
 			int tableIdx = tableToIdx.get(srcQueryRef.aliasName);
 			ColumnRef srcDBref = columnMappings.get(srcQueryRef);
 			ColumnData srcData = BufferManager.colToData.get(srcDBref);
-			ColumnData targetData = srcData.copyRows(tuples, tableIdx);
+			ColumnData targetData = srcData.copyRows(
+					result.getTupleIndices(tableIdx), result.size());
 			// Insert into buffer pool
 			BufferManager.colToData.put(targetRef, targetData);
 		});
@@ -41,6 +41,7 @@ public class MinMaxAggregate {
 		SQLtype srcType = CatalogManager.getColumn(sourceRef).type;
 		int cardinality = CatalogManager.getCardinality(srcRel);
 		ColumnData srcData = BufferManager.getData(sourceRef);
+		boolean srcNulls = srcData.hasNulls();
 		// Will store (ordered) indices of result rows
 		List<Integer> resultRows = new ArrayList<>();
 		// Do we aggregate per group or overall?
@@ -49,7 +50,7 @@ public class MinMaxAggregate {
 			int resultRow = -1;
 			for (int row=0; row<cardinality; ++row) {
 				// Only consider non-NULL values
-				if (!srcData.isNull.get(row)) {
+				if (!srcNulls || !srcData.isNull(row)) {
 					// Is this the first row?
 					if (resultRow==-1) {
 						resultRow = row;
@@ -72,7 +73,7 @@ public class MinMaxAggregate {
 			int[] groups = ((IntData)BufferManager.getData(groupRef)).data;
 			for (int row=0; row<cardinality; ++row) {
 				// Only consider non-NULL values
-				if (!srcData.isNull.get(row)) {
+				if (!srcNulls || !srcData.isNull(row)) {
 					int group = groups[row];
 					if (rowForGroup[group]==-1) {
 						// First considered row for group
@@ -1,8 +1,11 @@
 package operators;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import buffer.BufferManager;
 import catalog.CatalogManager;
@@ -31,16 +34,17 @@ public class OrderBy {
 	public static void execute(List<ColumnRef> orderCols, 
 			boolean[] orderIsAsc, String relToSort) throws Exception {
 		// Resolve column and relation references
+		Map<ColumnData, ColumnData> heapCopies = new IdentityHashMap<>();
 		List<ColumnData> orderData = new ArrayList<>();
 		for (ColumnRef orderRef : orderCols) {
-			ColumnData curData = BufferManager.getData(orderRef);
+			ColumnData curData = writableData(orderRef, heapCopies);
 			orderData.add(curData);
 		}
 		List<ColumnData> dataToSort = new ArrayList<>();
 		TableInfo resultInfo = CatalogManager.currentDB.nameToTable.get(relToSort);
 		for (String colName : resultInfo.columnNames) {
 			ColumnRef colRef = new ColumnRef(relToSort, colName);
-			ColumnData colData = BufferManager.getData(colRef);
+			ColumnData colData = writableData(colRef, heapCopies);
 			// Make sure that we do not swap rows in the same
 			// column multiple twice.
 			if (!orderData.contains(colData)) {
@@ -51,6 +55,30 @@ public class OrderBy {
 		int cardinality = CatalogManager.getCardinality(relToSort);
 		quicksort(orderData, orderIsAsc, dataToSort, 0, cardinality-1);
 	}
+	/**
+	 * Returns data of given column that can be sorted in place.
+	 * Read-only data (e.g., mapped or encoded base columns) is
+	 * replaced by a copy on the heap, shared by all references
+	 * to the same data.
+	 * 
+	 * @param colRef		reference to column to sort
+	 * @param heapCopies	maps read-only data to heap copies
+	 * @return				data that can be sorted in place
+	 * @throws Exception
+	 */
+	static ColumnData writableData(ColumnRef colRef, 
+			Map<ColumnData, ColumnData> heapCopies) throws Exception {
+		ColumnData colData = BufferManager.getData(colRef);
+		if (colData.isReadOnly()) {
+			colData = heapCopies.computeIfAbsent(colData, readOnly -> {
+				BitSet allRows = new BitSet(readOnly.cardinality);
+				allRows.set(0, readOnly.cardinality);
+				return readOnly.copyRows(allRows);
+			});
+			BufferManager.colToData.put(colRef, colData);
+		}
+		return colData;
+	}
 	/**
 	 * Sort rows in the given range of row indices, using a list
 	 * of columns to sort by with associated sort direction.
@@ -134,19 +162,20 @@ public class OrderBy {
 			ColumnData curData = orderData.get(orderCtr);
 			boolean curAsc = orderIsAsc[orderCtr];
 			// Comparison result based on is-null flags
-			boolean isNullRow1 = curData.isNull.get(row1);
-			boolean isNullRow2 = curData.isNull.get(row2);
-			if (isNullRow1 && !isNullRow2) {
-				return curAsc?1:-1;
-			} else if (!isNullRow1 && isNullRow2) {
-				return curAsc?-1:1;
-			} else {
-				// Comparison result based on data content
-				int curCmp = curData.compareRows(row1, row2);
-				if (curCmp != 0) {
-					return curAsc?curCmp:-curCmp;
+			if (curData.hasNulls()) {
+				boolean isNullRow1 = curData.isNull(row1);
+				boolean isNullRow2 = curData.isNull(row2);
+				if (isNullRow1 && !isNullRow2) {
+					return curAsc?1:-1;
+				} else if (!isNullRow1 && isNullRow2) {
+					return curAsc?-1:1;
 				}
 			}
+			// Comparison result based on data content
+			int curCmp = curData.compareRows(row1, row2);
+			if (curCmp != 0) {
+				return curAsc?curCmp:-curCmp;
+			}
 		}
 		return 0;
 	}
@@ -0,0 +1,66 @@
+package operators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import buffer.BufferManager;
+import catalog.CatalogManager;
+import catalog.info.ColumnInfo;
+import catalog.info.DbInfo;
+import catalog.info.TableInfo;
+import catalog.stats.DbStats;
+import data.IntData;
+import data.OffHeapIntData;
+import data.PackedIntData;
+import diskio.PathUtil;
+import query.ColumnRef;
+import types.SQLtype;
+
+class OrderByTest {
+
+	@Test
+	void sortReadOnlyColumns() throws Exception {
+		int[] keys = {5, 3, 9, 1, 7};
+		int[] values = {50, 30, 90, 10, 70};
+		IntData keyData = new IntData(keys.length);
+		System.arraycopy(keys, 0, keyData.data, 0, keys.length);
+		// Encoded sort column and mapped (read-only) value column
+		PackedIntData packedKeys = PackedIntData.encode(keyData);
+		OffHeapIntData mappedValues = new OffHeapIntData(values.length, 
+				IntBuffer.wrap(values.clone()).asReadOnlyBuffer());
+		PathUtil.initSchemaPaths(Files.createTempDirectory(
+				"db").toString());
+		CatalogManager.currentDB = new DbInfo("test");
+		TableInfo table = new TableInfo("sorted", true);
+		table.addColumn(new ColumnInfo("k", SQLtype.INT, 
+				false, false, false, false));
+		table.addColumn(new ColumnInfo("v", SQLtype.INT, 
+				false, false, false, false));
+		CatalogManager.currentDB.addTable(table);
+		ColumnRef keyRef = new ColumnRef("sorted", "k");
+		ColumnRef valueRef = new ColumnRef("sorted", "v");
+		BufferManager.colToData.put(keyRef, packedKeys);
+		BufferManager.colToData.put(valueRef, mappedValues);
+		CatalogManager.currentStats = new DbStats(CatalogManager.currentDB);
+		OrderBy.execute(Arrays.asList(keyRef), 
+				new boolean[] {true}, "sorted");
+		// Sorted copies replace read-only columns
+		IntData sortedKeys = (IntData)BufferManager.getData(keyRef);
+		IntData sortedValues = (IntData)BufferManager.getData(valueRef);
+		for (int row=0; row<keys.length; ++row) {
+			assertEquals(2 * row + 1, sortedKeys.get(row));
+			assertEquals(10 * (2 * row + 1), sortedValues.get(row));
+		}
+		// Read-only columns remain unchanged
+		for (int row=0; row<keys.length; ++row) {
+			assertEquals(keys[row], packedKeys.get(row));
+			assertEquals(values[row], mappedValues.get(row));
+		}
+		BufferManager.colToData.clear();
+	}
+}
@@ -80,9 +80,11 @@ public class SumAggregate {
 		targetRelInfo.addColumn(targetColInfo);
 		// Update catalog statistics on result table
 		CatalogManager.updateStats(targetRel);
-		// Set target values to null
-		for (int row=0; row<targetCard; ++row) {
-			genericTarget.isNull.set(row);
+		// Set target values to null (unnecessary if each
+		// group contains at least one non-null value).
+		boolean srcNulls = srcData.hasNulls();
+		if (srcNulls || srcCard == 0) {
+			genericTarget.addNulls(0, targetCard);
 		}
 		// Switch according to column type (to avoid casts)
 		switch (srcType) {
@@ -92,10 +94,10 @@ public class SumAggregate {
 			// Iterate over input column
 			for (int row=0; row<srcCard; ++row) {
 				// Check for null values
-				if (!srcData.isNull.get(row)) {
+				if (!srcNulls || !srcData.isNull(row)) {
 					int group = groups[row];
-					genericTarget.isNull.set(group, false);
-					intTarget.data[group] += intSrc.data[row];
+					genericTarget.setNull(group, false);
+					intTarget.data[group] += intSrc.get(row);
 				}
 			}			
 		}
@@ -105,10 +107,10 @@ public class SumAggregate {
 			// Iterate over input column
 			for (int row=0; row<srcCard; ++row) {
 				// Check for null values
-				if (!srcData.isNull.get(row)) {
+				if (!srcNulls || !srcData.isNull(row)) {
 					int group = groups[row];
-					genericTarget.isNull.set(group, false);
-					longTarget.data[group] += longSrc.data[row];
+					genericTarget.setNull(group, false);
+					longTarget.data[group] += longSrc.get(row);
 				}
 			}		
 			break;
@@ -117,10 +119,10 @@ public class SumAggregate {
 			// Iterate over input column
 			for (int row=0; row<srcCard; ++row) {
 				// Check for null values
-				if (!srcData.isNull.get(row)) {
+				if (!srcNulls || !srcData.isNull(row)) {
 					int group = groups[row];
-					genericTarget.isNull.set(group, false);
-					doubleTarget.data[group] += doubleSrc.data[row];
+					genericTarget.setNull(group, false);
+					doubleTarget.data[group] += doubleSrc.get(row);
 				}
 			}
 			break;
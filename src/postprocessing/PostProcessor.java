@@ -113,6 +113,24 @@ public class PostProcessor {
 		for (AggInfo aggInfo : queryInfo.aggregates) {
 			// Debugging output
 			log("Treating aggregate nr. " + aggCtr + ": " + aggInfo);
+			// Was aggregate calculated during join phase?
+			ColumnData joinAggData = context.joinAggregates.get(
+					aggInfo.toString());
+			if (joinAggData != null) {
+				String targetCol = NamingConfig.AGG_COL_PRE + aggCtr;
+				++aggCtr;
+				ColumnRef targetRef = new ColumnRef(aggTbl, targetCol);
+				log("Target column (from join): " + targetRef);
+				context.aggToData.put(aggInfo.toString(), targetRef);
+				context.columnMapping.put(targetRef, targetRef);
+				BufferManager.colToData.put(targetRef, joinAggData);
+				ColumnInfo targetInfo = new ColumnInfo(targetCol, 
+						aggInfo.aggInput.resultType, 
+						false, false, false, false);
+				aggTblInfo.addColumn(targetInfo);
+				CatalogManager.updateStats(aggTbl);
+				continue;
+			}
 			// Retrieve or generate source data
 			ColumnRef sourceRef = null;
 			ExpressionInfo aggInput = aggInfo.aggInput;
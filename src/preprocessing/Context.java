@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import data.ColumnData;
 import query.ColumnRef;
 
 /**
@@ -45,6 +46,13 @@ public class Context {
 	 * to columns containing corresponding (per-group) results.
 	 */
 	public Map<String, ColumnRef> aggToData = new HashMap<>();
+	/**
+	 * Maps aggregation expressions (in string representation)
+	 * to per-group results that were calculated during the
+	 * join phase (empty if aggregates are calculated during
+	 * post-processing).
+	 */
+	public Map<String, ColumnData> joinAggregates = new HashMap<>();
 	
 	@Override
 	public String toString() {
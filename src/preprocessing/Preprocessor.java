@@ -2,20 +2,29 @@ package preprocessing;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 
 import buffer.BufferManager;
+import catalog.CatalogManager;
+import catalog.info.TableInfo;
+import config.IndexConfig;
 import config.LoggingConfig;
 import config.NamingConfig;
 import config.PreConfig;
 import expressions.ExpressionInfo;
+import data.IntData;
+import indexing.BloomFilter;
 import indexing.Index;
 import indexing.Indexer;
 import indexing.IntIndex;
+import indexing.SortedIntIndex;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.LongValue;
 import net.sf.jsqlparser.expression.StringValue;
@@ -24,6 +33,7 @@ import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
 import net.sf.jsqlparser.schema.Column;
 import operators.Filter;
 import operators.IndexFilter;
+import operators.IndexRange;
 import operators.IndexTest;
 import operators.Materialize;
 import print.RelationPrinter;
@@ -93,8 +103,67 @@ public class Preprocessor {
 		// Initialize mapping from query alias to DB tables
 		preSummary.aliasToFiltered.putAll(query.aliasToTable);
 		log("Column mapping:\t" + preSummary.columnMapping.toString());
-		// Iterate over query aliases
-		query.aliasToTable.keySet().parallelStream().forEach(alias -> {
+		// Filter aliases that cannot probe Bloom filters first
+		PreStats.bloomRemoved.clear();
+		Set<String> probeAliases = bloomProbeAliases(query);
+		List<ColumnRef> bloomCols = new ArrayList<>();
+		List<BloomFilter> bloomFilters = new ArrayList<>();
+		List<String> bloomNames = new ArrayList<>();
+		Set<String> filteredAliases = new HashSet<>(query.aliasToTable.keySet());
+		filteredAliases.removeAll(probeAliases);
+		filterAliases(query, filteredAliases, requiredCols, 
+				preSummary, bloomCols, bloomFilters);
+		// Filter remaining aliases in rounds, probing Bloom filters
+		// built on aliases that are small after filtering.
+		Set<String> remainingAliases = new HashSet<>(probeAliases);
+		while (!remainingAliases.isEmpty() && !hadError) {
+			Set<String> roundAliases = createBloomFilters(query, 
+					remainingAliases, filteredAliases, preSummary, 
+					bloomCols, bloomFilters, bloomNames);
+			// Without applicable filters, filter smallest alias
+			// (which may be small enough to build filters).
+			if (roundAliases.isEmpty()) {
+				roundAliases.add(smallestAlias(query, remainingAliases));
+			}
+			filterAliases(query, roundAliases, requiredCols, 
+					preSummary, bloomCols, bloomFilters);
+			filteredAliases.addAll(roundAliases);
+			remainingAliases.removeAll(roundAliases);
+		}
+		// Store statistics on removed rows
+		for (int filterCtr=0; filterCtr<bloomFilters.size(); ++filterCtr) {
+			PreStats.bloomRemoved.put(bloomNames.get(filterCtr), 
+					bloomFilters.get(filterCtr).nrRemoved.get());
+		}
+		// Abort pre-processing if filtering error occurred
+		if (hadError) {
+			throw new Exception("Error in pre-processor.");
+		}
+		// Remove tuples without join partners if worthwhile
+		SemiJoinReducer.reduce(query, preSummary);
+		// Create missing indices for columns involved in equi-joins.
+		log("Creating indices ...");			
+		createJoinIndices(query, preSummary);
+		// Measure processing time
+		PreStats.preMillis = System.currentTimeMillis() - startMillis;
+		return preSummary;
+	}
+	/**
+	 * Filters given aliases in parallel by applying unary predicates
+	 * (and Bloom filters, if any) and projects to required columns.
+	 * Sets the error flag if filtering fails for any alias.
+	 * 
+	 * @param query			query to pre-process
+	 * @param aliases		aliases to filter
+	 * @param requiredCols	columns required for joins and post-processing
+	 * @param preSummary	summary of pre-processing steps
+	 * @param bloomCols		query columns checked via Bloom filters
+	 * @param bloomFilters	Bloom filter for each checked column
+	 */
+	static void filterAliases(QueryInfo query, Set<String> aliases, 
+			Set<ColumnRef> requiredCols, Context preSummary, 
+			List<ColumnRef> bloomCols, List<BloomFilter> bloomFilters) {
+		aliases.parallelStream().forEach(alias -> {
 			// Collect required columns (for joins and post-processing) for this table
 			List<ColumnRef> curRequiredCols = new ArrayList<ColumnRef>();
 			for (ColumnRef requiredCol : requiredCols) {
@@ -102,6 +171,15 @@ public class Preprocessor {
 					curRequiredCols.add(requiredCol);
 				}
 			}
+			// Get Bloom filters applicable to this alias
+			List<ColumnRef> aliasBloomCols = new ArrayList<>();
+			List<BloomFilter> aliasBloomFilters = new ArrayList<>();
+			for (int filterCtr=0; filterCtr<bloomCols.size(); ++filterCtr) {
+				if (bloomCols.get(filterCtr).aliasName.equals(alias)) {
+					aliasBloomCols.add(bloomCols.get(filterCtr));
+					aliasBloomFilters.add(bloomFilters.get(filterCtr));
+				}
+			}
 			// Get applicable unary predicates
 			ExpressionInfo curUnaryPred = null;
 			for (ExpressionInfo exprInfo : query.unaryPredicates) {
@@ -120,7 +198,8 @@ public class Preprocessor {
 					// Filter remaining rows by remaining predicate
 					if (remainingPred != null) {
 						filterProject(query, alias, remainingPred,
-								curRequiredCols, preSummary);						
+								curRequiredCols, preSummary, 
+								aliasBloomCols, aliasBloomFilters);						
 					}
 				} catch (Exception e) {
 					System.err.println("Error filtering " + alias);
@@ -131,17 +210,161 @@ public class Preprocessor {
 				String table = query.aliasToTable.get(alias);
 				preSummary.aliasToFiltered.put(alias, table);
 			}
-		});			
-		// Abort pre-processing if filtering error occurred
-		if (hadError) {
-			throw new Exception("Error in pre-processor.");
+		});
+	}
+	/**
+	 * Returns aliases of large tables with unary predicates that
+	 * are connected via equality joins on integer columns to
+	 * other tables with unary predicates. Those aliases may be
+	 * filtered after tables that are small after filtering,
+	 * probing Bloom filters built on the latter.
+	 * 
+	 * @param query		query to pre-process
+	 * @return			aliases to probe Bloom filters
+	 * @throws Exception
+	 */
+	static Set<String> bloomProbeAliases(QueryInfo query) throws Exception {
+		Set<String> probeAliases = new HashSet<>();
+		if (!PreConfig.BLOOM_FILTERS) {
+			return probeAliases;
 		}
-		// Create missing indices for columns involved in equi-joins.
-		log("Creating indices ...");			
-		createJoinIndices(query, preSummary);
-		// Measure processing time
-		PreStats.preMillis = System.currentTimeMillis() - startMillis;
-		return preSummary;
+		for (ExpressionInfo equiPred : query.equiJoinPreds) {
+			for (ColumnRef[] cols : bloomJoinCols(query, equiPred)) {
+				String probeAlias = cols[1].aliasName;
+				if (isLarge(query, probeAlias)) {
+					probeAliases.add(probeAlias);
+				}
+			}
+		}
+		return probeAliases;
+	}
+	/**
+	 * Returns column pairs (first column of build side, second
+	 * column of probe side) for which Bloom filters may apply
+	 * according to the given equality join predicate. This is
+	 * the case for integer columns of tables with unary
+	 * predicates.
+	 * 
+	 * @param query		query to pre-process
+	 * @param equiPred	equality join predicate
+	 * @return			list of candidate build and probe column pairs
+	 * @throws Exception
+	 */
+	static List<ColumnRef[]> bloomJoinCols(QueryInfo query, 
+			ExpressionInfo equiPred) throws Exception {
+		List<ColumnRef[]> candidates = new ArrayList<>();
+		ColumnRef[] cols = equiPred.columnsMentioned.toArray(
+				new ColumnRef[0]);
+		if (cols.length == 2 && 
+				hasUnaryPred(query, cols[0].aliasName) &&
+				hasUnaryPred(query, cols[1].aliasName) &&
+				BufferManager.getData(DBref(query, cols[0])) instanceof IntData &&
+				BufferManager.getData(DBref(query, cols[1])) instanceof IntData) {
+			candidates.add(new ColumnRef[] {cols[0], cols[1]});
+			candidates.add(new ColumnRef[] {cols[1], cols[0]});
+		}
+		return candidates;
+	}
+	/**
+	 * Returns true iff a unary predicate refers to given alias.
+	 * 
+	 * @param query	query to pre-process
+	 * @param alias	query alias
+	 * @return		true iff alias is filtered by unary predicate
+	 */
+	static boolean hasUnaryPred(QueryInfo query, String alias) {
+		for (ExpressionInfo unaryPred : query.unaryPredicates) {
+			if (unaryPred.aliasesMentioned.contains(alias)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	/**
+	 * Returns true iff the table referenced by the given alias
+	 * is large enough to consider probing Bloom filters.
+	 * 
+	 * @param query	query to pre-process
+	 * @param alias	query alias
+	 * @return		true iff table is large
+	 */
+	static boolean isLarge(QueryInfo query, String alias) {
+		String table = query.aliasToTable.get(alias);
+		return CatalogManager.getCardinality(table) >= 
+				PreConfig.BLOOM_MIN_PROBE_CARD;
+	}
+	/**
+	 * Returns the alias whose table has the minimal number
+	 * of rows among the given aliases.
+	 * 
+	 * @param query		query to pre-process
+	 * @param aliases	non-empty set of query aliases
+	 * @return			alias of smallest table
+	 */
+	static String smallestAlias(QueryInfo query, Set<String> aliases) {
+		String smallestAlias = null;
+		int smallestCard = Integer.MAX_VALUE;
+		for (String alias : aliases) {
+			String table = query.aliasToTable.get(alias);
+			int cardinality = CatalogManager.getCardinality(table);
+			if (smallestAlias == null || cardinality < smallestCard) {
+				smallestAlias = alias;
+				smallestCard = cardinality;
+			}
+		}
+		return smallestAlias;
+	}
+	/**
+	 * Creates Bloom filters on join columns of filtered aliases
+	 * whose number of rows after filtering is small enough, to
+	 * be probed when filtering the given aliases. Returns the
+	 * aliases for which at least one filter was created.
+	 * 
+	 * @param query				query to pre-process
+	 * @param probeAliases		aliases that are not filtered yet
+	 * @param filteredAliases	aliases that were filtered before
+	 * @param preSummary		summary of pre-processing steps
+	 * @param bloomCols			adds query columns to check via Bloom filters
+	 * @param bloomFilters		adds Bloom filter for each column to check
+	 * @param bloomNames		adds name of each Bloom filter (for statistics)
+	 * @return					aliases probing new Bloom filters
+	 * @throws Exception
+	 */
+	static Set<String> createBloomFilters(QueryInfo query, 
+			Set<String> probeAliases, Set<String> filteredAliases,
+			Context preSummary, List<ColumnRef> bloomCols, 
+			List<BloomFilter> bloomFilters, List<String> bloomNames) 
+					throws Exception {
+		Set<String> filteredProbes = new HashSet<>();
+		for (ExpressionInfo equiPred : query.equiJoinPreds) {
+			for (ColumnRef[] cols : bloomJoinCols(query, equiPred)) {
+				ColumnRef buildCol = cols[0];
+				ColumnRef probeCol = cols[1];
+				String buildAlias = buildCol.aliasName;
+				if (!probeAliases.contains(probeCol.aliasName) ||
+						!filteredAliases.contains(buildAlias)) {
+					continue;
+				}
+				// Only aliases whose filter left few rows qualify
+				String buildTable = preSummary.aliasToFiltered.get(buildAlias);
+				int filteredCard = CatalogManager.getCardinality(buildTable);
+				int baseCard = CatalogManager.getCardinality(
+						query.aliasToTable.get(buildAlias));
+				if (filteredCard > PreConfig.BLOOM_MAX_BUILD_CARD ||
+						filteredCard >= baseCard) {
+					continue;
+				}
+				IntData buildData = (IntData)BufferManager.getData(
+						preSummary.columnMapping.get(buildCol));
+				String bloomName = buildCol + "->" + probeCol;
+				log("Creating Bloom filter " + bloomName);
+				bloomCols.add(probeCol);
+				bloomFilters.add(new BloomFilter(buildData));
+				bloomNames.add(bloomName);
+				filteredProbes.add(probeCol.aliasName);
+			}
+		}
+		return filteredProbes;
 	}
 	/**
 	 * Forms a conjunction between given conjuncts.
@@ -180,18 +403,38 @@ public class Preprocessor {
 		IndexTest indexTest = new IndexTest(query);
 		List<Expression> indexedConjuncts = new ArrayList<>();
 		List<Expression> nonIndexedConjuncts = new ArrayList<>();
+		Map<SortedIntIndex, IndexRange> indexToRange = new LinkedHashMap<>();
+		Map<SortedIntIndex, List<Expression>> indexToConjuncts = new HashMap<>();
 		for (Expression conjunct : unaryPred.conjuncts) {
 			// Re-initialize index test
 			indexTest.canUseIndex = true;
+			indexTest.rangeSelectivity = 0;
 			// Compare predicate against indexes
 			conjunct.accept(indexTest);
-			// Can conjunct be evaluated only from indices?
-			if (indexTest.canUseIndex && PreConfig.CONSIDER_INDICES) {
+			// Can conjunct be evaluated only from indices? Use
+			// index for range predicates only if selective.
+			IndexRange range = IndexRange.of(query, conjunct);
+			if (!indexTest.canUseIndex || !PreConfig.CONSIDER_INDICES) {
+				nonIndexedConjuncts.add(conjunct);
+			} else if (range != null) {
+				// Combine ranges on the same column
+				indexToRange.merge(range.index, range, IndexRange::intersect);
+				indexToConjuncts.computeIfAbsent(range.index, 
+						index -> new ArrayList<>()).add(conjunct);
+			} else if (indexTest.rangeSelectivity <= 
+					IndexConfig.MAX_RANGE_INDEX_SELECTIVITY) {
 				indexedConjuncts.add(conjunct);
 			} else {
 				nonIndexedConjuncts.add(conjunct);
 			}
 		}
+		for (IndexRange range : indexToRange.values()) {
+			if (range.selectivity() <= IndexConfig.MAX_RANGE_INDEX_SELECTIVITY) {
+				indexedConjuncts.add(range.toExpression());
+			} else {
+				nonIndexedConjuncts.addAll(indexToConjuncts.get(range.index));
+			}
+		}
 		log("Indexed:\t" + indexedConjuncts.toString() + 
 				"; other: " + nonIndexedConjuncts.toString());
 		// Create remaining predicate expression
@@ -243,16 +486,21 @@ public class Preprocessor {
 	 * @param unaryPred		unary predicate on that table
 	 * @param requiredCols	project on those columns
 	 * @param preSummary	summary of pre-processing steps
+	 * @param bloomCols		query columns checked via Bloom filters
+	 * @param bloomFilters	Bloom filter for each checked column
 	 */
 	static void filterProject(QueryInfo query, String alias, ExpressionInfo unaryPred, 
-			List<ColumnRef> requiredCols, Context preSummary) throws Exception {
+			List<ColumnRef> requiredCols, Context preSummary, 
+			List<ColumnRef> bloomCols, List<BloomFilter> bloomFilters) 
+					throws Exception {
 		long startMillis = System.currentTimeMillis();
 		log("Filtering and projection for " + alias + " ...");
 		String tableName = preSummary.aliasToFiltered.get(alias);
 		log("Table name for " + alias + " is " + tableName);
 		// Determine rows satisfying unary predicate
 		List<Integer> satisfyingRows = Filter.executeToList(
-				unaryPred, tableName, preSummary.columnMapping);
+				unaryPred, tableName, preSummary.columnMapping, 
+				bloomCols, bloomFilters);
 		// Materialize relevant rows and columns
 		String filteredName = NamingConfig.FILTERED_PRE + alias;
 		List<String> columnNames = new ArrayList<String>();
@@ -292,8 +540,18 @@ public class Preprocessor {
 				ColumnRef dbRef = preSummary.columnMapping.get(queryRef);
 				log("Creating index for " + queryRef + 
 						" (query) - " + dbRef + " (DB)");
-				// Create index (unless it exists already)
-				Indexer.index(dbRef);
+				// Create index (unless it exists already) - use
+				// hash index for small filtered tables.
+				String table = dbRef.aliasName;
+				TableInfo tableInfo = CatalogManager.currentDB.
+						nameToTable.get(table);
+				int cardinality = CatalogManager.getCardinality(table);
+				if (tableInfo.tempTable && 
+						cardinality <= PreConfig.MAX_HASH_INDEX_CARD) {
+					Indexer.hashIndex(dbRef);
+				} else {
+					Indexer.index(dbRef);
+				}
 			} catch (Exception e) {
 				System.err.println("Error creating index for " + queryRef);
 				e.printStackTrace();
@@ -0,0 +1,280 @@
+package preprocessing;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.koloboke.collect.set.IntSet;
+import com.koloboke.collect.set.hash.HashIntSets;
+
+import buffer.BufferManager;
+import catalog.CatalogManager;
+import config.LoggingConfig;
+import config.NamingConfig;
+import config.PreConfig;
+import data.ColumnData;
+import data.IntData;
+import expressions.ExpressionInfo;
+import indexing.Index;
+import indexing.IntIndex;
+import operators.Materialize;
+import query.ColumnRef;
+import query.QueryInfo;
+import statistics.PreStats;
+
+/**
+ * Removes tuples without join partners from filtered tables
+ * before the join phase (Yannakakis-style semi-join reduction).
+ * Semi-joins are executed along a spanning tree of the join
+ * graph formed by equality join predicates on integer columns,
+ * first bottom-up, then top-down. For acyclic join graphs,
+ * this removes all dangling tuples. For cyclic graphs, the
+ * reduction is partial but still correct.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class SemiJoinReducer {
+	/**
+	 * Reduces filtered tables of given query via semi-joins and
+	 * replaces tables in the context by reduced versions if a
+	 * sufficient number of rows was removed. Does nothing if
+	 * tables are too small for reductions to pay off.
+	 *
+	 * @param query			query whose tables to reduce
+	 * @param preSummary	summary of pre-processing steps
+	 * @throws Exception
+	 */
+	public static void reduce(QueryInfo query,
+			Context preSummary) throws Exception {
+		long startMillis = System.currentTimeMillis();
+		PreStats.semiJoinMillis = 0;
+		PreStats.nrSemiJoinRemoved = 0;
+		int nrTables = query.nrJoined;
+		if (!PreConfig.SEMI_JOIN_REDUCTION || nrTables < 2) {
+			return;
+		}
+		// Retrieve cardinalities of filtered tables
+		int[] cardinalities = new int[nrTables];
+		long totalCard = 0;
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			String alias = query.aliases[tableCtr];
+			String table = preSummary.aliasToFiltered.get(alias);
+			cardinalities[tableCtr] = CatalogManager.getCardinality(table);
+			totalCard += cardinalities[tableCtr];
+		}
+		if (totalCard < PreConfig.SEMI_JOIN_MIN_ROWS) {
+			log("Skipping semi-join reduction for " +
+					totalCard + " rows");
+			return;
+		}
+		// Collect equality join predicates on integer columns
+		List<List<ColumnRef[]>> neighbors = new ArrayList<>();
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			neighbors.add(new ArrayList<>());
+		}
+		for (ExpressionInfo equiPred : query.equiJoinPreds) {
+			ColumnRef[] cols = equiPred.columnsMentioned.toArray(
+					new ColumnRef[0]);
+			if (cols.length != 2 || cols[0].aliasName.equals(
+					cols[1].aliasName)) {
+				continue;
+			}
+			ColumnData data0 = BufferManager.getData(
+					preSummary.columnMapping.get(cols[0]));
+			ColumnData data1 = BufferManager.getData(
+					preSummary.columnMapping.get(cols[1]));
+			if (data0 instanceof IntData && data1 instanceof IntData) {
+				int table0 = query.aliasToIndex.get(cols[0].aliasName);
+				int table1 = query.aliasToIndex.get(cols[1].aliasName);
+				neighbors.get(table0).add(new ColumnRef[] {cols[0], cols[1]});
+				neighbors.get(table1).add(new ColumnRef[] {cols[1], cols[0]});
+			}
+		}
+		// Form spanning forest via breadth-first search - for each
+		// table, store column joining it with its parent table.
+		List<Integer> bfsOrder = new ArrayList<>();
+		Map<Integer, ColumnRef[]> toParent = new HashMap<>();
+		boolean[] visited = new boolean[nrTables];
+		for (int root=0; root<nrTables; ++root) {
+			if (!visited[root]) {
+				visited[root] = true;
+				int firstPos = bfsOrder.size();
+				bfsOrder.add(root);
+				for (int pos=firstPos; pos<bfsOrder.size(); ++pos) {
+					int table = bfsOrder.get(pos);
+					for (ColumnRef[] cols : neighbors.get(table)) {
+						int neighbor = query.aliasToIndex.get(cols[1].aliasName);
+						if (!visited[neighbor]) {
+							visited[neighbor] = true;
+							bfsOrder.add(neighbor);
+							toParent.put(neighbor, new ColumnRef[] {
+									cols[1], cols[0]});
+						}
+					}
+				}
+			}
+		}
+		if (toParent.isEmpty()) {
+			return;
+		}
+		// Rows with join partners (null if all rows qualify)
+		BitSet[] alive = new BitSet[nrTables];
+		// Bottom-up pass: reduce parents by children
+		for (int pos=nrTables-1; pos>=0; --pos) {
+			int child = bfsOrder.get(pos);
+			ColumnRef[] cols = toParent.get(child);
+			if (cols != null) {
+				semiJoin(query, preSummary, cols[1], cols[0],
+						alive, cardinalities);
+			}
+		}
+		// Top-down pass: reduce children by parents
+		for (int pos=0; pos<nrTables; ++pos) {
+			int child = bfsOrder.get(pos);
+			ColumnRef[] cols = toParent.get(child);
+			if (cols != null) {
+				semiJoin(query, preSummary, cols[0], cols[1],
+						alive, cardinalities);
+			}
+		}
+		// Materialize tables with sufficiently many removed rows
+		for (int tableCtr=0; tableCtr<nrTables; ++tableCtr) {
+			int card = cardinalities[tableCtr];
+			if (alive[tableCtr] != null) {
+				int nrRemoved = card - alive[tableCtr].cardinality();
+				if (nrRemoved >= card * PreConfig.SEMI_JOIN_MIN_REDUCTION) {
+					materialize(query, preSummary,
+							query.aliases[tableCtr], alive[tableCtr]);
+					PreStats.nrSemiJoinRemoved += nrRemoved;
+				}
+			}
+		}
+		PreStats.semiJoinMillis = System.currentTimeMillis() - startMillis;
+		log("Semi-join reduction removed " + PreStats.nrSemiJoinRemoved +
+				" rows in " + PreStats.semiJoinMillis + " ms");
+	}
+	/**
+	 * Removes rows from target table that have no join partner
+	 * in the source table (considering only rows that were not
+	 * removed before).
+	 *
+	 * @param query			query whose tables are reduced
+	 * @param preSummary	maps query columns to filtered columns
+	 * @param targetCol		join column in table to reduce
+	 * @param sourceCol		join column in other table
+	 * @param alive			rows with join partners for each table
+	 * @param cardinalities	cardinality of each filtered table
+	 * @throws Exception
+	 */
+	static void semiJoin(QueryInfo query, Context preSummary,
+			ColumnRef targetCol, ColumnRef sourceCol, BitSet[] alive,
+			int[] cardinalities) throws Exception {
+		int target = query.aliasToIndex.get(targetCol.aliasName);
+		int source = query.aliasToIndex.get(sourceCol.aliasName);
+		ColumnRef targetRef = preSummary.columnMapping.get(targetCol);
+		ColumnRef sourceRef = preSummary.columnMapping.get(sourceCol);
+		IntData targetData = (IntData)BufferManager.getData(targetRef);
+		IntData sourceData = (IntData)BufferManager.getData(sourceRef);
+		// Use existing index on unreduced source if available
+		Index sourceIndex = BufferManager.colToIndex.get(sourceRef);
+		IntIndex intIndex = alive[source] == null &&
+				sourceIndex instanceof IntIndex ?
+						(IntIndex)sourceIndex : null;
+		// Otherwise, collect join keys of source rows
+		BitSet sourceRows = alive[source];
+		if (sourceRows == null) {
+			sourceRows = new BitSet();
+			sourceRows.set(0, cardinalities[source]);
+		}
+		IntSet keySet = null;
+		if (intIndex == null) {
+			keySet = HashIntSets.newMutableSet(sourceRows.cardinality());
+			for (int row=sourceRows.nextSetBit(0); row>=0;
+					row=sourceRows.nextSetBit(row+1)) {
+				if (!sourceData.isNull(row)) {
+					keySet.add(sourceData.get(row));
+				}
+			}
+		}
+		// Remove target rows without join partners
+		BitSet targetRows = alive[target];
+		if (targetRows == null) {
+			targetRows = new BitSet();
+			targetRows.set(0, cardinalities[target]);
+			alive[target] = targetRows;
+		}
+		for (int row=targetRows.nextSetBit(0); row>=0;
+				row=targetRows.nextSetBit(row+1)) {
+			if (targetData.isNull(row)) {
+				targetRows.clear(row);
+			} else {
+				int key = targetData.get(row);
+				boolean hasPartner = intIndex != null ?
+						intIndex.nrIndexed(key) > 0 : keySet.contains(key);
+				if (!hasPartner) {
+					targetRows.clear(row);
+				}
+			}
+		}
+		log("Reduced " + targetCol.aliasName + " by " +
+				sourceCol.aliasName + " to " +
+				targetRows.cardinality() + " rows");
+	}
+	/**
+	 * Materializes remaining rows of table with given alias
+	 * and updates the context to refer to the new table.
+	 *
+	 * @param query			query whose tables are reduced
+	 * @param preSummary	summary of pre-processing steps
+	 * @param alias			alias of table to materialize
+	 * @param rows			remaining rows to materialize
+	 * @throws Exception
+	 */
+	static void materialize(QueryInfo query, Context preSummary,
+			String alias, BitSet rows) throws Exception {
+		// Collect columns required for join and post-processing
+		List<ColumnRef> requiredCols = new ArrayList<>();
+		for (ColumnRef queryRef : query.colsForJoins) {
+			if (queryRef.aliasName.equals(alias)) {
+				requiredCols.add(queryRef);
+			}
+		}
+		for (ColumnRef queryRef : query.colsForPostProcessing) {
+			if (queryRef.aliasName.equals(alias) &&
+					!requiredCols.contains(queryRef)) {
+				requiredCols.add(queryRef);
+			}
+		}
+		List<String> columnNames = new ArrayList<>();
+		for (ColumnRef queryRef : requiredCols) {
+			columnNames.add(preSummary.columnMapping.get(
+					queryRef).columnName);
+		}
+		// Copy remaining rows into new table
+		String sourceName = preSummary.aliasToFiltered.get(alias);
+		String reducedName = NamingConfig.REDUCED_PRE + alias;
+		Materialize.execute(sourceName, columnNames,
+				null, rows, reducedName, true);
+		// Update pre-processing summary
+		for (ColumnRef queryRef : requiredCols) {
+			String columnName = preSummary.columnMapping.get(
+					queryRef).columnName;
+			preSummary.columnMapping.put(queryRef,
+					new ColumnRef(reducedName, columnName));
+		}
+		preSummary.aliasToFiltered.put(alias, reducedName);
+	}
+	/**
+	 * Output logging message if pre-processing logging activated.
+	 *
+	 * @param toLog		text to display if logging is activated
+	 */
+	static void log(String toLog) {
+		if (LoggingConfig.PREPROCESSING_VERBOSE) {
+			System.out.println(toLog);
+		}
+	}
+}
@@ -93,25 +93,25 @@ public class RelationPrinter {
 	 */
 	static String printCell(SQLtype type, ColumnData data, int rowNr) {
 		// Check for null values
-		if (data.isNull.get(rowNr)) {
+		if (data.isNull(rowNr)) {
 			return "[null]";
 		} else {
 			switch (type) {
 			case INT:
-				return Integer.valueOf(((IntData)data).data[rowNr]).toString();
+				return Integer.valueOf(((IntData)data).get(rowNr)).toString();
 			case LONG:
-				return Long.valueOf(((LongData)data).data[rowNr]).toString();
+				return Long.valueOf(((LongData)data).get(rowNr)).toString();
 			case DOUBLE:
-				return Double.valueOf(((DoubleData)data).data[rowNr]).toString();
+				return Double.valueOf(((DoubleData)data).get(rowNr)).toString();
 			case STRING_CODE:
-				int code = ((IntData)data).data[rowNr];
+				int code = ((IntData)data).get(rowNr);
 				return BufferManager.dictionary.getString(code);
 			case STRING:
 				return ((StringData)data).data[rowNr];
 			case DATE:
 			case TIME:
 			case TIMESTAMP:
-				int unixTime = ((IntData)data).data[rowNr];
+				int unixTime = ((IntData)data).get(rowNr);
 				long millisSince1970 = unixTime * 1000l;
 				// Print out datetime in appropriate format
 				if (type.equals(SQLtype.TIME)) {
@@ -125,14 +125,14 @@ public class RelationPrinter {
 					return timestamp.toString();
 				}
 			case YM_INTERVAL:
-				int totalMonths = ((IntData)data).data[rowNr];
+				int totalMonths = ((IntData)data).get(rowNr);
 				int years = totalMonths / 12;
 				int remainingMonths = totalMonths % 12;
 				return years + " year" + (years!=1?"s":"") + " " +
 						remainingMonths + " month" + 
 						(remainingMonths!=1?"s":"");
 			case DT_INTERVAL:
-				int durationSecs = ((IntData)data).data[rowNr];
+				int durationSecs = ((IntData)data).get(rowNr);
 				long durationMillis = 1000 * durationSecs;
 				return DurationFormatUtils.formatDurationISO(durationMillis);
 			default:
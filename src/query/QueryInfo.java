@@ -128,6 +128,12 @@ public class QueryInfo {
 	 * while avoiding Cartesian product joins.
 	 */
 	public Set<Set<Integer>> joinedIndices = new HashSet<>();
+	/**
+	 * For each alias index: bit masks of alias indices
+	 * connected via join predicates mentioning that alias
+	 * (bit masks representation of joined indices).
+	 */
+	public long[][] joinMasks;
 	/**
 	 * Columns that are involved in binary equi-join
 	 * predicates (i.e., we may want to create hash
@@ -203,6 +209,11 @@ public class QueryInfo {
 		// Extract all from items
 		List<FromItem> fromItems = FromUtil.allFromItems(plainSelect);
 		nrJoined = fromItems.size();
+		// Sets of tables are represented as bit masks
+		if (nrJoined > 64) {
+			throw new SQLexception("Error - at most 64 "
+					+ "tables per query supported");
+		}
 		// Extract tables from items
 		aliases = new String[nrJoined];
 		for (int i=0; i<nrJoined; ++i) {
@@ -414,6 +425,30 @@ public class QueryInfo {
 			} // over where conjuncts
 		} // if where clause
 	}
+	/**
+	 * Calculates bit masks of alias indices connected
+	 * via join predicates for each alias.
+	 */
+	void calculateJoinMasks() {
+		List<List<Long>> masksByAlias = new ArrayList<>();
+		for (int aliasCtr=0; aliasCtr<nrJoined; ++aliasCtr) {
+			masksByAlias.add(new ArrayList<>());
+		}
+		for (Set<Integer> joined : joinedIndices) {
+			long mask = 0;
+			for (int aliasIdx : joined) {
+				mask |= 1L << aliasIdx;
+			}
+			for (int aliasIdx : joined) {
+				masksByAlias.get(aliasIdx).add(mask);
+			}
+		}
+		joinMasks = new long[nrJoined][];
+		for (int aliasCtr=0; aliasCtr<nrJoined; ++aliasCtr) {
+			joinMasks[aliasCtr] = masksByAlias.get(aliasCtr).stream().
+					mapToLong(mask -> mask).toArray();
+		}
+	}
 	/**
 	 * Adds expressions in the GROUP-By clause (if any).
 	 */
@@ -573,6 +608,25 @@ public class QueryInfo {
 		}
 		return false;
 	}
+	/**
+	 * Returns true if there is at least one join predicate
+	 * connecting the tables in the given bit mask to the
+	 * single table (allocation-free variant used during
+	 * join order search).
+	 * 
+	 * @param aliasMask		bit mask of alias indices already joined
+	 * @param newIndex		index of new alias to check
+	 * @return				true iff join predicates connect
+	 */
+	public boolean connected(long aliasMask, int newIndex) {
+		long maskAfterJoin = aliasMask | (1L << newIndex);
+		for (long joined : joinMasks[newIndex]) {
+			if ((joined & ~maskAfterJoin) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
 	/**
 	 * Concatenates string representations of given expression
 	 * list, using the given separator.
@@ -660,6 +714,8 @@ public class QueryInfo {
 		log("Equi join cols: " + equiJoinCols);
 		log("Equi join preds: " + equiJoinPreds);
 		log("Other join preds: " + nonEquiJoinPreds);
+		// Represent join predicates as bit masks
+		calculateJoinMasks();
 		// Add expressions in GROUP BY clause
 		treatGroupBy();
 		log("GROUP BY expressions: " + groupByExpressions);
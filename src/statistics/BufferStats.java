@@ -0,0 +1,61 @@
+package statistics;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import query.ColumnRef;
+
+/**
+ * Statistics about loading column data into the buffer,
+ * accumulated since startup.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class BufferStats {
+	/**
+	 * Maps columns to milliseconds spent loading them from disk.
+	 */
+	public final static Map<ColumnRef, Long> colToLoadMillis =
+			new ConcurrentHashMap<>();
+	/**
+	 * Maps columns to number of requests for already
+	 * loaded data.
+	 */
+	public final static Map<ColumnRef, Long> colToHits =
+			new ConcurrentHashMap<>();
+	/**
+	 * Maps columns to number of requests that had
+	 * to load (or wait for loading) data.
+	 */
+	public final static Map<ColumnRef, Long> colToMisses =
+			new ConcurrentHashMap<>();
+	/**
+	 * Returns a textual summary of statistics for
+	 * each column that was loaded or requested.
+	 *
+	 * @return	one line per column with load time,
+	 * 			number of hits, and number of misses
+	 */
+	public static String summary() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Column\tLoad (ms)\tHits\tMisses\n");
+		Set<ColumnRef> allCols = new HashSet<>();
+		allCols.addAll(colToLoadMillis.keySet());
+		allCols.addAll(colToHits.keySet());
+		allCols.addAll(colToMisses.keySet());
+		for (ColumnRef colRef : allCols) {
+			builder.append(colRef);
+			builder.append("\t");
+			builder.append(colToLoadMillis.getOrDefault(colRef, 0L));
+			builder.append("\t");
+			builder.append(colToHits.getOrDefault(colRef, 0L));
+			builder.append("\t");
+			builder.append(colToMisses.getOrDefault(colRef, 0L));
+			builder.append("\n");
+		}
+		return builder.toString();
+	}
+}
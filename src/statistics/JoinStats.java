@@ -1,5 +1,7 @@
 package statistics;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Statistics about the join phase - most statistics
  * refer to counts achieved during the last query
@@ -39,13 +41,18 @@ public class JoinStats {
      */
     public static long nrIterations = 0;
     /**
-     * Number of UCT nodes generated in the last invocation.
+     * Number of UCT nodes generated in the last invocation
+     * (nodes may be generated by multiple join threads).
      */
-    public static long nrUctNodes = 0;
+    public static final AtomicLong nrUctNodes = new AtomicLong();
     /**
      * Number of query plans tried during last invocation.
      */
     public static long nrPlansTried = 0;
+    /**
+     * Number of query plans compiled during last invocation.
+     */
+    public static long nrPlansCompiled = 0;
     /**
      * Average reward obtained during last invocation.
      */
@@ -58,6 +65,11 @@ public class JoinStats {
      * Number of UCT samples taken in last iteration.
      */
     public static long nrSamples = 0;
+    /**
+     * Number of UCT samples taken by each join thread in the
+     * last invocation (only one entry for sequential joins).
+     */
+    public static long[] nrSamplesPerThread = new long[0];
     /**
      * Total work (including redundant work) done during join
      * (calculated based on table offsets after query evaluation).
@@ -67,4 +79,33 @@ public class JoinStats {
      * Number of tuples in join result (before post-processing).
      */
     public static int skinnerJoinCard = 0;
+    /**
+     * Average number of steps per episode in last invocation.
+     */
+    public static double avgBudget = 0;
+    /**
+     * Number of steps per episode at the end of last invocation
+     * (differs from the initial budget for timed episodes).
+     */
+    public static int lastBudget = 0;
+    /**
+     * Number of episodes executing the join order selected by
+     * the cost-based optimizer during the last invocation.
+     */
+    public static long nrCostBasedEpisodes = 0;
+    /**
+     * Number of nodes in the progress tracker at the end
+     * of last invocation (summed over all trackers).
+     */
+    public static long nrProgressNodes = 0;
+    /**
+     * Number of bytes allocated by the progress tracker at
+     * the end of last invocation (summed over all trackers).
+     */
+    public static long nrProgressBytes = 0;
+    /**
+     * Number of join orders whose progress was evicted from
+     * the progress tracker during the last invocation.
+     */
+    public static long nrProgressEvictions = 0;
 }
@@ -1,5 +1,8 @@
 package statistics;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Statistics about the pre-processing phase.
  * Refers to pre-processing of the last query
@@ -14,4 +17,19 @@ public class PreStats {
 	 * Preprocessing time in milliseconds.
 	 */
 	public static long preMillis = 0;
+	/**
+	 * Milliseconds spent on semi-join reduction
+	 * (zero if the reduction was skipped).
+	 */
+	public static long semiJoinMillis = 0;
+	/**
+	 * Number of rows removed from filtered tables
+	 * via semi-join reduction.
+	 */
+	public static long nrSemiJoinRemoved = 0;
+	/**
+	 * Maps each Bloom filter (build and probe column) to the
+	 * number of rows it removed while filtering the probe table.
+	 */
+	public static Map<String, Long> bloomRemoved = new HashMap<>();
 }
@@ -13,7 +13,7 @@ public class CompressionTest {
 		ColumnRef colRef = new ColumnRef("title", "title");
 		IntData intData = (IntData)BufferManager.getData(colRef);
 		for (int i=0; i<10; ++i) {
-			System.out.println(intData.data[i]);
+			System.out.println(intData.get(i));
 		}
 	}
 
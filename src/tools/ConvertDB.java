@@ -0,0 +1,56 @@
+package tools;
+
+import catalog.CatalogManager;
+import catalog.info.ColumnInfo;
+import catalog.info.TableInfo;
+import data.ColumnData;
+import diskio.ColumnFile;
+import diskio.DiskUtil;
+import diskio.PathUtil;
+
+/**
+ * Converts column data of a database created by previous
+ * versions (storing serialized column objects) into the
+ * binary column format.
+ *
+ * @author immanueltrummer
+ *
+ */
+public class ConvertDB {
+	/**
+	 * Converts all columns of the database in the given
+	 * directory (first argument) in place. Columns that
+	 * are already in binary format remain unchanged.
+	 *
+	 * @param args	database directory
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length != 1) {
+			System.out.println("Error - specify database directory!");
+			return;
+		}
+		String dbDir = args[0];
+		PathUtil.initSchemaPaths(dbDir);
+		CatalogManager.loadDB(PathUtil.schemaPath);
+		PathUtil.initDataPaths(CatalogManager.currentDB);
+		long startMillis = System.currentTimeMillis();
+		int nrConverted = 0;
+		for (TableInfo table :
+			CatalogManager.currentDB.nameToTable.values()) {
+			for (ColumnInfo column : table.nameToCol.values()) {
+				String dataPath = PathUtil.colToPath.get(column);
+				if (!ColumnFile.isColumnFile(dataPath)) {
+					System.out.println("Converting " + table.name +
+							"." + column.name + " ...");
+					ColumnData data = (ColumnData)
+							DiskUtil.loadObject(dataPath);
+					data.store(dataPath);
+					++nrConverted;
+				}
+			}
+		}
+		long totalMillis = System.currentTimeMillis() - startMillis;
+		System.out.println("Converted " + nrConverted +
+				" columns in " + totalMillis + " ms.");
+	}
+}
@@ -74,7 +74,7 @@ public class CopyData {
 			StringData stringData = new StringData(newCard);
 			IntData intSource = (IntData)sourceData;
 			for (int i=0; i<newCard; ++i) {
-				int code = intSource.data[i];
+				int code = intSource.get(i);
 				String token = BufferManager.dictionary.getString(code);
 				stringData.data[i] = token;
 			}